@@ -0,0 +1,73 @@
+#!/bin/sh
+# Builds the fast-startup simulation launcher and measures its startup time.
+#
+#   scripts/fast-startup.sh build            compile the classes and create the class-data-sharing archive
+#   scripts/fast-startup.sh bench [runs]     compare launches with and without the archive
+#   scripts/fast-startup.sh native           build a GraalVM native image (needs native-image on the PATH)
+#   scripts/fast-startup.sh run [games] [firstSeed]
+#
+# Classes are compiled with inline string concatenation so that no invokedynamic bootstrap runs at
+# startup. The archive is written by a training run of FastSimulationMain with
+# -XX:ArchiveClassesAtExit and reused with -XX:SharedArchiveFile.
+set -e
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT="$ROOT/build/fast-startup"
+CLASSES="$OUT/classes"
+JAR="$OUT/duocardgame.jar"
+ARCHIVE="$OUT/duocardgame.jsa"
+MAIN=com.duocardgame.FastSimulationMain
+JAVA_OPTS="-XX:TieredStopAtLevel=1 -XX:+UseSerialGC -Xshare:auto"
+
+build() {
+    rm -rf "$CLASSES"
+    mkdir -p "$CLASSES"
+    javac -XDstringConcat=inline -d "$CLASSES" "$ROOT"/src/com/duocardgame/*.java
+    # Class-data sharing only archives classes loaded from jar files.
+    jar --create --file "$JAR" -C "$CLASSES" .
+    java $JAVA_OPTS -XX:ArchiveClassesAtExit="$ARCHIVE" -cp "$JAR" $MAIN 200 > /dev/null
+    echo "Archive written to $ARCHIVE"
+}
+
+now_micros() {
+    echo $(( $(date +%s%N) / 1000 ))
+}
+
+# Prints the average wall-clock time of launching the JVM and playing one game.
+time_launch() {
+    runs=$1
+    shift
+    total=0
+    i=0
+    while [ $i -lt "$runs" ]; do
+        begin=$(now_micros)
+        java "$@" -cp "$JAR" $MAIN 1 > /dev/null
+        total=$(( total + $(now_micros) - begin ))
+        i=$(( i + 1 ))
+    done
+    echo $(( total / runs / 1000 ))
+}
+
+bench() {
+    runs=${1:-10}
+    [ -f "$ARCHIVE" ] || build
+    echo "Time to first game over $runs launches, in milliseconds:"
+    echo "  default JVM:           $(time_launch "$runs")"
+    echo "  tuned flags:           $(time_launch "$runs" $JAVA_OPTS)"
+    echo "  tuned flags + archive: $(time_launch "$runs" $JAVA_OPTS -XX:SharedArchiveFile="$ARCHIVE")"
+}
+
+native() {
+    [ -f "$JAR" ] || build
+    # The engine uses no reflection, resources or dynamic proxies, so no extra configuration is needed.
+    native-image --no-fallback -O2 -cp "$JAR" -o "$OUT/duocardgame-sim" $MAIN
+    echo "Native image written to $OUT/duocardgame-sim"
+}
+
+case "${1:-build}" in
+    build) build ;;
+    bench) shift; bench "$@" ;;
+    native) native ;;
+    run) shift; [ -f "$ARCHIVE" ] || build; java $JAVA_OPTS -XX:SharedArchiveFile="$ARCHIVE" -cp "$JAR" $MAIN "$@" ;;
+    *) echo "Usage: $0 [build | bench [runs] | native | run [games] [firstSeed]]" >&2; exit 2 ;;
+esac
@@ -1,5 +1,7 @@
 package com.duocardgame;
 
+import java.util.List;
+
 /**
 * Represents an action card in the game which has a specific action type 
 * and associated behavior when played.
@@ -86,32 +88,53 @@ public class ActionCard extends Card {
      * </ul>
      * </p>
      *
+     * <p>
+     * While the flight recorder runs, the effect is reported as an {@link ActionEffectEvent}.
+     * </p>
+     *
      * @param mediator the game mediator that controls the game flow and state
      */
     @Override
     public void executeEffect(IGameMediator mediator) {
-        System.out.println("Executing effect of " + actionType);
+        if (!FlightRecording.isStarted()) {
+            applyEffect(mediator);
+            return;
+        }
+        ActionEffectEvent event = new ActionEffectEvent();
+        int seat = event.isEnabled() ? mediator.getCurrentPlayer().getSeat() : -1;
+        event.begin();
+        applyEffect(mediator);
+        event.end();
+        if (event.shouldCommit()) {
+            event.action = actionType.name();
+            event.seat = seat;
+            event.commit();
+        }
+    }
+
+    /**
+     * Applies the effect of this action card to the game.
+     *
+     * @param mediator the game mediator that controls the game flow and state
+     */
+    private void applyEffect(IGameMediator mediator) {
+        if (mediator.isLogging()) mediator.log("Executing effect of " + actionType);
         switch(actionType) {
             case DRAW_TWO:
                 mediator.moveToNextPlayer();
                 Player drawTwoNextPlayer = mediator.getCurrentPlayer();
-                Deck drawTwoDeck = mediator.getDeck();
-                for(int i = 0; i < 2; i++){
-                    Card drawn = drawTwoDeck.drawCard();
-                    drawTwoNextPlayer.addCard(drawn);
-                    System.out.println(drawTwoNextPlayer.getName() + " draws " + drawn);
-                }
-                mediator.setDeck(drawTwoDeck);
+                mediator.drawCards(drawTwoNextPlayer, 2);
+                logDrawn(mediator, drawTwoNextPlayer, 2);
                 break;
             case REVERSE:
                 if (mediator instanceof DuoCardGame) {
                     ((DuoCardGame)mediator).reverseDirection();
-                    System.out.println("Game direction reversed.");
+                    mediator.log("Game direction reversed.");
                 }
                 break;
             case SKIP:
                 mediator.moveToNextPlayer();
-                System.out.println(mediator.getCurrentPlayer().getName() + " is skipped.");
+                if (mediator.isLogging()) mediator.log(mediator.getCurrentPlayer().getName() + " is skipped.");
                 break;
             case WILD:
                 Player wildCurrentPlayer = mediator.getCurrentPlayer();
@@ -119,7 +142,7 @@ public class ActionCard extends Card {
                 if(mediator instanceof DuoCardGame) {
                     ((DuoCardGame)mediator).setCurrentColor(wildChosenColor);
                 }
-                System.out.println(wildCurrentPlayer.getName() + " chooses color " + wildChosenColor);
+                if (mediator.isLogging()) mediator.log(wildCurrentPlayer.getName() + " chooses color " + wildChosenColor);
                 color = wildChosenColor;
                 break;
             case WILD_DRAW_FOUR:
@@ -131,22 +154,17 @@ public class ActionCard extends Card {
                 color = wildFourChosenColor;
                 mediator.moveToNextPlayer();
                 Player wildFourNextPlayer = mediator.getCurrentPlayer();
-                Deck drawFourDeck = mediator.getDeck();
-                for(int i = 0; i < 4; i++){
-                    Card drawn = drawFourDeck.drawCard();
-                    wildFourNextPlayer.addCard(drawn);
-                    System.out.println(wildFourNextPlayer.getName() + " draws " + drawn);
-                }
-                mediator.setDeck(drawFourDeck);
+                mediator.drawCards(wildFourNextPlayer, 4);
+                logDrawn(mediator, wildFourNextPlayer, 4);
                 break;
             case SHUFFLE_HANDS:
-                System.out.println("Shuffling hands among players.");
+                mediator.log("Shuffling hands among players.");
                 if(mediator instanceof DuoCardGame) {
                     ((DuoCardGame)mediator).shuffleHands();
                     Player shuffleCurrentPlayer = mediator.getCurrentPlayer();
                     CardColor chosen = shuffleCurrentPlayer.chooseColor();
                     ((DuoCardGame)mediator).setCurrentColor(chosen);
-                    System.out.println(shuffleCurrentPlayer.getName() + " chooses color " + chosen);
+                    if (mediator.isLogging()) mediator.log(shuffleCurrentPlayer.getName() + " chooses color " + chosen);
                     color = chosen;
                 }
                 break;
@@ -155,6 +173,21 @@ public class ActionCard extends Card {
         }
     }
     
+    /**
+     * Logs the cards a player has just drawn, which are the last cards of the hand.
+     *
+     * @param mediator the game mediator to log through
+     * @param player the player who drew the cards
+     * @param count the number of cards drawn
+     */
+    private static void logDrawn(IGameMediator mediator, Player player, int count) {
+        if (!mediator.isLogging()) return;
+        List<Card> hand = player.getHandView();
+        for (int i = hand.size() - count; i < hand.size(); i++) {
+            mediator.log(player.getName() + " draws " + hand.get(i));
+        }
+    }
+    
     /**
      * Returns a string representation of this action card.
      * <p>
@@ -0,0 +1,28 @@
+package com.duocardgame;
+
+import jdk.jfr.*;
+
+/**
+ * A Java Flight Recorder event covering the effect of one action card.
+ * <p>
+ * Emitted by {@link ActionCard#executeEffect(IGameMediator)}, so the duration includes the draws, color
+ * choices and hand shuffles the effect triggers.
+ * Effects are frequent and short, so the event is disabled by default and must be enabled explicitly,
+ * for example with {@code +com.duocardgame.ActionEffect#enabled=true} in {@code -XX:StartFlightRecording}.
+ * </p>
+ */
+@Name("com.duocardgame.ActionEffect")
+@Label("Action Effect")
+@Category({ "Duo Card Game", "Engine" })
+@Description("The effect of an action card, including the draws and color choice it triggers")
+@StackTrace(false)
+@Enabled(false)
+final class ActionEffectEvent extends Event {
+    /** The name of the action type. */
+    @Label("Action")
+    String action;
+
+    /** The seat of the player whose turn it was when the effect started. */
+    @Label("Seat")
+    int seat;
+}
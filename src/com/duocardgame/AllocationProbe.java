@@ -0,0 +1,157 @@
+package com.duocardgame;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the heap memory allocated by the game engine and fails when it exceeds the budgets.
+ * <p>
+ * Silent seeded games are played on the current thread and
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)} is read around every turn, round
+ * and game. The averages are printed next to their budgets, and the process exits with status 1 if any
+ * average is over budget, so the probe can run as a build step and stop allocation regressions in the hot
+ * paths. A round includes dealing the next round; a game includes creating the game and its players.
+ * </p>
+ * <p>
+ * Usage: {@code AllocationProbe [games]}
+ * </p>
+ */
+public class AllocationProbe {
+    /** The allowed average allocation per turn, in bytes. */
+    static final long TURN_BUDGET = 16;
+
+    /** The allowed average allocation per round, in bytes. */
+    static final long ROUND_BUDGET = 2 * 1024;
+
+    /** The allowed average allocation per game, in bytes. */
+    static final long GAME_BUDGET = 32 * 1024;
+
+    /** The number of games played before measuring, so that the JIT compiler has settled. */
+    private static final int WARMUP_GAMES = 2000;
+
+    /** The thread bean reading allocation counters. */
+    private final com.sun.management.ThreadMXBean threads;
+
+    /** The id of the measured thread. */
+    private final long threadId = Thread.currentThread().getId();
+
+    /** The bytes allocated while playing turns. */
+    private long turnBytes;
+
+    /** The number of turns played. */
+    private long turns;
+
+    /** The bytes allocated while playing rounds. */
+    private long roundBytes;
+
+    /** The number of rounds played. */
+    private long rounds;
+
+    /** The bytes allocated while playing whole games. */
+    private long gameBytes;
+
+    /** The number of games played. */
+    private long games;
+
+    /**
+     * Constructs a probe for the current thread.
+     *
+     * @throws UnsupportedOperationException if the JVM cannot measure thread allocation
+     */
+    public AllocationProbe() {
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new UnsupportedOperationException("Thread allocation measurement is not supported");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Plays one seeded game, measuring every turn, round and the whole game.
+     *
+     * @param seed the seed of the game
+     */
+    void playGame(long seed) {
+        long gameStart = allocated();
+        DuoCardGame game = new DuoCardGame(seed);
+        game.setVerbose(false);
+        game.setLogger(null);
+        try {
+            game.startGame();
+            while (!game.isGameOver()) {
+                int round = game.getRoundNumber();
+                long roundStart = allocated();
+                while (true) {
+                    long turnStart = allocated();
+                    game.playTurn();
+                    // The turn that ends a round also deals the next one; it is counted with the round only.
+                    if (game.getRoundNumber() != round) break;
+                    turnBytes += allocated() - turnStart;
+                    turns++;
+                }
+                roundBytes += allocated() - roundStart;
+                rounds++;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            // Both piles ran out of cards; the game is not measured.
+            return;
+        }
+        gameBytes += allocated() - gameStart;
+        games++;
+    }
+
+    /**
+     * Returns the bytes allocated by the measured thread so far.
+     *
+     * @return the allocated bytes
+     */
+    private long allocated() {
+        return threads.getThreadAllocatedBytes(threadId);
+    }
+
+    /**
+     * Forgets all measurements, for example after warming up.
+     */
+    void reset() {
+        turnBytes = turns = roundBytes = rounds = gameBytes = games = 0;
+    }
+
+    /**
+     * Prints one measurement and checks it against its budget.
+     *
+     * @param name the name of the measured unit
+     * @param bytes the total bytes allocated
+     * @param count the number of units measured
+     * @param budget the allowed average bytes per unit
+     * @return {@code true} if the average is within the budget; {@code false} otherwise
+     */
+    private static boolean report(String name, long bytes, long count, long budget) {
+        double average = count == 0 ? 0 : (double) bytes / count;
+        boolean ok = average <= budget;
+        System.out.printf("%-6s %12.1f bytes avg over %9d  budget %7d  %s%n", name, average, count, budget,
+                ok ? "ok" : "OVER BUDGET");
+        return ok;
+    }
+
+    /**
+     * Runs the probe and exits with status 1 if any budget is exceeded.
+     *
+     * @param args the optional number of measured games
+     */
+    public static void main(String[] args) {
+        int measured = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        AllocationProbe probe = new AllocationProbe();
+        for (int i = 0; i < WARMUP_GAMES; i++) {
+            probe.playGame(-1 - i);
+        }
+        probe.reset();
+        for (int i = 0; i < measured; i++) {
+            probe.playGame(i + 1);
+        }
+        boolean ok = report("turn", probe.turnBytes, probe.turns, TURN_BUDGET);
+        ok &= report("round", probe.roundBytes, probe.rounds, ROUND_BUDGET);
+        ok &= report("game", probe.gameBytes, probe.games, GAME_BUDGET);
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.duocardgame;
+
+import java.util.*;
+
+/**
+ * Compares per-turn decisions with batched decisions for an evaluator whose cost is dominated by its weights.
+ * <p>
+ * The evaluator is a multilayer perceptron with random weights that scores every card from the hand and
+ * the top card, as a trained policy network would, and plays the best scoring playable card. Called once per
+ * turn, it streams all of its weights from memory for every decision; called through a {@link BatchScheduler},
+ * each weight it loads serves a block of decisions. Both ways make exactly the same decisions, so the games and
+ * their outcomes are identical and only the time per decision differs.
+ * </p>
+ * <p>
+ * A batch can only be as large as the number of games in progress, so the default number of games is four
+ * times the largest requested batch size, and every row reports the mean batch actually formed next to the
+ * requested size.
+ * </p>
+ * <p>
+ * Usage: {@code BatchDecisionBenchmark [games] [players] [hiddenSize] [batchSizes]}, where the batch sizes are
+ * a comma-separated list such as {@code 1,16,64,256}.
+ * </p>
+ */
+public class BatchDecisionBenchmark {
+    /**
+     * A policy network that scores the actions of a turn. Its scratch buffers make it single-threaded.
+     */
+    private static final class MlpStrategy implements BatchStrategy {
+        /** The number of outputs computed together, 4 KiB of each output row. */
+        private static final int COLUMN_BLOCK = 1024;
+
+        /** The number of rows whose block of outputs is kept in cache while all of the weights stream past. */
+        private static final int ROW_BLOCK = 8;
+
+        /** The number of inputs: the hand as counts per uncolored face and the top card as a one-hot face. */
+        private static final int INPUTS = 2 * CardCatalog.FACE_COUNT;
+
+        /** The number of outputs: one score per uncolored face. */
+        private static final int OUTPUTS = CardCatalog.FACE_COUNT;
+
+        /** The number of units of each hidden layer. */
+        private final int hidden;
+
+        /** The weights of each layer, one array per input. */
+        private final float[][][] weights;
+
+        /** The biases of each layer. */
+        private final float[][] biases;
+
+        /** The input rows of the current batch. */
+        private float[][] input;
+
+        /** The first hidden layer's rows of the current batch. */
+        private float[][] first;
+
+        /** The second hidden layer's rows of the current batch. */
+        private float[][] second;
+
+        /** The output rows of the current batch. */
+        private float[][] output;
+
+        /** The number of decisions made. */
+        private long decisions;
+
+        /**
+         * Constructs a network with random weights.
+         *
+         * @param hidden the number of units of each hidden layer
+         * @param seed the seed of the weights
+         */
+        MlpStrategy(int hidden, long seed) {
+            this.hidden = hidden;
+            int[] sizes = { INPUTS, hidden, hidden, OUTPUTS };
+            weights = new float[3][][];
+            biases = new float[3][];
+            SplittableRandom random = new SplittableRandom(seed);
+            for (int layer = 0; layer < 3; layer++) {
+                float limit = (float) Math.sqrt(6.0 / (sizes[layer] + sizes[layer + 1]));
+                weights[layer] = new float[sizes[layer]][sizes[layer + 1]];
+                for (float[] row : weights[layer]) {
+                    for (int j = 0; j < row.length; j++) {
+                        row[j] = (float) (random.nextDouble() * 2 - 1) * limit;
+                    }
+                }
+                biases[layer] = new float[sizes[layer + 1]];
+            }
+            ensureRows(1);
+        }
+
+        /**
+         * Decides a single turn.
+         *
+         * @param player the player whose turn it is
+         * @param topCard the card on the top of the discard pile
+         * @param random the game's random number generator (unused)
+         * @return the highest scoring playable card, or {@code null} if no card is playable
+         */
+        @Override
+        public Card choosePlayableCard(Player player, Card topCard, Random random) {
+            encode(0, player, topCard);
+            forward(1);
+            decisions++;
+            return choose(0, player, topCard);
+        }
+
+        /**
+         * Decides every turn of a batch with one pass through the network.
+         *
+         * @param batch the pending decisions
+         */
+        @Override
+        public void chooseBatch(DecisionBatch batch) {
+            int rows = batch.size();
+            ensureRows(rows);
+            for (int i = 0; i < rows; i++) {
+                encode(i, batch.getPlayer(i), batch.getTopCard(i));
+            }
+            forward(rows);
+            for (int i = 0; i < rows; i++) {
+                batch.setCard(i, choose(i, batch.getPlayer(i), batch.getTopCard(i)));
+            }
+            decisions += rows;
+        }
+
+        /**
+         * Grows the scratch buffers to hold the given number of rows.
+         *
+         * @param rows the number of rows
+         */
+        private void ensureRows(int rows) {
+            if (input == null || input.length < rows) {
+                input = new float[rows][INPUTS];
+                first = new float[rows][hidden];
+                second = new float[rows][hidden];
+                output = new float[rows][OUTPUTS];
+            }
+        }
+
+        /**
+         * Writes the input row of a decision.
+         *
+         * @param row the row
+         * @param player the player whose turn it is
+         * @param topCard the card on the top of the discard pile
+         */
+        private void encode(int row, Player player, Card topCard) {
+            float[] in = input[row];
+            Arrays.fill(in, 0);
+            List<Card> hand = player.getHandView();
+            for (int i = 0; i < hand.size(); i++) {
+                in[CardCatalog.uncolored(CardCatalog.faceOf(hand.get(i)))]++;
+            }
+            in[CardCatalog.FACE_COUNT + CardCatalog.faceOf(topCard)] = 1;
+        }
+
+        /**
+         * Runs the rows of the current batch through the network.
+         *
+         * @param rows the number of rows
+         */
+        private void forward(int rows) {
+            layer(input, weights[0], biases[0], first, rows, true);
+            layer(first, weights[1], biases[1], second, rows, true);
+            layer(second, weights[2], biases[2], output, rows, false);
+        }
+
+        /**
+         * Computes one dense layer for a batch of rows.
+         * <p>
+         * The outputs are computed {@link #COLUMN_BLOCK} columns of {@link #ROW_BLOCK} rows at a time. Such a
+         * block of outputs stays in the first-level cache while every input's weights for those columns stream
+         * past once, so each weight loaded serves all rows of the block instead of one. A single row gains
+         * nothing from this and is computed over whole output rows. Each weight row and output row is an array
+         * of its own, indexed the same way in the innermost loop, which lets the JIT vectorize that loop; it
+         * cannot rule out that two offsets into one flat array overlap. The inputs of every output are summed in
+         * ascending order whatever the blocking, so the scores do not depend on the batch size.
+         * </p>
+         *
+         * @param in the input rows
+         * @param w the weights, one array per input
+         * @param bias the biases
+         * @param out the output rows
+         * @param rows the number of rows
+         * @param relu whether to apply a rectifier to the outputs
+         */
+        private static void layer(float[][] in, float[][] w, float[] bias, float[][] out, int rows, boolean relu) {
+            int outSize = bias.length;
+            for (int r = 0; r < rows; r++) {
+                System.arraycopy(bias, 0, out[r], 0, outSize);
+            }
+            int columns = rows == 1 ? outSize : COLUMN_BLOCK;
+            for (int j0 = 0; j0 < outSize; j0 += columns) {
+                int j1 = Math.min(outSize, j0 + columns);
+                for (int r0 = 0; r0 < rows; r0 += ROW_BLOCK) {
+                    int r1 = Math.min(rows, r0 + ROW_BLOCK);
+                    for (int k = 0; k < w.length; k++) {
+                        float[] wk = w[k];
+                        for (int r = r0; r < r1; r++) {
+                            float a = in[r][k];
+                            if (a == 0) continue;
+                            float[] o = out[r];
+                            for (int j = j0; j < j1; j++) {
+                                o[j] += a * wk[j];
+                            }
+                        }
+                    }
+                }
+            }
+            if (relu) {
+                for (int r = 0; r < rows; r++) {
+                    float[] o = out[r];
+                    for (int j = 0; j < outSize; j++) {
+                        if (o[j] < 0) o[j] = 0;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Picks the highest scoring playable card of a row.
+         *
+         * @param row the row
+         * @param player the player whose turn it is
+         * @param topCard the card on the top of the discard pile
+         * @return the chosen card, or {@code null} to draw if no card is playable
+         */
+        private Card choose(int row, Player player, Card topCard) {
+            float[] scores = output[row];
+            float best = Float.NEGATIVE_INFINITY;
+            Card chosen = null;
+            List<Card> hand = player.getHandView();
+            for (int i = 0; i < hand.size(); i++) {
+                Card card = hand.get(i);
+                if (!card.isPlayable(topCard)) continue;
+                float score = scores[CardCatalog.uncolored(CardCatalog.faceOf(card))];
+                if (score > best) {
+                    best = score;
+                    chosen = card;
+                }
+            }
+            return chosen;
+        }
+    }
+
+    /**
+     * Runs the comparison and prints the time per decision of each way.
+     *
+     * @param args optional number of games, players, hidden layer size and batch sizes
+     */
+    public static void main(String[] args) {
+        String[] sizes = (args.length > 3 ? args[3] : "1,16,64,256").split(",");
+        int largest = 1;
+        for (String size : sizes) {
+            largest = Math.max(largest, Integer.parseInt(size.trim()));
+        }
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(100, 4 * largest);
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int hidden = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+
+        MlpStrategy network = new MlpStrategy(hidden, 1);
+        List<PlayerStrategy> seats = Collections.nCopies(players, network);
+        // Warm up both paths before timing them.
+        for (int seed = 1; seed <= games / 10; seed++) {
+            Simulation.playGame(seats, seed, new SimulationResult(players));
+        }
+        new BatchScheduler(seats, largest).run(1, games / 10);
+
+        SimulationResult perTurn = new SimulationResult(players);
+        network.decisions = 0;
+        long start = System.nanoTime();
+        for (int seed = 1; seed <= games; seed++) {
+            Simulation.playGame(seats, seed, perTurn);
+        }
+        double perTurnNanos = (double) (System.nanoTime() - start) / network.decisions;
+        System.out.printf("%d games, %d players, %d hidden units%n", games, players, hidden);
+        System.out.printf("per-turn calls: %10.0f ns per decision over %d decisions%n", perTurnNanos, network.decisions);
+
+        for (String size : sizes) {
+            int concurrency = Integer.parseInt(size.trim());
+            BatchScheduler scheduler = new BatchScheduler(seats, concurrency);
+            network.decisions = 0;
+            start = System.nanoTime();
+            SimulationResult batched = scheduler.run(1, games);
+            double nanos = (double) (System.nanoTime() - start) / scheduler.getDecisions();
+            boolean same = batched.getGames() == perTurn.getGames() && batched.getRounds() == perTurn.getRounds()
+                    && batched.getAborted() == perTurn.getAborted();
+            for (int i = 0; i < players; i++) {
+                same &= batched.getWins(i) == perTurn.getWins(i);
+            }
+            System.out.printf("batches of %4d (mean %6.1f): %10.0f ns per decision, %.2fx faster, same outcome: %s%n",
+                    concurrency, (double) scheduler.getDecisions() / scheduler.getCalls(), nanos, perTurnNanos / nanos,
+                    same);
+        }
+    }
+}
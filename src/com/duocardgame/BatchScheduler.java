@@ -0,0 +1,328 @@
+package com.duocardgame;
+
+import java.util.*;
+
+/**
+ * Plays many seeded games side by side and decides the turns of {@link BatchStrategy} seats in batches.
+ * <p>
+ * Up to {@code concurrency} games are in progress at once. Each step advances every game to its next turn
+ * taken by a batched seat, playing the turns of the other seats inline, then hands all pending decisions of
+ * a strategy to {@link BatchStrategy#chooseBatch(DecisionBatch)} in one call and plays each game's turn with
+ * its answer. A finished game is replaced by the next seed. As long as a strategy decides a batch the same
+ * way it decides single turns, every game ends exactly as {@link Simulation#playGame(List, long,
+ * SimulationResult)} would end it.
+ * </p>
+ * <p>
+ * A scheduler runs on the calling thread and is not safe for concurrent use.
+ * </p>
+ */
+public class BatchScheduler {
+    /** The strategy of each seat. */
+    private final List<PlayerStrategy> seats;
+
+    /** The largest number of games in progress at once, which bounds the batch size. */
+    private final int concurrency;
+
+    /** For each seat, the index of its batch in {@link #batches}, or -1 if the seat is played inline. */
+    private final int[] seatBatch;
+
+    /** The batched strategies, one per distinct instance among the seats. */
+    private final List<BatchStrategy> strategies = new ArrayList<>();
+
+    /** The pending decisions of each batched strategy. */
+    private final List<DecisionBatch> batches = new ArrayList<>();
+
+    /** The number of batched decisions made so far. */
+    private long decisions;
+
+    /** The number of calls to {@link BatchStrategy#chooseBatch(DecisionBatch)} made so far. */
+    private long calls;
+
+    /** A game in progress and the adapters that play its batched seats. */
+    private static final class Slot {
+        /** The strategy of each seat of the slot's games, with adapters in the batched seats. */
+        final List<PlayerStrategy> seats;
+
+        /** The adapter of each batched seat, or {@code null} for seats played inline. */
+        final PendingDecision[] adapters;
+
+        /** The game in progress, or {@code null} once no seeds are left. */
+        DuoCardGame game;
+
+        /** The batch holding this game's pending decision, or -1 if none is pending. */
+        int batch = -1;
+
+        /** The index of the pending decision in its batch. */
+        int index;
+
+        /**
+         * Constructs a slot for the given seating.
+         *
+         * @param seats the strategy of each seat
+         * @param seatBatch the batch of each seat, or -1 for seats played inline
+         */
+        Slot(List<PlayerStrategy> seats, int[] seatBatch) {
+            adapters = new PendingDecision[seats.size()];
+            List<PlayerStrategy> own = new ArrayList<>(seats.size());
+            for (int i = 0; i < seats.size(); i++) {
+                if (seatBatch[i] >= 0) {
+                    adapters[i] = new PendingDecision((BatchStrategy) seats.get(i));
+                    own.add(adapters[i]);
+                } else {
+                    own.add(seats.get(i));
+                }
+            }
+            this.seats = own;
+        }
+    }
+
+    /**
+     * Plays a batched seat's turn with the decision the batch made for it.
+     * <p>
+     * A color named by the batch is used for the first wild card the player plays that turn; any other color
+     * choice goes to the batched strategy one call at a time.
+     * </p>
+     */
+    private static final class PendingDecision implements PlayerStrategy {
+        /** The batched strategy of the seat. */
+        private final BatchStrategy strategy;
+
+        /** The card of the pending decision, or {@code null} to draw. */
+        private Card card;
+
+        /** The color named by the pending decision, or {@code null}. */
+        private CardColor color;
+
+        /**
+         * Constructs an adapter for a batched seat.
+         *
+         * @param strategy the batched strategy of the seat
+         */
+        PendingDecision(BatchStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        /**
+         * Returns the card of the pending decision.
+         *
+         * @param player the player whose turn it is
+         * @param topCard the card on the top of the discard pile
+         * @param random the game's random number generator (unused)
+         * @return the decided card, or {@code null} to draw
+         * @throws IllegalStateException if the decided card cannot be played on the top card
+         */
+        @Override
+        public Card choosePlayableCard(Player player, Card topCard, Random random) {
+            Card decided = card;
+            card = null;
+            if (decided != null && !decided.isPlayable(topCard)) {
+                throw new IllegalStateException(decided + " cannot be played on " + topCard);
+            }
+            return decided;
+        }
+
+        /**
+         * Returns the color named by the pending decision, or asks the batched strategy for one.
+         *
+         * @param player the player who played the wild card
+         * @param random the game's random number generator
+         * @return the chosen non-WILD color
+         */
+        @Override
+        public CardColor chooseColor(Player player, Random random) {
+            CardColor named = color;
+            if (named != null) {
+                color = null;
+                return named;
+            }
+            return strategy.chooseColor(player, random);
+        }
+
+        /**
+         * Returns the configuration key of the batched strategy.
+         *
+         * @return the configuration key
+         */
+        @Override
+        public String getConfigKey() {
+            return strategy.getConfigKey();
+        }
+    }
+
+    /**
+     * Constructs a scheduler for the given seating.
+     *
+     * @param seats the strategy of each seat; seats with a {@link BatchStrategy} are decided in batches
+     * @param concurrency the largest number of games in progress at once
+     */
+    public BatchScheduler(List<PlayerStrategy> seats, int concurrency) {
+        this.seats = seats;
+        this.concurrency = concurrency;
+        seatBatch = new int[seats.size()];
+        for (int i = 0; i < seats.size(); i++) {
+            PlayerStrategy strategy = seats.get(i);
+            seatBatch[i] = -1;
+            if (strategy instanceof BatchStrategy) {
+                int batch = strategies.indexOf(strategy);
+                if (batch < 0) {
+                    batch = strategies.size();
+                    strategies.add((BatchStrategy) strategy);
+                    batches.add(new DecisionBatch(concurrency));
+                }
+                seatBatch[i] = batch;
+            }
+        }
+    }
+
+    /**
+     * Plays the games with seeds {@code firstSeed} to {@code firstSeed + games - 1}.
+     *
+     * @param firstSeed the seed of the first game
+     * @param games the number of games to play
+     * @return the combined outcome of all games
+     */
+    public SimulationResult run(long firstSeed, int games) {
+        SimulationResult result = new SimulationResult(seats.size());
+        Slot[] slots = new Slot[Math.min(concurrency, games)];
+        long nextSeed = firstSeed;
+        long end = firstSeed + games;
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot(seats, seatBatch);
+            nextSeed = start(slots[i], nextSeed, end, result);
+        }
+        boolean active = true;
+        while (active) {
+            active = false;
+            for (Slot slot : slots) {
+                nextSeed = advance(slot, nextSeed, end, result);
+            }
+            for (int b = 0; b < batches.size(); b++) {
+                DecisionBatch batch = batches.get(b);
+                if (batch.size() > 0) {
+                    strategies.get(b).chooseBatch(batch);
+                    decisions += batch.size();
+                    calls++;
+                }
+            }
+            for (Slot slot : slots) {
+                if (slot.batch >= 0) {
+                    nextSeed = apply(slot, batches.get(slot.batch), nextSeed, end, result);
+                }
+            }
+            for (DecisionBatch batch : batches) {
+                batch.clear();
+            }
+            for (Slot slot : slots) {
+                active |= slot.game != null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Starts the next game in a slot, or empties the slot if no seeds are left.
+     *
+     * @param slot the slot
+     * @param nextSeed the seed of the next game
+     * @param end the seed after the last game
+     * @param result the result recording aborted games
+     * @return the seed of the game after the one started
+     */
+    private long start(Slot slot, long nextSeed, long end, SimulationResult result) {
+        while (nextSeed < end) {
+            DuoCardGame game = new DuoCardGame(nextSeed++, slot.seats);
+            game.setVerbose(false);
+            game.setLogger(null);
+            try {
+                game.startGame();
+                slot.game = game;
+                return nextSeed;
+            } catch (IndexOutOfBoundsException e) {
+                // Both piles ran out of cards; the game cannot continue.
+                result.recordAborted();
+            }
+        }
+        slot.game = null;
+        return nextSeed;
+    }
+
+    /**
+     * Plays a slot's game inline until a batched seat is to move, and queues that seat's decision.
+     * Finished games are recorded and replaced.
+     *
+     * @param slot the slot
+     * @param nextSeed the seed of the next game
+     * @param end the seed after the last game
+     * @param result the result to record finished games into
+     * @return the seed of the next game
+     */
+    private long advance(Slot slot, long nextSeed, long end, SimulationResult result) {
+        slot.batch = -1;
+        while (slot.game != null) {
+            DuoCardGame game = slot.game;
+            if (game.isGameOver()) {
+                result.record(game.getWinner().getSeat(), game.getRoundNumber() - 1);
+                nextSeed = start(slot, nextSeed, end, result);
+                continue;
+            }
+            Player player = game.getCurrentPlayer();
+            int batch = seatBatch[player.getSeat()];
+            if (batch >= 0) {
+                slot.batch = batch;
+                slot.index = batches.get(batch).add(player, game.getDeck().getTopDiscardPileCard());
+                return nextSeed;
+            }
+            try {
+                game.playTurn();
+            } catch (IndexOutOfBoundsException e) {
+                result.recordAborted();
+                nextSeed = start(slot, nextSeed, end, result);
+            }
+        }
+        return nextSeed;
+    }
+
+    /**
+     * Plays a slot's pending turn with the decision its batch made.
+     *
+     * @param slot the slot
+     * @param batch the batch holding the decision
+     * @param nextSeed the seed of the next game
+     * @param end the seed after the last game
+     * @param result the result recording aborted games
+     * @return the seed of the next game
+     */
+    private long apply(Slot slot, DecisionBatch batch, long nextSeed, long end, SimulationResult result) {
+        DuoCardGame game = slot.game;
+        PendingDecision adapter = slot.adapters[game.getCurrentPlayer().getSeat()];
+        adapter.card = batch.getCard(slot.index);
+        adapter.color = batch.getColor(slot.index);
+        try {
+            game.playTurn();
+        } catch (IndexOutOfBoundsException e) {
+            result.recordAborted();
+            nextSeed = start(slot, nextSeed, end, result);
+        }
+        adapter.card = null;
+        adapter.color = null;
+        return nextSeed;
+    }
+
+    /**
+     * Returns the number of batched decisions made so far.
+     *
+     * @return the decision count
+     */
+    public long getDecisions() {
+        return decisions;
+    }
+
+    /**
+     * Returns the number of batch calls made so far.
+     *
+     * @return the call count
+     */
+    public long getCalls() {
+        return calls;
+    }
+}
@@ -0,0 +1,31 @@
+package com.duocardgame;
+
+/**
+ * A strategy that can decide the turns of many games in one call.
+ * <p>
+ * A {@link BatchScheduler} collects the pending card decisions of many games into a {@link DecisionBatch}
+ * and passes them to {@link #chooseBatch(DecisionBatch)} together, so expensive evaluators such as lookup
+ * tables or neural networks can share their setup and memory traffic across the batch. The games still call
+ * {@link #chooseColor(Player, java.util.Random)} one at a time for the wild cards the batch did not name a
+ * color for, such as a drawn wild card or the starting card.
+ * </p>
+ */
+public interface BatchStrategy extends PlayerStrategy {
+    /**
+     * Decides every turn of a batch, writing the results at the same indices as the decisions.
+     * <p>
+     * For each decision {@code i}, the card to play, or {@code null} to draw, is set with
+     * {@link DecisionBatch#setCard(int, Card)}; a wild card may also get its color with
+     * {@link DecisionBatch#setColor(int, CardColor)}. The decisions belong to different games, so each one
+     * must draw from its own {@link DecisionBatch#getRandom(int) random source}. By default every decision is
+     * made by {@link #choosePlayableCard(Player, Card, java.util.Random)} in order.
+     * </p>
+     *
+     * @param batch the pending decisions
+     */
+    default void chooseBatch(DecisionBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            batch.setCard(i, choosePlayableCard(batch.getPlayer(i), batch.getTopCard(i), batch.getRandom(i)));
+        }
+    }
+}
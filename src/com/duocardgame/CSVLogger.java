@@ -21,11 +21,18 @@ public class CSVLogger {
      * <p>
      * The method writes the round number and player scores to a CSV file located at "Files/game_status.csv".
      * If it's the first log, headers are added. When the game is over, a footer with the winner's name is appended.
+     * While the flight recorder runs, each write is reported as a {@link CsvFlushEvent}.
      * </p>
      *
      * @param game the {@code DuoCardGame} instance whose status is to be logged
      */
     public void logGameStatus(DuoCardGame game) {
+        CsvFlushEvent event = null;
+        if (FlightRecording.isStarted()) {
+            event = new CsvFlushEvent();
+            event.begin();
+        }
+        int lines = 0;
         try {
             File file = new File("Files/game_status.csv");
             file.getParentFile().mkdirs();
@@ -43,6 +50,7 @@ public class CSVLogger {
                     header.append(",").append(p.getName());
                 }
                 pw.println(header.toString());
+                lines++;
                 isFirstLog = false;  // Subsequent logs will be appended.
             }
 
@@ -52,16 +60,27 @@ public class CSVLogger {
                 sb.append(",").append(p.getScore());
             }
             pw.println(sb.toString());
+            lines++;
             
             // If the game is over, log the winner's name.
             if (game.isGameOver()) {
                 StringBuilder footer = new StringBuilder();
                 footer.append("Winner,").append(game.getWinner().getName());
                 pw.println(footer.toString());
+                lines++;
             }
             pw.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.roundNumber = game.getRoundNumber();
+                event.lines = lines;
+                event.path = "Files/game_status.csv";
+                event.commit();
+            }
+        }
     }
 }
@@ -0,0 +1,238 @@
+package com.duocardgame;
+
+/**
+ * Enumerates every distinct card face that can appear in the game and assigns each one a small integer id.
+ * <p>
+ * A face is the combination of a card's kind and its current color. Number cards and the colored action
+ * cards ({@code DRAW_TWO}, {@code REVERSE}, {@code SKIP}) have one face per color. Wild action cards
+ * ({@code WILD}, {@code WILD_DRAW_FOUR}, {@code SHUFFLE_HANDS}) have one face per {@link CardColor},
+ * because playing them recolors the card to the chosen color.
+ * </p>
+ * <p>
+ * The catalog lets engines that work on primitive arrays reuse the rules encoded in {@link NumberCard}
+ * and {@link ActionCard}: scores and playability are computed once from prototype cards.
+ * </p>
+ */
+public final class CardCatalog {
+    /** The number of distinct number faces (four colors, numbers 0-9). */
+    private static final int NUMBER_FACES = 40;
+
+    /** The number of distinct colored action faces (four colors, three action types). */
+    private static final int COLORED_ACTION_FACES = 12;
+
+    /** The total number of distinct card faces. */
+    public static final int FACE_COUNT = NUMBER_FACES + COLORED_ACTION_FACES + 3 * 5;
+
+    /** The number of cards in a standard deck. */
+    public static final int DECK_SIZE = 109;
+
+    /** Kind id shared by all number cards; action cards use {@code 1 + actionType.ordinal()}. */
+    public static final int KIND_NUMBER = 0;
+
+    /** The prototype card of each face. */
+    private static final Card[] PROTOTYPES = new Card[FACE_COUNT];
+
+    /** The score of each face. */
+    private static final int[] SCORES = new int[FACE_COUNT];
+
+    /** The color ordinal of each face. */
+    private static final int[] COLORS = new int[FACE_COUNT];
+
+    /** The kind of each face, see {@link #KIND_NUMBER}. */
+    private static final int[] KINDS = new int[FACE_COUNT];
+
+    /** Row-major table telling whether face {@code i} is playable on top of face {@code j}. */
+    private static final boolean[] PLAYABLE = new boolean[FACE_COUNT * FACE_COUNT];
+
+    /** The faces of a standard deck in the order produced by {@link Deck#initializeDeck()}. */
+    private static final int[] STANDARD_DECK = new int[DECK_SIZE];
+
+    static {
+        for (CardColor color : CardColor.values()) {
+            if (color == CardColor.WILD) continue;
+            for (int num = 0; num <= 9; num++) {
+                register(new NumberCard(color, num));
+            }
+            register(new ActionCard(color, ActionType.DRAW_TWO));
+            register(new ActionCard(color, ActionType.REVERSE));
+            register(new ActionCard(color, ActionType.SKIP));
+        }
+        for (ActionType type : new ActionType[] { ActionType.WILD, ActionType.WILD_DRAW_FOUR, ActionType.SHUFFLE_HANDS }) {
+            for (CardColor color : CardColor.values()) {
+                register(new ActionCard(color, type));
+            }
+        }
+        for (int i = 0; i < FACE_COUNT; i++) {
+            for (int j = 0; j < FACE_COUNT; j++) {
+                PLAYABLE[i * FACE_COUNT + j] = PROTOTYPES[i].isPlayable(PROTOTYPES[j]);
+            }
+        }
+
+        int n = 0;
+        for (int c = 0; c < 4; c++) {
+            STANDARD_DECK[n++] = numberFace(c, 0);
+            for (int num = 1; num <= 9; num++) {
+                STANDARD_DECK[n++] = numberFace(c, num);
+                STANDARD_DECK[n++] = numberFace(c, num);
+            }
+        }
+        for (int c = 0; c < 4; c++) {
+            for (int a = 0; a < 3; a++) {
+                STANDARD_DECK[n++] = NUMBER_FACES + c * 3 + a;
+                STANDARD_DECK[n++] = NUMBER_FACES + c * 3 + a;
+            }
+        }
+        int wild = wildFace(ActionType.WILD, CardColor.WILD.ordinal());
+        int wildDrawFour = wildFace(ActionType.WILD_DRAW_FOUR, CardColor.WILD.ordinal());
+        for (int i = 0; i < 4; i++) {
+            STANDARD_DECK[n++] = wild;
+            STANDARD_DECK[n++] = wildDrawFour;
+        }
+        STANDARD_DECK[n] = wildFace(ActionType.SHUFFLE_HANDS, CardColor.WILD.ordinal());
+    }
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private CardCatalog() {
+    }
+
+    /**
+     * Stores the prototype and derived attributes of a card under its face id.
+     *
+     * @param card the prototype card
+     */
+    private static void register(Card card) {
+        int face = faceOf(card);
+        PROTOTYPES[face] = card;
+        SCORES[face] = card.getScore();
+        COLORS[face] = card.getColor().ordinal();
+        KINDS[face] = card instanceof ActionCard ? 1 + ((ActionCard) card).getActionType().ordinal() : KIND_NUMBER;
+    }
+
+    /**
+     * Returns the face id of the given card.
+     *
+     * @param card the card to look up
+     * @return the face id of {@code card}
+     */
+    public static int faceOf(Card card) {
+        if (card instanceof NumberCard) {
+            return numberFace(card.getColor().ordinal(), ((NumberCard) card).getNumber());
+        }
+        ActionType type = ((ActionCard) card).getActionType();
+        switch (type) {
+            case DRAW_TWO:
+            case REVERSE:
+            case SKIP:
+                return NUMBER_FACES + card.getColor().ordinal() * 3 + type.ordinal();
+            default:
+                return wildFace(type, card.getColor().ordinal());
+        }
+    }
+
+    /**
+     * Returns the face id of a number card.
+     *
+     * @param color the color ordinal of the card
+     * @param number the number of the card
+     * @return the face id
+     */
+    private static int numberFace(int color, int number) {
+        return color * 10 + number;
+    }
+
+    /**
+     * Returns the face id of a wild action card with the given color.
+     *
+     * @param type the wild action type
+     * @param color the color ordinal of the card, {@code CardColor.WILD.ordinal()} if no color was chosen yet
+     * @return the face id
+     */
+    private static int wildFace(ActionType type, int color) {
+        return NUMBER_FACES + COLORED_ACTION_FACES + (type.ordinal() - ActionType.WILD.ordinal()) * 5 + color;
+    }
+
+    /**
+     * Returns the face a wild card turns into when the given color is chosen for it.
+     *
+     * @param face the face of a wild action card
+     * @param color the chosen color ordinal
+     * @return the recolored face id
+     */
+    public static int recolor(int face, int color) {
+        return face - COLORS[face] + color;
+    }
+
+    /**
+     * Returns the face of a card without the color chosen for it: wild cards map to their uncolored face,
+     * other cards to themselves.
+     *
+     * @param face the face id
+     * @return the uncolored face id
+     */
+    public static int uncolored(int face) {
+        return face < NUMBER_FACES + COLORED_ACTION_FACES ? face : recolor(face, CardColor.WILD.ordinal());
+    }
+
+    /**
+     * Creates a new card instance of the given face.
+     *
+     * @param face the face id
+     * @return a new card with that face
+     */
+    public static Card newCard(int face) {
+        return PROTOTYPES[face].copy();
+    }
+
+    /**
+     * Returns the score of the given face.
+     *
+     * @param face the face id
+     * @return the score of the face
+     */
+    public static int score(int face) {
+        return SCORES[face];
+    }
+
+    /**
+     * Returns the color ordinal of the given face.
+     *
+     * @param face the face id
+     * @return the {@link CardColor} ordinal of the face
+     */
+    public static int color(int face) {
+        return COLORS[face];
+    }
+
+    /**
+     * Returns the kind of the given face.
+     *
+     * @param face the face id
+     * @return {@link #KIND_NUMBER} for number cards, {@code 1 + actionType.ordinal()} for action cards
+     */
+    public static int kind(int face) {
+        return KINDS[face];
+    }
+
+    /**
+     * Determines whether a card of face {@code face} is playable on top of a card of face {@code topFace}.
+     *
+     * @param face the face of the card to play
+     * @param topFace the face of the card on top of the discard pile
+     * @return {@code true} if the card is playable; {@code false} otherwise
+     */
+    public static boolean isPlayable(int face, int topFace) {
+        return PLAYABLE[face * FACE_COUNT + topFace];
+    }
+
+    /**
+     * Copies the faces of a standard, unshuffled deck into the given array.
+     *
+     * @param dest the array to fill, at least {@link #DECK_SIZE} long
+     * @param offset the index of {@code dest} at which to start writing
+     */
+    public static void copyStandardDeck(int[] dest, int offset) {
+        System.arraycopy(STANDARD_DECK, 0, dest, offset, DECK_SIZE);
+    }
+}
@@ -0,0 +1,56 @@
+package com.duocardgame;
+
+import java.util.List;
+
+/**
+ * Receives the card movements of a game as they happen.
+ * <p>
+ * Events carry the actual cards, including cards drawn into other players' hands; a listener modelling
+ * what one player can see must ignore what that player could not observe. All events are delivered on the
+ * thread playing the game. Register listeners with {@link DuoCardGame#addCardListener(CardListener)}.
+ * </p>
+ */
+public interface CardListener {
+    /**
+     * Called when a round has been dealt from a fresh deck, before the starting card is turned up.
+     *
+     * @param players the players of the game, with their dealt hands
+     */
+    void roundStarted(List<Player> players);
+
+    /**
+     * Called when a card is put on the discard pile.
+     *
+     * @param seat the index of the player who played the card, or -1 for the starting card
+     * @param card the discarded card
+     */
+    void cardDiscarded(int seat, Card card);
+
+    /**
+     * Called when a card is drawn into a player's hand.
+     *
+     * @param seat the index of the player
+     * @param card the drawn card
+     */
+    void cardDrawn(int seat, Card card);
+
+    /**
+     * Called when a player has no card playable on the top card and is about to draw.
+     *
+     * @param seat the index of the player
+     * @param topCard the card on top of the discard pile
+     */
+    void noPlayableCard(int seat, Card topCard);
+
+    /**
+     * Called after the hands of all players have been pooled and redistributed.
+     */
+    void handsShuffled();
+
+    /**
+     * Called after the discard pile, except its top card, was moved into the draw pile.
+     *
+     * @param topCard the card left on the discard pile
+     */
+    void discardPileReshuffled(Card topCard);
+}
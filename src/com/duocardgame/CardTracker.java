@@ -0,0 +1,366 @@
+package com.duocardgame;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Counts the cards one player has not seen yet and infers what the opponents may hold.
+ * <p>
+ * A tracker follows a game as a {@link CardListener} from the point of view of one seat. Unseen cards are
+ * the standard deck minus the discard pile and the tracked player's own hand; they are counted per face,
+ * with wild cards counted by their uncolored face, and per color. Every event updates the counts in
+ * constant time, except for shuffled hands and reshuffled discard piles, which recount from the piles.
+ * </p>
+ * <p>
+ * For every opponent the tracker also remembers the last time they had to draw: their hand then held no
+ * card playable on that top card. Those cards stay constrained until they are played, while cards drawn
+ * later are unconstrained. Probability queries combine this with the unseen counts and do not allocate.
+ * </p>
+ */
+public class CardTracker implements CardListener {
+    /** The number of copies of each face in a standard deck, with wild cards counted uncolored. */
+    private static final int[] FULL_DECK = new int[CardCatalog.FACE_COUNT];
+
+    static {
+        int[] faces = new int[CardCatalog.DECK_SIZE];
+        CardCatalog.copyStandardDeck(faces, 0);
+        for (int face : faces) {
+            FULL_DECK[CardCatalog.uncolored(face)]++;
+        }
+    }
+
+    /** The seat of the tracked player. */
+    private final int seat;
+
+    /** The players of the game, captured at the start of each round. */
+    private List<Player> players;
+
+    /** The number of unseen copies of each uncolored face. */
+    private final int[] unseen = new int[CardCatalog.FACE_COUNT];
+
+    /** The number of unseen cards of each color, indexed by {@link CardColor} ordinal. */
+    private final int[] unseenByColor = new int[CardColor.values().length];
+
+    /** The total number of unseen cards. */
+    private int unseenTotal;
+
+    /** The number of copies of each uncolored face on the discard pile. */
+    private final int[] discarded = new int[CardCatalog.FACE_COUNT];
+
+    /** The hand size of each seat. */
+    private final int[] handSizes;
+
+    /** For each seat, the uncolored faces its constrained cards cannot be. */
+    private final boolean[][] excluded;
+
+    /** For each seat, the number of cards known to be none of the excluded faces. */
+    private final int[] constrained;
+
+    /**
+     * Constructs a tracker for one seat of a game with up to the given number of players.
+     *
+     * @param seat the seat of the tracked player
+     * @param maxPlayers the largest number of players the game can have
+     */
+    public CardTracker(int seat, int maxPlayers) {
+        this.seat = seat;
+        handSizes = new int[maxPlayers];
+        excluded = new boolean[maxPlayers][CardCatalog.FACE_COUNT];
+        constrained = new int[maxPlayers];
+    }
+
+    /**
+     * Resets the counts for a fresh deck and sees the tracked player's dealt hand.
+     *
+     * @param players the players of the game, with their dealt hands
+     */
+    @Override
+    public void roundStarted(List<Player> players) {
+        this.players = players;
+        Arrays.fill(discarded, 0);
+        for (int i = 0; i < players.size(); i++) {
+            handSizes[i] = players.get(i).getHandSize();
+        }
+        clearConstraints();
+        recount();
+    }
+
+    /**
+     * Sees a discarded card, unless it came from the tracked player's hand and was seen already.
+     *
+     * @param seat the index of the player who played the card, or -1 for the starting card
+     * @param card the discarded card
+     */
+    @Override
+    public void cardDiscarded(int seat, Card card) {
+        int face = CardCatalog.uncolored(CardCatalog.faceOf(card));
+        discarded[face]++;
+        if (seat == this.seat) {
+            handSizes[seat]--;
+            return;
+        }
+        if (seat >= 0) {
+            handSizes[seat]--;
+            if (!excluded[seat][face] && constrained[seat] > 0) {
+                // The card may have been one of the constrained ones; assume so to keep the constraint safe.
+                constrained[seat]--;
+            }
+            constrained[seat] = Math.min(constrained[seat], handSizes[seat]);
+        }
+        see(face);
+    }
+
+    /**
+     * Counts a drawn card; only the tracked player's own draws are seen.
+     *
+     * @param seat the index of the player
+     * @param card the drawn card
+     */
+    @Override
+    public void cardDrawn(int seat, Card card) {
+        handSizes[seat]++;
+        if (seat == this.seat) {
+            see(CardCatalog.uncolored(CardCatalog.faceOf(card)));
+        }
+    }
+
+    /**
+     * Records that every card an opponent holds is not playable on the top card.
+     *
+     * @param seat the index of the player
+     * @param topCard the card on top of the discard pile
+     */
+    @Override
+    public void noPlayableCard(int seat, Card topCard) {
+        if (seat == this.seat) return;
+        int top = CardCatalog.faceOf(topCard);
+        boolean[] faces = excluded[seat];
+        for (int face = 0; face < faces.length; face++) {
+            faces[face] = CardCatalog.isPlayable(face, top);
+        }
+        constrained[seat] = handSizes[seat];
+    }
+
+    /**
+     * Recounts after the hands were redistributed, which voids every opponent constraint.
+     */
+    @Override
+    public void handsShuffled() {
+        for (int i = 0; i < players.size(); i++) {
+            handSizes[i] = players.get(i).getHandSize();
+        }
+        clearConstraints();
+        recount();
+    }
+
+    /**
+     * Returns the reshuffled discards to the unseen cards.
+     *
+     * @param topCard the card left on the discard pile
+     */
+    @Override
+    public void discardPileReshuffled(Card topCard) {
+        Arrays.fill(discarded, 0);
+        discarded[CardCatalog.uncolored(CardCatalog.faceOf(topCard))] = 1;
+        recount();
+    }
+
+    /**
+     * Recomputes the unseen counts from the discard pile and the tracked player's hand.
+     */
+    private void recount() {
+        Arrays.fill(unseenByColor, 0);
+        unseenTotal = 0;
+        for (int face = 0; face < unseen.length; face++) {
+            unseen[face] = FULL_DECK[face] - discarded[face];
+            unseenByColor[CardCatalog.color(face)] += unseen[face];
+            unseenTotal += unseen[face];
+        }
+        List<Card> hand = players.get(seat).getHandView();
+        for (int i = 0; i < hand.size(); i++) {
+            see(CardCatalog.uncolored(CardCatalog.faceOf(hand.get(i))));
+        }
+    }
+
+    /**
+     * Removes one copy of a face from the unseen counts.
+     *
+     * @param face the uncolored face
+     */
+    private void see(int face) {
+        unseen[face]--;
+        unseenByColor[CardCatalog.color(face)]--;
+        unseenTotal--;
+    }
+
+    /**
+     * Forgets every opponent constraint.
+     */
+    private void clearConstraints() {
+        for (int i = 0; i < constrained.length; i++) {
+            constrained[i] = 0;
+            Arrays.fill(excluded[i], false);
+        }
+    }
+
+    /**
+     * Returns the number of unseen copies of a card, counting wild cards regardless of their chosen color.
+     *
+     * @param card the card
+     * @return the unseen count
+     */
+    public int getUnseenCount(Card card) {
+        return unseen[CardCatalog.uncolored(CardCatalog.faceOf(card))];
+    }
+
+    /**
+     * Returns the number of unseen copies of an uncolored {@link CardCatalog} face.
+     *
+     * @param face the uncolored face
+     * @return the unseen count
+     */
+    int getUnseenCount(int face) {
+        return unseen[face];
+    }
+
+    /**
+     * Returns the seat of the tracked player.
+     *
+     * @return the tracked seat
+     */
+    int getSeat() {
+        return seat;
+    }
+
+    /**
+     * Returns the hand of the tracked player, which the tracker knows exactly.
+     *
+     * @return a read-only view of the tracked player's hand
+     */
+    List<Card> getTrackedHand() {
+        return players.get(seat).getHandView();
+    }
+
+    /**
+     * Checks whether an opponent's constrained cards are known not to include an uncolored face.
+     *
+     * @param seat the index of the opponent
+     * @param face the uncolored face
+     * @return {@code true} if the opponent's constrained cards exclude the face; {@code false} otherwise
+     */
+    boolean isExcluded(int seat, int face) {
+        return excluded[seat][face];
+    }
+
+    /**
+     * Returns the number of unseen cards of a color; {@link CardColor#WILD} counts all wild cards.
+     *
+     * @param color the color
+     * @return the unseen count
+     */
+    public int getUnseenCount(CardColor color) {
+        return unseenByColor[color.ordinal()];
+    }
+
+    /**
+     * Returns the total number of unseen cards, in the draw pile and in the opponents' hands.
+     *
+     * @return the unseen count
+     */
+    public int getUnseenTotal() {
+        return unseenTotal;
+    }
+
+    /**
+     * Returns the number of cards a player holds.
+     *
+     * @param seat the index of the player
+     * @return the hand size
+     */
+    public int getHandSize(int seat) {
+        return handSizes[seat];
+    }
+
+    /**
+     * Returns the number of cards of an opponent that are known not to be playable on the top card at the
+     * time they last had to draw.
+     *
+     * @param seat the index of the opponent
+     * @return the number of constrained cards
+     */
+    public int getConstrainedCount(int seat) {
+        return constrained[seat];
+    }
+
+    /**
+     * Checks whether an opponent's constrained cards are known not to include the given card.
+     *
+     * @param seat the index of the opponent
+     * @param card the card
+     * @return {@code true} if the opponent's constrained cards exclude the card; {@code false} otherwise
+     */
+    public boolean isExcluded(int seat, Card card) {
+        return excluded[seat][CardCatalog.uncolored(CardCatalog.faceOf(card))];
+    }
+
+    /**
+     * Returns the probability that a player holds at least one card playable on the given top card.
+     * <p>
+     * The constrained cards are treated as drawn first, without replacement, from the unseen cards they are
+     * not excluded from, and the unconstrained cards as drawn from the unseen cards left after that. This is
+     * an estimate, since real hands also depend on the choices the players made. The tracked player's own
+     * hand is known exactly.
+     * </p>
+     *
+     * @param seat the index of the player
+     * @param topCard the card on top of the discard pile
+     * @return the probability, between 0 and 1
+     */
+    public double probabilityHoldsPlayable(int seat, Card topCard) {
+        int top = CardCatalog.faceOf(topCard);
+        if (seat == this.seat) {
+            List<Card> hand = players.get(seat).getHandView();
+            for (int i = 0; i < hand.size(); i++) {
+                if (CardCatalog.isPlayable(CardCatalog.faceOf(hand.get(i)), top)) return 1;
+            }
+            return 0;
+        }
+        int playable = 0;
+        int allowed = 0;
+        int allowedPlayable = 0;
+        boolean[] faces = excluded[seat];
+        for (int face = 0; face < unseen.length; face++) {
+            int count = unseen[face];
+            if (count == 0) continue;
+            boolean isPlayable = CardCatalog.isPlayable(face, top);
+            if (isPlayable) playable += count;
+            if (!faces[face]) {
+                allowed += count;
+                if (isPlayable) allowedPlayable += count;
+            }
+        }
+        int fixed = constrained[seat];
+        // If the constrained cards hold nothing playable, every playable card is among the ones they left.
+        double none = probabilityNone(allowed, allowedPlayable, fixed)
+                * probabilityNone(unseenTotal - fixed, playable, handSizes[seat] - fixed);
+        return 1 - none;
+    }
+
+    /**
+     * Returns the probability that none of {@code draws} cards drawn without replacement from a pool is
+     * among its {@code marked} cards.
+     *
+     * @param pool the size of the pool
+     * @param marked the number of marked cards in the pool
+     * @param draws the number of cards drawn
+     * @return the probability, between 0 and 1
+     */
+    private static double probabilityNone(int pool, int marked, int draws) {
+        double p = 1;
+        for (int i = 0; i < draws; i++) {
+            if (pool - marked - i <= 0) return 0;
+            p *= (double) (pool - marked - i) / (pool - i);
+        }
+        return p;
+    }
+}
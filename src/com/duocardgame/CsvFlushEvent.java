@@ -0,0 +1,29 @@
+package com.duocardgame;
+
+import jdk.jfr.*;
+
+/**
+ * A Java Flight Recorder event covering one write of the game status by {@link CSVLogger}.
+ * <p>
+ * The duration includes opening, writing and closing the file, so slow disks show up here.
+ * </p>
+ */
+@Name("com.duocardgame.CsvFlush")
+@Label("CSV Flush")
+@Category({ "Duo Card Game", "I/O" })
+@Description("The game status written to the CSV log")
+@StackTrace(false)
+@Threshold("0 ms")
+final class CsvFlushEvent extends Event {
+    /** The round number that was logged. */
+    @Label("Round Number")
+    int roundNumber;
+
+    /** The number of lines written. */
+    @Label("Lines")
+    int lines;
+
+    /** The path of the CSV file. */
+    @Label("Path")
+    String path;
+}
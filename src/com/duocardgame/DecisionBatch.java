@@ -0,0 +1,147 @@
+package com.duocardgame;
+
+import java.util.Random;
+
+/**
+ * The pending card decisions of many games and their results, index by index.
+ * <p>
+ * Decision {@code i} asks which card the player {@link #getPlayer(int)} plays on the top card
+ * {@link #getTopCard(int)}; the strategy answers at the same index. A batch is filled and applied by a
+ * {@link BatchScheduler} and reused for every round of decisions, so it creates no objects.
+ * </p>
+ */
+public final class DecisionBatch {
+    /** The player of each decision. */
+    private final Player[] players;
+
+    /** The top card of each decision. */
+    private final Card[] topCards;
+
+    /** The card chosen for each decision, or {@code null} to draw. */
+    private final Card[] cards;
+
+    /** The color chosen for the wild card of each decision, or {@code null} if none was named. */
+    private final CardColor[] colors;
+
+    /** The number of pending decisions. */
+    private int size;
+
+    /**
+     * Constructs an empty batch.
+     *
+     * @param capacity the largest number of decisions
+     */
+    DecisionBatch(int capacity) {
+        players = new Player[capacity];
+        topCards = new Card[capacity];
+        cards = new Card[capacity];
+        colors = new CardColor[capacity];
+    }
+
+    /**
+     * Adds a pending decision.
+     *
+     * @param player the player whose turn it is
+     * @param topCard the card on top of the discard pile
+     * @return the index of the decision
+     */
+    int add(Player player, Card topCard) {
+        players[size] = player;
+        topCards[size] = topCard;
+        cards[size] = null;
+        colors[size] = null;
+        return size++;
+    }
+
+    /**
+     * Removes every decision.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            players[i] = null;
+            topCards[i] = null;
+            cards[i] = null;
+            colors[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Returns the number of pending decisions.
+     *
+     * @return the batch size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the player of a decision.
+     *
+     * @param index the index of the decision
+     * @return the player whose turn it is
+     */
+    public Player getPlayer(int index) {
+        return players[index];
+    }
+
+    /**
+     * Returns the top card of a decision.
+     *
+     * @param index the index of the decision
+     * @return the card on top of the discard pile, carrying the current color
+     */
+    public Card getTopCard(int index) {
+        return topCards[index];
+    }
+
+    /**
+     * Returns the random source of a decision's game, which keeps seeded games reproducible.
+     *
+     * @param index the index of the decision
+     * @return the game's random number generator
+     */
+    public Random getRandom(int index) {
+        return players[index].getRandom();
+    }
+
+    /**
+     * Sets the card a decision plays.
+     *
+     * @param index the index of the decision
+     * @param card a playable card from the player's hand, or {@code null} to draw a card instead
+     */
+    public void setCard(int index, Card card) {
+        cards[index] = card;
+    }
+
+    /**
+     * Names the color to call if the decision's card is a wild card.
+     *
+     * @param index the index of the decision
+     * @param color the non-WILD color to call
+     */
+    public void setColor(int index, CardColor color) {
+        colors[index] = color;
+    }
+
+    /**
+     * Returns the card chosen for a decision.
+     *
+     * @param index the index of the decision
+     * @return the chosen card, or {@code null} to draw
+     */
+    Card getCard(int index) {
+        return cards[index];
+    }
+
+    /**
+     * Returns the color named for a decision.
+     *
+     * @param index the index of the decision
+     * @return the named color, or {@code null}
+     */
+    CardColor getColor(int index) {
+        return colors[index];
+    }
+}
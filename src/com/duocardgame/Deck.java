@@ -1,7 +1,7 @@
 package com.duocardgame;
 
+import java.nio.ByteBuffer;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Represents a deck of cards used in the game.
@@ -9,22 +9,99 @@ import java.util.stream.Collectors;
  * The deck consists of a draw pile and a discard pile. It provides methods for initializing the deck,
  * shuffling, dealing cards to players, drawing cards, and managing the discard pile.
  * </p>
+ * <p>
+ * Both piles are arrays with their top card last, so drawing and discarding are constant time and cards
+ * move between piles and hands in bulk.
+ * </p>
  */
 public class Deck {
-    /** The list of cards available to be drawn. */
-    private List<Card> drawPile;
+    /**
+     * The standard deck in the canonical order of {@link #initializeDeck()}. Number cards and colored action
+     * cards never change, so every deck shares them; wild cards take a color when played and are copied.
+     */
+    private static final Card[] TEMPLATE = new Card[CardCatalog.DECK_SIZE];
+
+    /** The positions of the wild cards in {@link #TEMPLATE}. */
+    private static final int[] WILD_POSITIONS;
+
+    /** Set on the draw pile size in {@link #saveState(ByteBuffer)} when a shuffle is pending. */
+    private static final int SHUFFLE_PENDING = 0x80;
+
+    static {
+        int[] faces = new int[CardCatalog.DECK_SIZE];
+        CardCatalog.copyStandardDeck(faces, 0);
+        int wilds = 0;
+        for (int i = 0; i < faces.length; i++) {
+            TEMPLATE[i] = CardCatalog.newCard(faces[i]);
+            if (TEMPLATE[i].getColor() == CardColor.WILD) wilds++;
+        }
+        WILD_POSITIONS = new int[wilds];
+        for (int i = 0, w = 0; i < faces.length; i++) {
+            if (TEMPLATE[i].getColor() == CardColor.WILD) WILD_POSITIONS[w++] = i;
+        }
+    }
+
+    /** The cards available to be drawn; the top of the pile is at {@code drawSize - 1}. */
+    private Card[] drawPile;
+
+    /** The number of cards in the draw pile. */
+    private int drawSize;
+    
+    /** The cards that have been played/discarded; the top of the pile is at {@code discardSize - 1}. */
+    private Card[] discardPile;
+
+    /** The number of cards in the discard pile. */
+    private int discardSize;
     
-    /** The list of cards that have been played/discarded. */
-    private List<Card> discardPile;
+    /** The random number generator used for shuffling. */
+    private final Random random;
+
+    /** Whether the draw pile must be shuffled before the next card is drawn. */
+    private boolean shufflePending;
+
+    /** Notified when the discard pile is reshuffled, or {@code null}. */
+    private CardListener listener;
+
+    /** What happens when both piles run out of cards. */
+    private final ExhaustionPolicy exhaustionPolicy;
     
     /**
      * Constructs a new {@code Deck} instance, initializes the deck with cards,
-     * and shuffles the draw pile.
+     * and shuffles the draw pile before the first draw.
      */
     public Deck() {
-        drawPile = new ArrayList<>();
-        discardPile = new ArrayList<>();
-        initializeDeck();
+        this(new Random());
+    }
+
+    /**
+     * Constructs a new {@code Deck} instance that shuffles with the given random source,
+     * initializes the deck with cards, and shuffles the draw pile before the first draw.
+     *
+     * @param random the random number generator used for shuffling
+     */
+    public Deck(Random random) {
+        this(random, 1, ExhaustionPolicy.FAIL);
+    }
+
+    /**
+     * Constructs a shoe of several standard decks that shuffles with the given random source and shuffles
+     * the draw pile before the first draw.
+     *
+     * @param random the random number generator used for shuffling
+     * @param decks the number of standard decks in the shoe, at least 1
+     * @param exhaustionPolicy what happens when both piles run out of cards
+     */
+    public Deck(Random random, int decks, ExhaustionPolicy exhaustionPolicy) {
+        if (decks < 1) {
+            throw new IllegalArgumentException("A shoe needs at least one deck");
+        }
+        this.random = random;
+        this.exhaustionPolicy = exhaustionPolicy;
+        drawPile = new Card[decks * CardCatalog.DECK_SIZE];
+        discardPile = new Card[decks * CardCatalog.DECK_SIZE];
+        for (int i = 0; i < decks; i++) {
+            initializeDeck();
+        }
         shuffle();
     }
 
@@ -32,13 +109,67 @@ public class Deck {
      * Constructs a new {@code Deck} as a copy of the provided deck.
      * <p>
      * Both the draw pile and discard pile are deep-copied by creating copies of each card.
+     * The copy shares the random source of the original deck.
      * </p>
      *
      * @param deck the deck to copy from
      */
     public Deck(Deck deck) {
-        this.drawPile = deck.drawPile.stream().map(c -> c.copy()).collect(Collectors.toList());
-        this.discardPile = deck.discardPile.stream().map(c -> c.copy()).collect(Collectors.toList());
+        this.random = deck.random;
+        this.drawPile = new Card[deck.drawPile.length];
+        this.discardPile = new Card[deck.discardPile.length];
+        for (int i = 0; i < deck.drawSize; i++) {
+            drawPile[i] = deck.drawPile[i].copy();
+        }
+        for (int i = 0; i < deck.discardSize; i++) {
+            discardPile[i] = deck.discardPile[i].copy();
+        }
+        this.drawSize = deck.drawSize;
+        this.discardSize = deck.discardSize;
+        this.shufflePending = deck.shufflePending;
+        this.exhaustionPolicy = deck.exhaustionPolicy;
+    }
+
+    /**
+     * Constructs a standard deck whose draw pile is already in the order of a deal permutation from a
+     * {@link ShufflePipeline}, so no shuffle is pending.
+     *
+     * @param random the random number generator used for later reshuffles
+     * @param permutation the positions of the standard deck, from the bottom of the draw pile to the top
+     */
+    Deck(Random random, byte[] permutation) {
+        this.random = random;
+        this.exhaustionPolicy = ExhaustionPolicy.FAIL;
+        drawPile = new Card[CardCatalog.DECK_SIZE];
+        discardPile = new Card[CardCatalog.DECK_SIZE];
+        for (int i = 0; i < CardCatalog.DECK_SIZE; i++) {
+            Card card = TEMPLATE[permutation[i]];
+            drawPile[i] = card.getColor() == CardColor.WILD ? card.copy() : card;
+        }
+        drawSize = CardCatalog.DECK_SIZE;
+    }
+
+    /**
+     * Constructs a {@code Deck} from piles written by {@link #saveState(ByteBuffer)}.
+     *
+     * @param random the random number generator used for shuffling
+     * @param in the buffer to read from, starting at its current position
+     */
+    Deck(Random random, ByteBuffer in) {
+        this.random = random;
+        this.exhaustionPolicy = ExhaustionPolicy.FAIL;
+        int drawByte = in.get() & 0xFF;
+        shufflePending = (drawByte & SHUFFLE_PENDING) != 0;
+        drawSize = drawByte & ~SHUFFLE_PENDING;
+        discardSize = in.get();
+        drawPile = new Card[Math.max(CardCatalog.DECK_SIZE, drawSize)];
+        discardPile = new Card[Math.max(CardCatalog.DECK_SIZE, discardSize)];
+        for (int i = 0; i < drawSize; i++) {
+            drawPile[i] = CardCatalog.newCard(in.get());
+        }
+        for (int i = 0; i < discardSize; i++) {
+            discardPile[i] = CardCatalog.newCard(in.get());
+        }
     }
 
     /**
@@ -51,78 +182,109 @@ public class Deck {
      *   <li>Wild cards: Four {@code WILD} cards and four {@code WILD_DRAW_FOUR} cards.</li>
      *   <li>A single {@code SHUFFLE_HANDS} card.</li>
      * </ul>
+     * The cards are copied from a shared template in one array operation, in the order listed above.
      * </p>
      */
     public void initializeDeck() {
-        // Number Cards: one 0 and two of each card 1-9 for every non-wild color.
-        for (CardColor color : CardColor.values()) {
-            if (color != CardColor.WILD) {
-                drawPile.add(new NumberCard(color, 0));
-                for (int num = 1; num <= 9; num++) {
-                    drawPile.add(new NumberCard(color, num));
-                    drawPile.add(new NumberCard(color, num));
-                }
-            }
+        ensureDrawCapacity(drawSize + TEMPLATE.length);
+        System.arraycopy(TEMPLATE, 0, drawPile, drawSize, TEMPLATE.length);
+        for (int i : WILD_POSITIONS) {
+            drawPile[drawSize + i] = TEMPLATE[i].copy();
         }
-        // Action Cards: DRAW_TWO, REVERSE, SKIP (two of each per non-wild color)
-        for (CardColor color : CardColor.values()) {
-            if (color != CardColor.WILD) {
-                drawPile.add(new ActionCard(color, ActionType.DRAW_TWO));
-                drawPile.add(new ActionCard(color, ActionType.DRAW_TWO));
-                drawPile.add(new ActionCard(color, ActionType.REVERSE));
-                drawPile.add(new ActionCard(color, ActionType.REVERSE));
-                drawPile.add(new ActionCard(color, ActionType.SKIP));
-                drawPile.add(new ActionCard(color, ActionType.SKIP));
-            }   
-        }
-        // Wild and Wild Draw Four: Four of each
-        for (int i = 0; i < 4; i++) {
-            drawPile.add(new ActionCard(CardColor.WILD, ActionType.WILD));
-            drawPile.add(new ActionCard(CardColor.WILD, ActionType.WILD_DRAW_FOUR));
-        }
-        // Shuffle Hands: 1 card
-        drawPile.add(new ActionCard(CardColor.WILD, ActionType.SHUFFLE_HANDS));
+        drawSize += TEMPLATE.length;
     }
     
     /**
      * Shuffles the draw pile.
+     * <p>
+     * The shuffle is deferred until the next card is drawn, so a deck that is shuffled several times
+     * before use is only shuffled once.
+     * </p>
      */
     public void shuffle() {
-        Collections.shuffle(drawPile);
+        shufflePending = true;
+    }
+
+    /**
+     * Performs a pending shuffle, with the same swap sequence as
+     * {@link Collections#shuffle(List, Random)}.
+     */
+    private void shuffleIfPending() {
+        if (!shufflePending) return;
+        shufflePending = false;
+        for (int i = drawSize; i > 1; i--) {
+            int j = random.nextInt(i);
+            Card tmp = drawPile[i - 1];
+            drawPile[i - 1] = drawPile[j];
+            drawPile[j] = tmp;
+        }
     }
     
     /**
      * Deals a specified number of cards to each player.
      * <p>
-     * For each card to be dealt, the method draws a card from the draw pile and adds it to the player's hand.
-     * If the draw pile is empty, the deck is reshuffled before drawing a card.
+     * The draw pile is shuffled once, then each player in turn takes their cards from the top of the pile
+     * in a single block. If the draw pile runs out, it is refilled as in {@link #drawCard()} before dealing
+     * continues.
      * </p>
      *
      * @param players the list of players to whom the cards will be dealt
      * @param count the number of cards to deal to each player
      */
     public void dealCards(List<Player> players, int count) {
-        for (int i = 0; i < count; i++) {
-            for (Player p : players) {
-                if (drawPile.isEmpty()) reshuffle();
-                p.addCard(drawCard());
+        for (Player p : players) {
+            drawCards(p, count);
+        }
+    }
+
+    /**
+     * Draws cards from the top of the draw pile into a player's hand.
+     * <p>
+     * The cards are moved as one block, in draw pile order, with the hand's capacity reserved up front.
+     * If the draw pile runs out, the discard pile is moved into it in one copy and shuffled, and drawing
+     * continues with a second block. If the discard pile has no cards to spare either, the exhaustion policy
+     * decides whether a new deck is opened.
+     * </p>
+     *
+     * @param player the player receiving the cards
+     * @param count the number of cards to draw
+     * @throws IndexOutOfBoundsException if both piles run out of cards and the exhaustion policy is
+     *         {@link ExhaustionPolicy#FAIL}
+     */
+    public void drawCards(Player player, int count) {
+        player.ensureHandCapacity(player.getHandSize() + count);
+        while (count > 0) {
+            if (drawSize == 0) {
+                refill();
             }
+            shuffleIfPending();
+            int n = Math.min(count, drawSize);
+            player.addCards(drawPile, drawSize - n, n);
+            Arrays.fill(drawPile, drawSize - n, drawSize, null);
+            drawSize -= n;
+            count -= n;
         }
     }
     
     /**
      * Draws a card from the top of the draw pile.
      * <p>
-     * If the draw pile is empty, the deck is reshuffled before drawing a card.
+     * If the draw pile is empty, the discard pile is reshuffled into it before drawing a card. If the
+     * discard pile has no cards to spare either, the exhaustion policy decides whether a new deck is opened.
      * </p>
      *
      * @return the card drawn from the top of the draw pile
+     * @throws IndexOutOfBoundsException if both piles run out of cards and the exhaustion policy is
+     *         {@link ExhaustionPolicy#FAIL}
      */
     public Card drawCard() {
-        if (drawPile.isEmpty()) {
-            reshuffle();
+        if (drawSize == 0) {
+            refill();
         }
-        return drawPile.remove(0);
+        shuffleIfPending();
+        Card card = drawPile[--drawSize];
+        drawPile[drawSize] = null;
+        return card;
     }
     
     /**
@@ -131,8 +293,8 @@ public class Deck {
      * @return the last card in the discard pile, or {@code null} if the discard pile is empty
      */
     public Card getTopDiscardPileCard() {
-        if (discardPile.isEmpty()) return null;
-        return discardPile.get(discardPile.size() - 1);
+        if (discardSize == 0) return null;
+        return discardPile[discardSize - 1];
     }
     
     /**
@@ -141,7 +303,10 @@ public class Deck {
      * @param card the card to add to the discard pile
      */
     public void putCardToDiscardPile(Card card) {
-        discardPile.add(card);
+        if (discardSize == discardPile.length) {
+            discardPile = Arrays.copyOf(discardPile, discardSize * 2);
+        }
+        discardPile[discardSize++] = card;
     }
     
     /**
@@ -149,24 +314,138 @@ public class Deck {
      * <p>
      * All cards from the discard pile except for the top card are added to the draw pile,
      * the discard pile is cleared (keeping the top card), and then the draw pile is shuffled.
+     * While the flight recorder runs, the reshuffle is reported as a {@link ReshuffleEvent}.
      * </p>
      */
     public void reshuffle() {
-        if (discardPile.size() > 1) {
-            Card top = discardPile.remove(discardPile.size() - 1);
-            drawPile.addAll(discardPile);
-            discardPile.clear();
-            discardPile.add(top);
+        if (discardSize > 1) {
+            ReshuffleEvent event = null;
+            if (FlightRecording.isStarted()) {
+                event = new ReshuffleEvent();
+                event.begin();
+            }
+            int count = discardSize - 1;
+            ensureDrawCapacity(drawSize + count);
+            System.arraycopy(discardPile, 0, drawPile, drawSize, count);
+            drawSize += count;
+            discardPile[0] = discardPile[count];
+            Arrays.fill(discardPile, 1, discardSize, null);
+            discardSize = 1;
+            shuffle();
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.cards = count;
+                    event.commit();
+                }
+            }
+            if (listener != null) {
+                listener.discardPileReshuffled(discardPile[0]);
+            }
+        }
+    }
+
+    /**
+     * Refills the empty draw pile from the discard pile, or according to the exhaustion policy if the
+     * discard pile holds only its top card.
+     *
+     * @throws IndexOutOfBoundsException if no cards are left and the exhaustion policy is
+     *         {@link ExhaustionPolicy#FAIL}
+     */
+    private void refill() {
+        reshuffle();
+        if (drawSize == 0) {
+            if (exhaustionPolicy == ExhaustionPolicy.FAIL) {
+                throw new IndexOutOfBoundsException("No cards left to draw");
+            }
+            initializeDeck();
             shuffle();
         }
     }
+
+    /**
+     * Sets the listener notified when the discard pile is reshuffled into the draw pile.
+     *
+     * @param listener the listener, or {@code null} for none
+     */
+    void setListener(CardListener listener) {
+        this.listener = listener;
+    }
     
     /**
-     * Adds a card to the draw pile.
+     * Adds a card to the bottom of the draw pile.
      *
      * @param card the card to add to the draw pile
      */
     public void addCardToDrawPile(Card card) {
-        drawPile.add(card);
+        ensureDrawCapacity(drawSize + 1);
+        System.arraycopy(drawPile, 0, drawPile, 1, drawSize);
+        drawPile[0] = card;
+        drawSize++;
+    }
+
+    /**
+     * Adds cards to the bottom of the draw pile with a single shift of the pile, leaving them in the same
+     * order as adding each of them in turn with {@link #addCardToDrawPile(Card)}.
+     *
+     * @param cards the cards to add, in the order they are returned
+     * @param count the number of cards to add from the start of the array
+     */
+    void addCardsToDrawPileBottom(Card[] cards, int count) {
+        ensureDrawCapacity(drawSize + count);
+        System.arraycopy(drawPile, 0, drawPile, count, drawSize);
+        for (int i = 0; i < count; i++) {
+            drawPile[i] = cards[count - 1 - i];
+        }
+        drawSize += count;
+    }
+
+    /**
+     * Returns the number of cards in the draw pile.
+     *
+     * @return the draw pile size
+     */
+    int getDrawPileSize() {
+        return drawSize;
+    }
+
+    /**
+     * Adds the number of draw pile cards of each uncolored {@link CardCatalog} face to the given counts.
+     *
+     * @param counts the counts, indexed by face
+     */
+    void countDrawPile(int[] counts) {
+        for (int i = 0; i < drawSize; i++) {
+            counts[CardCatalog.uncolored(CardCatalog.faceOf(drawPile[i]))]++;
+        }
+    }
+
+    /**
+     * Grows the draw pile array to hold at least the given number of cards.
+     *
+     * @param capacity the required capacity
+     */
+    private void ensureDrawCapacity(int capacity) {
+        if (capacity > drawPile.length) {
+            drawPile = Arrays.copyOf(drawPile, Math.max(capacity, drawPile.length * 2));
+        }
+    }
+
+    /**
+     * Writes the sizes of both piles followed by the {@link CardCatalog} face id of every card,
+     * draw pile first and discard pile last, each from bottom to top. A pending shuffle is flagged with
+     * {@link #SHUFFLE_PENDING} on the draw pile size.
+     *
+     * @param out the buffer to write to, starting at its current position
+     */
+    void saveState(ByteBuffer out) {
+        out.put((byte) (drawSize | (shufflePending ? SHUFFLE_PENDING : 0)));
+        out.put((byte) discardSize);
+        for (int i = 0; i < drawSize; i++) {
+            out.put((byte) CardCatalog.faceOf(drawPile[i]));
+        }
+        for (int i = 0; i < discardSize; i++) {
+            out.put((byte) CardCatalog.faceOf(discardPile[i]));
+        }
     }
 }
@@ -0,0 +1,348 @@
+package com.duocardgame;
+
+import java.nio.FloatBuffer;
+import java.util.*;
+
+/**
+ * A reinforcement learning environment in which an agent plays seat 0 of a seeded {@link DuoCardGame}.
+ * <p>
+ * The other seats are played by a fixed opponent strategy. {@link #reset(long)} starts a new game and
+ * {@link #step(int)} plays one agent turn followed by the opponents' turns, until it is the agent's turn
+ * again or the game is over. An episode is a whole game.
+ * </p>
+ * <p>
+ * Actions are {@link CardCatalog} faces plus {@link #DRAW_ACTION}. Playing a number or colored action card
+ * uses the card's face; playing a wild card uses the face of the wild card in the color the agent chooses,
+ * so one action covers both decisions. The uncolored wild faces are never legal. Observations and legal
+ * action masks have a fixed size and are written into caller-provided slabs. Within a round, stepping
+ * creates no objects as long as the opponent strategy creates none; like any game, each new round
+ * allocates its deck.
+ * </p>
+ * <p>
+ * An environment is used by one thread at a time; {@link DuoCardEnvBatch} steps many of them in parallel.
+ * </p>
+ */
+public class DuoCardEnv {
+    /** The action that draws a card instead of playing one. */
+    public static final int DRAW_ACTION = CardCatalog.FACE_COUNT;
+
+    /** The number of actions. */
+    public static final int ACTION_COUNT = CardCatalog.FACE_COUNT + 1;
+
+    /** The score that wins a game, used to scale the observed scores. */
+    private static final float WINNING_SCORE = 500;
+
+    /** The colors a wild action can choose, by ordinal. */
+    private static final CardColor[] COLORS = CardColor.values();
+
+    /** The first face of the wild action cards. */
+    private static final int FIRST_WILD_FACE = CardCatalog.recolor(
+            CardCatalog.faceOf(new ActionCard(CardColor.WILD, ActionType.WILD)), CardColor.BLUE.ordinal());
+
+    /** The number of players per game. */
+    private final int players;
+
+    /** The strategy of every seat, the agent's first; reused by every game. */
+    private final List<PlayerStrategy> seats;
+
+    /** The strategy that plays the agent's chosen action. */
+    private final AgentStrategy agent = new AgentStrategy();
+
+    /** The current game. */
+    private DuoCardGame game;
+
+    /** The players of the current game by seat, the agent's first. */
+    private final Player[] seated;
+
+    /** Whether the current game is over, or was aborted because both piles ran out of cards. */
+    private boolean done = true;
+
+    /** The number of points scored by the agent minus those scored by the opponents in the last step. */
+    private float reward;
+
+    /**
+     * Constructs an environment; call {@link #reset(long)} before the first step.
+     *
+     * @param players the number of players per game, from 2 to 4
+     * @param opponent the strategy of the other seats; it must be safe to share between threads
+     */
+    public DuoCardEnv(int players, PlayerStrategy opponent) {
+        if (players < 2 || players > 4) {
+            throw new IllegalArgumentException("Player count must be between 2 and 4");
+        }
+        this.players = players;
+        seated = new Player[players];
+        List<PlayerStrategy> list = new ArrayList<>(players);
+        list.add(agent);
+        for (int i = 1; i < players; i++) {
+            list.add(opponent);
+        }
+        seats = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Returns the number of floats in an observation for the given player count.
+     * <p>
+     * An observation holds, in order: the agent's hand as a count per uncolored face, the top card as a
+     * one-hot face, the hand size of each opponent in seat order, the draw pile size, the direction of play,
+     * the agent's score and each opponent's score, scores divided by the winning score.
+     * </p>
+     *
+     * @param players the number of players per game
+     * @return the observation size
+     */
+    public static int observationSize(int players) {
+        return 2 * CardCatalog.FACE_COUNT + 2 * (players - 1) + 3;
+    }
+
+    /**
+     * Returns the number of floats in an observation of this environment.
+     *
+     * @return the observation size
+     */
+    public int getObservationSize() {
+        return observationSize(players);
+    }
+
+    /**
+     * Starts a new game and plays the opponents' turns until it is the agent's turn.
+     *
+     * @param seed the seed of the game
+     */
+    public void reset(long seed) {
+        game = new DuoCardGame(seed, seats);
+        game.setVerbose(false);
+        game.setLogger(null);
+        game.getPlayers().toArray(seated);
+        done = false;
+        reward = 0;
+        try {
+            game.startGame();
+            playOpponents();
+        } catch (IndexOutOfBoundsException e) {
+            // Both piles ran out of cards; the game cannot continue.
+            done = true;
+        }
+    }
+
+    /**
+     * Plays the agent's action and then the opponents' turns until it is the agent's turn again or the
+     * game is over.
+     *
+     * @param action a legal action
+     * @return the number of points scored by the agent minus those scored by the opponents during the step
+     * @throws IllegalStateException if the game is over
+     * @throws IllegalArgumentException if the action is not legal
+     */
+    public float step(int action) {
+        if (done) {
+            throw new IllegalStateException("The game is over; reset the environment");
+        }
+        if (!isLegal(action)) {
+            throw new IllegalArgumentException("Illegal action " + action);
+        }
+        int before = scoreMargin();
+        agent.action = action;
+        try {
+            game.playTurn();
+            agent.action = -1;
+            playOpponents();
+        } catch (IndexOutOfBoundsException e) {
+            // Both piles ran out of cards; the game cannot continue.
+            done = true;
+        }
+        agent.action = -1;
+        reward = scoreMargin() - before;
+        return reward;
+    }
+
+    /**
+     * Plays the opponents' turns until it is the agent's turn or the game is over.
+     */
+    private void playOpponents() {
+        while (!game.isGameOver() && game.getCurrentPlayer() != seated[0]) {
+            game.playTurn();
+        }
+        done = game.isGameOver();
+    }
+
+    /**
+     * Returns the agent's score minus the sum of the opponents' scores.
+     *
+     * @return the score margin
+     */
+    private int scoreMargin() {
+        int margin = seated[0].getScore();
+        for (int i = 1; i < players; i++) {
+            margin -= seated[i].getScore();
+        }
+        return margin;
+    }
+
+    /**
+     * Determines whether an action is legal in the current position.
+     *
+     * @param action the action
+     * @return {@code true} if the agent may take the action; {@code false} otherwise
+     */
+    public boolean isLegal(int action) {
+        if (action == DRAW_ACTION) {
+            return !done;
+        }
+        if (done || action < 0 || action >= CardCatalog.FACE_COUNT || !CardCatalog.isPlayable(action, topFace())) {
+            return false;
+        }
+        int face = CardCatalog.uncolored(action);
+        if (action >= FIRST_WILD_FACE && face == action) {
+            return false;
+        }
+        List<Card> hand = seated[0].getHandView();
+        for (int i = 0; i < hand.size(); i++) {
+            if (CardCatalog.uncolored(CardCatalog.faceOf(hand.get(i))) == face) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the face of the top card.
+     *
+     * @return the top face
+     */
+    private int topFace() {
+        return CardCatalog.faceOf(game.getTopCard());
+    }
+
+    /**
+     * Writes the observation of the current position.
+     *
+     * @param dest the slab to write into
+     * @param offset the index of the first float to write
+     */
+    public void writeObservation(FloatBuffer dest, int offset) {
+        int faces = CardCatalog.FACE_COUNT;
+        for (int i = 0; i < 2 * faces; i++) {
+            dest.put(offset + i, 0);
+        }
+        List<Card> hand = seated[0].getHandView();
+        for (int i = 0; i < hand.size(); i++) {
+            int index = offset + CardCatalog.uncolored(CardCatalog.faceOf(hand.get(i)));
+            dest.put(index, dest.get(index) + 1);
+        }
+        dest.put(offset + faces + topFace(), 1);
+        int index = offset + 2 * faces;
+        for (int i = 1; i < players; i++) {
+            dest.put(index++, seated[i].getHandSize());
+        }
+        dest.put(index++, game.getDrawPileSize());
+        dest.put(index++, game.getDirection());
+        for (int i = 0; i < players; i++) {
+            dest.put(index++, seated[i].getScore() / WINNING_SCORE);
+        }
+    }
+
+    /**
+     * Writes the legal action mask of the current position: 1 for each legal action, 0 otherwise.
+     *
+     * @param dest the slab to write into
+     * @param offset the index of the first of {@link #ACTION_COUNT} floats to write
+     */
+    public void writeLegalMask(FloatBuffer dest, int offset) {
+        for (int i = 0; i < ACTION_COUNT; i++) {
+            dest.put(offset + i, 0);
+        }
+        if (done) {
+            return;
+        }
+        int top = topFace();
+        List<Card> hand = seated[0].getHandView();
+        for (int i = 0; i < hand.size(); i++) {
+            int face = CardCatalog.uncolored(CardCatalog.faceOf(hand.get(i)));
+            if (!CardCatalog.isPlayable(face, top)) continue;
+            if (face < FIRST_WILD_FACE) {
+                dest.put(offset + face, 1);
+            } else {
+                for (int color = 0; color < 4; color++) {
+                    dest.put(offset + CardCatalog.recolor(face, color), 1);
+                }
+            }
+        }
+        dest.put(offset + DRAW_ACTION, 1);
+    }
+
+    /**
+     * Returns whether the current game is over, or was aborted because both piles ran out of cards.
+     *
+     * @return {@code true} if the episode has ended
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Returns the reward of the last step.
+     *
+     * @return the number of points scored by the agent minus those scored by the opponents
+     */
+    public float getReward() {
+        return reward;
+    }
+
+    /**
+     * Returns the current game.
+     *
+     * @return the game, or {@code null} before the first reset
+     */
+    public DuoCardGame getGame() {
+        return game;
+    }
+
+    /**
+     * Plays the action chosen for the agent's current turn.
+     */
+    private static final class AgentStrategy implements PlayerStrategy {
+        /** The action of the current step, or -1 between steps. */
+        private int action = -1;
+
+        /**
+         * Returns the card of the chosen action, or {@code null} to draw.
+         *
+         * @param player the agent's player
+         * @param topCard the card on the top of the discard pile
+         * @param random the game's random number generator (unused)
+         * @return the card to play, or {@code null}
+         */
+        @Override
+        public Card choosePlayableCard(Player player, Card topCard, Random random) {
+            if (action < 0 || action == DRAW_ACTION) {
+                return null;
+            }
+            int face = CardCatalog.uncolored(action);
+            List<Card> hand = player.getHandView();
+            for (int i = 0; i < hand.size(); i++) {
+                Card card = hand.get(i);
+                if (CardCatalog.uncolored(CardCatalog.faceOf(card)) == face) {
+                    return card;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Returns the color of the chosen wild action, or the most common color of the hand for a wild card
+         * the agent did not choose, such as a drawn one or the starting card.
+         *
+         * @param player the agent's player
+         * @param random the game's random number generator
+         * @return the chosen non-WILD color
+         */
+        @Override
+        public CardColor chooseColor(Player player, Random random) {
+            if (action >= FIRST_WILD_FACE && action < DRAW_ACTION) {
+                return COLORS[CardCatalog.color(action)];
+            }
+            return player.mostCommonColor(random);
+        }
+    }
+}
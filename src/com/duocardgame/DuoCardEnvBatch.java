@@ -0,0 +1,386 @@
+package com.duocardgame;
+
+import java.nio.FloatBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Steps many {@link DuoCardEnv} environments per call, split across worker threads.
+ * <p>
+ * Environment {@code i} writes its observation at {@code i * getObservationSize()} of the observation slab
+ * and its legal action mask at {@code i * DuoCardEnv.ACTION_COUNT} of the mask slab. Environments whose
+ * game ended during a step report {@code done} and are reset at once, so the observation written for them
+ * belongs to the next game. Environment {@code i} plays the seeds {@code firstSeed + i},
+ * {@code firstSeed + i + size()}, and so on, so the games do not depend on the number of threads.
+ * </p>
+ * <p>
+ * The worker threads are started once and are handed each call through a generation counter and
+ * {@link LockSupport}, so stepping creates no objects. A batch is driven by one thread at a time.
+ * </p>
+ * <p>
+ * Usage: {@code DuoCardEnvBatch [envs] [players] [threads] [steps]} measures the throughput with random
+ * legal actions against {@link RandomHeuristicStrategy}.
+ * </p>
+ */
+public class DuoCardEnvBatch implements AutoCloseable {
+    /** The environments. */
+    private final DuoCardEnv[] envs;
+
+    /** The seed of the next game of each environment. */
+    private final long[] nextSeeds;
+
+    /** The number of floats in one observation. */
+    private final int observationSize;
+
+    /** The worker threads; the calling thread works on the first part itself. */
+    private final Thread[] workers;
+
+    /** The number of parts the environments are split into. */
+    private final int parts;
+
+    /** The number of parts of the current call that are not finished yet. */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /** Incremented to hand a new call to the workers. */
+    private volatile int generation;
+
+    /** Whether the batch is closed. */
+    private volatile boolean closed;
+
+    /** The thread waiting for the current call to finish. */
+    private volatile Thread caller;
+
+    /** The first failure of the current call, if any. */
+    private volatile RuntimeException failure;
+
+    /** Whether the current call resets the environments instead of stepping them. */
+    private boolean resetting;
+
+    /** The actions of the current call. */
+    private int[] actions;
+
+    /** The observation slab of the current call. */
+    private FloatBuffer observations;
+
+    /** The mask slab of the current call. */
+    private FloatBuffer masks;
+
+    /** The rewards of the current call. */
+    private float[] rewards;
+
+    /** The done flags of the current call. */
+    private boolean[] dones;
+
+    /** The observation array wrapped last, so the wrapper is reused while the caller keeps the array. */
+    private float[] observationArray;
+
+    /** The wrapper of {@link #observationArray}. */
+    private FloatBuffer observationWrapper;
+
+    /** The mask array wrapped last. */
+    private float[] maskArray;
+
+    /** The wrapper of {@link #maskArray}. */
+    private FloatBuffer maskWrapper;
+
+    /**
+     * Constructs a batch of environments and starts its worker threads.
+     *
+     * @param size the number of environments
+     * @param players the number of players per game, from 2 to 4
+     * @param opponent the strategy of the other seats; it must be safe to share between threads
+     * @param threads the number of threads stepping the environments, including the calling thread
+     */
+    public DuoCardEnvBatch(int size, int players, PlayerStrategy opponent, int threads) {
+        envs = new DuoCardEnv[size];
+        for (int i = 0; i < size; i++) {
+            envs[i] = new DuoCardEnv(players, opponent);
+        }
+        nextSeeds = new long[size];
+        observationSize = DuoCardEnv.observationSize(players);
+        parts = Math.max(1, Math.min(threads, size));
+        workers = new Thread[parts - 1];
+        for (int i = 0; i < workers.length; i++) {
+            int part = i + 1;
+            workers[i] = new Thread(() -> workLoop(part), "env-worker-" + part);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Returns the number of environments.
+     *
+     * @return the batch size
+     */
+    public int size() {
+        return envs.length;
+    }
+
+    /**
+     * Returns the number of floats in one observation.
+     *
+     * @return the observation size
+     */
+    public int getObservationSize() {
+        return observationSize;
+    }
+
+    /**
+     * Returns one of the environments, for inspection between calls.
+     *
+     * @param index the index of the environment
+     * @return the environment
+     */
+    public DuoCardEnv getEnv(int index) {
+        return envs[index];
+    }
+
+    /**
+     * Starts a new game in every environment and writes the first observations and masks.
+     *
+     * @param firstSeed the seed of the first game of environment 0
+     * @param observations the observation slab, {@code size() * getObservationSize()} floats
+     * @param masks the mask slab, {@code size() * DuoCardEnv.ACTION_COUNT} floats
+     */
+    public void reset(long firstSeed, FloatBuffer observations, FloatBuffer masks) {
+        for (int i = 0; i < envs.length; i++) {
+            nextSeeds[i] = firstSeed + i;
+        }
+        resetting = true;
+        run(null, observations, masks, null, null);
+    }
+
+    /**
+     * Starts a new game in every environment and writes the first observations and masks into arrays.
+     *
+     * @param firstSeed the seed of the first game of environment 0
+     * @param observations the observation slab, {@code size() * getObservationSize()} floats
+     * @param masks the mask slab, {@code size() * DuoCardEnv.ACTION_COUNT} floats
+     */
+    public void reset(long firstSeed, float[] observations, float[] masks) {
+        reset(firstSeed, wrapObservations(observations), wrapMasks(masks));
+    }
+
+    /**
+     * Plays one action in every environment and writes the next observations and masks.
+     *
+     * @param actions the legal action of each environment
+     * @param observations the observation slab, {@code size() * getObservationSize()} floats
+     * @param masks the mask slab, {@code size() * DuoCardEnv.ACTION_COUNT} floats
+     * @param rewards receives the reward of each environment
+     * @param dones receives whether the game of each environment ended; such environments are reset
+     */
+    public void step(int[] actions, FloatBuffer observations, FloatBuffer masks, float[] rewards, boolean[] dones) {
+        resetting = false;
+        run(actions, observations, masks, rewards, dones);
+    }
+
+    /**
+     * Plays one action in every environment and writes the next observations and masks into arrays.
+     *
+     * @param actions the legal action of each environment
+     * @param observations the observation slab, {@code size() * getObservationSize()} floats
+     * @param masks the mask slab, {@code size() * DuoCardEnv.ACTION_COUNT} floats
+     * @param rewards receives the reward of each environment
+     * @param dones receives whether the game of each environment ended; such environments are reset
+     */
+    public void step(int[] actions, float[] observations, float[] masks, float[] rewards, boolean[] dones) {
+        step(actions, wrapObservations(observations), wrapMasks(masks), rewards, dones);
+    }
+
+    /**
+     * Returns a buffer over an observation array, reusing the last one for the same array.
+     *
+     * @param array the observation array
+     * @return the buffer
+     */
+    private FloatBuffer wrapObservations(float[] array) {
+        if (array != observationArray) {
+            observationArray = array;
+            observationWrapper = FloatBuffer.wrap(array);
+        }
+        return observationWrapper;
+    }
+
+    /**
+     * Returns a buffer over a mask array, reusing the last one for the same array.
+     *
+     * @param array the mask array
+     * @return the buffer
+     */
+    private FloatBuffer wrapMasks(float[] array) {
+        if (array != maskArray) {
+            maskArray = array;
+            maskWrapper = FloatBuffer.wrap(array);
+        }
+        return maskWrapper;
+    }
+
+    /**
+     * Hands a call to the workers, works on the first part and waits for the others.
+     *
+     * @param actions the actions, or {@code null} when resetting
+     * @param observations the observation slab
+     * @param masks the mask slab
+     * @param rewards the reward array, or {@code null} when resetting
+     * @param dones the done array, or {@code null} when resetting
+     * @throws IllegalStateException if the batch is closed
+     */
+    private void run(int[] actions, FloatBuffer observations, FloatBuffer masks, float[] rewards, boolean[] dones) {
+        if (closed) {
+            throw new IllegalStateException("The batch is closed");
+        }
+        this.actions = actions;
+        this.observations = observations;
+        this.masks = masks;
+        this.rewards = rewards;
+        this.dones = dones;
+        failure = null;
+        caller = Thread.currentThread();
+        pending.set(parts);
+        generation++;
+        for (Thread worker : workers) {
+            LockSupport.unpark(worker);
+        }
+        runPart(0);
+        while (pending.get() != 0) {
+            LockSupport.park(this);
+        }
+        RuntimeException e = failure;
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the calls handed to one worker thread until the batch is closed.
+     *
+     * @param part the part of the environments the worker steps
+     */
+    private void workLoop(int part) {
+        int seen = 0;
+        while (true) {
+            while (generation == seen && !closed) {
+                LockSupport.park(this);
+            }
+            if (closed) {
+                return;
+            }
+            seen = generation;
+            runPart(part);
+        }
+    }
+
+    /**
+     * Resets or steps one part of the environments, then reports the part as finished.
+     *
+     * @param part the part index
+     */
+    private void runPart(int part) {
+        try {
+            int from = (int) ((long) part * envs.length / parts);
+            int to = (int) ((long) (part + 1) * envs.length / parts);
+            for (int i = from; i < to; i++) {
+                DuoCardEnv env = envs[i];
+                if (resetting) {
+                    resetEnv(i);
+                } else {
+                    rewards[i] = env.step(actions[i]);
+                    dones[i] = env.isDone();
+                    if (dones[i]) {
+                        resetEnv(i);
+                    }
+                }
+                env.writeObservation(observations, i * observationSize);
+                env.writeLegalMask(masks, i * DuoCardEnv.ACTION_COUNT);
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            if (pending.decrementAndGet() == 0) {
+                LockSupport.unpark(caller);
+            }
+        }
+    }
+
+    /**
+     * Starts the next game of an environment, skipping games that end before the agent's first turn.
+     *
+     * @param index the index of the environment
+     */
+    private void resetEnv(int index) {
+        do {
+            envs[index].reset(nextSeeds[index]);
+            nextSeeds[index] += envs.length;
+        } while (envs[index].isDone());
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Thread worker : workers) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Measures how many transitions per second the batch produces with random legal actions.
+     *
+     * @param args optional number of environments, players, threads and steps
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int steps = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+        try (DuoCardEnvBatch batch = new DuoCardEnvBatch(size, players, RandomHeuristicStrategy.INSTANCE, threads)) {
+            float[] observations = new float[size * batch.getObservationSize()];
+            float[] masks = new float[size * DuoCardEnv.ACTION_COUNT];
+            float[] rewards = new float[size];
+            boolean[] dones = new boolean[size];
+            int[] actions = new int[size];
+            SplittableRandom random = new SplittableRandom(1);
+            batch.reset(1, observations, masks);
+            long episodes = 0;
+            long start = System.nanoTime();
+            for (int step = 0; step < steps; step++) {
+                for (int i = 0; i < size; i++) {
+                    actions[i] = randomLegalAction(masks, i * DuoCardEnv.ACTION_COUNT, random);
+                }
+                batch.step(actions, observations, masks, rewards, dones);
+                for (int i = 0; i < size; i++) {
+                    if (dones[i]) episodes++;
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d envs, %d players, %d threads: %.0f transitions/s, %d episodes%n",
+                    size, players, threads, (double) size * steps / seconds, episodes);
+        }
+    }
+
+    /**
+     * Picks a uniformly random legal action from a mask.
+     *
+     * @param masks the mask slab
+     * @param offset the index of the mask
+     * @param random the random number generator
+     * @return a legal action
+     */
+    private static int randomLegalAction(float[] masks, int offset, SplittableRandom random) {
+        int legal = 0;
+        for (int a = 0; a < DuoCardEnv.ACTION_COUNT; a++) {
+            if (masks[offset + a] != 0) legal++;
+        }
+        int pick = random.nextInt(legal);
+        for (int a = 0; ; a++) {
+            if (masks[offset + a] != 0 && pick-- == 0) {
+                return a;
+            }
+        }
+    }
+}
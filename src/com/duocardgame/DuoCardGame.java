@@ -1,5 +1,8 @@
 package com.duocardgame;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -9,6 +12,10 @@ import java.util.*;
  * and managing special actions like reversing play direction or shuffling hands.
  * It also logs game status using a CSV logger.
  * </p>
+ * <p>
+ * A game is not thread-safe: one thread plays it and owns its players, cards and deck. Other threads observe
+ * it through immutable {@link GameSnapshot}s obtained from {@link #enableSnapshots()}.
+ * </p>
  */
 public class DuoCardGame implements IGameMediator {
     /** List of players participating in the game. */
@@ -40,13 +47,172 @@ public class DuoCardGame implements IGameMediator {
     
     /** Logger for tracking and saving game status to a CSV file. */
     private CSVLogger logger;
+    
+    /** Writes a checkpoint after every round, or {@code null} if checkpointing is disabled. */
+    private GameCheckpointer checkpointer;
+
+    /** Records every decision before it is applied, or {@code null} if journaling is disabled. */
+    private TurnJournal journal;
+
+    /** The listeners notified of card movements. */
+    private final List<CardListener> cardListeners = new ArrayList<>();
+
+    /** Forwards deck events to {@link #cardListeners}; installed on the deck only while there are listeners. */
+    private final CardListener dispatcher = new CardListener() {
+        @Override
+        public void roundStarted(List<Player> players) {
+            for (int i = 0; i < cardListeners.size(); i++) cardListeners.get(i).roundStarted(players);
+        }
+
+        @Override
+        public void cardDiscarded(int seat, Card card) {
+            for (int i = 0; i < cardListeners.size(); i++) cardListeners.get(i).cardDiscarded(seat, card);
+        }
+
+        @Override
+        public void cardDrawn(int seat, Card card) {
+            for (int i = 0; i < cardListeners.size(); i++) cardListeners.get(i).cardDrawn(seat, card);
+        }
+
+        @Override
+        public void noPlayableCard(int seat, Card topCard) {
+            for (int i = 0; i < cardListeners.size(); i++) cardListeners.get(i).noPlayableCard(seat, topCard);
+        }
+
+        @Override
+        public void handsShuffled() {
+            for (int i = 0; i < cardListeners.size(); i++) cardListeners.get(i).handsShuffled();
+        }
+
+        @Override
+        public void discardPileReshuffled(Card topCard) {
+            for (int i = 0; i < cardListeners.size(); i++) cardListeners.get(i).discardPileReshuffled(topCard);
+        }
+    };
+
+    /** Publishes the state to reader threads after every turn, or {@code null} if snapshots are disabled. */
+    private SnapshotPublisher publisher;
+
+    /** Records the state after every turn for undo and redo, or {@code null} if history is disabled. */
+    private GameHistory history;
+
+    /** The flight recorder event of the round in play, or {@code null} if rounds are not being recorded. */
+    private RoundEvent roundEvent;
+
+    /** The cards drawn for dealer selection and not yet returned to the draw pile, reused every round. */
+    private Card[] dealerCards = new Card[0];
+
+    /** Supplies the deal permutation of every round, or {@code null} if each round shuffles its own deck. */
+    private ShufflePipeline.Lane shuffleLane;
+
+    /** Whether game events are printed to the standard output. */
+    private boolean verbose = true;
+
+    /** The random number generator driving every shuffle and decision in the game. */
+    private final GameRandom random;
+
+    /** The number of standard decks in the shoe of every round. */
+    private final int shoeDecks;
+
+    /** What the deck does when both piles run out of cards. */
+    private final ExhaustionPolicy exhaustionPolicy;
+
+    /** The largest number of players at a large table. */
+    public static final int MAX_PLAYERS = 200;
+
+    /** Reusable buffer holding the pooled cards while hands are shuffled. */
+    private Card[] shuffleBuffer = new Card[CardCatalog.DECK_SIZE];
+
+    /**
+     * The maximum number of bytes written by {@link #saveState(ByteBuffer)}: the generator state, the round
+     * number, six bytes of turn state, a score and hand size for up to four players, the pile sizes and one
+     * byte per card.
+     */
+    static final int STATE_BYTES = 8 + 4 + 6 + 4 * 5 + 2 + CardCatalog.DECK_SIZE;
 
     /**
      * Constructs a new DuoCardGame instance and initializes the game state.
      */
     public DuoCardGame() {
+        this(new GameRandom(), 1, ExhaustionPolicy.FAIL);
+    }
+
+    /**
+     * Constructs a new DuoCardGame instance whose shuffles and player decisions are derived from the given seed.
+     * Two games created with the same seed play out identically.
+     *
+     * @param seed the seed of the game's random number generator
+     */
+    public DuoCardGame(long seed) {
+        this(new GameRandom(seed), 1, ExhaustionPolicy.FAIL);
+    }
+
+    /**
+     * Constructs a new DuoCardGame whose seats are played by the given strategies, in order.
+     * <p>
+     * The number of players equals the number of strategies instead of being chosen at random.
+     * Shuffles and decisions are derived from the given seed, so games with equal seeds and strategies
+     * play out identically.
+     * </p>
+     *
+     * @param seed the seed of the game's random number generator
+     * @param strategies the strategy of each seat
+     */
+    public DuoCardGame(long seed, List<PlayerStrategy> strategies) {
+        this(new GameRandom(seed), 1, ExhaustionPolicy.FAIL);
+        for (int i = 0; i < strategies.size(); i++) {
+            addPlayer(new Player("Player " + (i + 1), random, strategies.get(i)));
+        }
+    }
+
+    /**
+     * Constructs a large-table game whose seats are played by the given strategies, with a shoe of several
+     * standard decks.
+     * <p>
+     * Every round is dealt from a fresh shoe. When both piles run out of cards, the exhaustion policy decides
+     * whether the game ends with an {@link IndexOutOfBoundsException} or another deck is opened. Large-table
+     * games cannot be encoded by {@link #saveState(ByteBuffer)}, so snapshots, undo history and checkpoints
+     * are only available for standard games.
+     * </p>
+     *
+     * @param seed the seed of the game's random number generator
+     * @param strategies the strategy of each seat, 2 to {@link #MAX_PLAYERS} of them
+     * @param decks the number of standard decks in the shoe; see {@link #recommendedDecks(int)}
+     * @param exhaustionPolicy what the deck does when both piles run out of cards
+     */
+    public DuoCardGame(long seed, List<PlayerStrategy> strategies, int decks, ExhaustionPolicy exhaustionPolicy) {
+        this(new GameRandom(seed), decks, exhaustionPolicy);
+        if (strategies.size() < 2 || strategies.size() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Player count must be between 2 and " + MAX_PLAYERS);
+        }
+        for (int i = 0; i < strategies.size(); i++) {
+            addPlayer(new Player("Player " + (i + 1), random, strategies.get(i)));
+        }
+    }
+
+    /**
+     * Returns the number of standard decks a shoe needs so that the dealt hands take at most half of it.
+     *
+     * @param players the number of players
+     * @return the recommended number of decks, at least 1
+     */
+    public static int recommendedDecks(int players) {
+        return Math.max(1, (2 * 7 * players + CardCatalog.DECK_SIZE - 1) / CardCatalog.DECK_SIZE);
+    }
+
+    /**
+     * Constructs a new DuoCardGame instance using the given random source and initializes the game state.
+     *
+     * @param random the random number generator driving the game
+     * @param decks the number of standard decks in the shoe
+     * @param exhaustionPolicy what the deck does when both piles run out of cards
+     */
+    private DuoCardGame(GameRandom random, int decks, ExhaustionPolicy exhaustionPolicy) {
+        this.random = random;
+        this.shoeDecks = decks;
+        this.exhaustionPolicy = exhaustionPolicy;
         players = new ArrayList<>();
-        deck = new Deck();
+        deck = new Deck(random, decks, exhaustionPolicy);
         direction = 1;
         roundEnded = false;
         gameOver = false;
@@ -58,43 +224,74 @@ public class DuoCardGame implements IGameMediator {
     /**
      * Starts the game by initializing players, selecting a dealer, shuffling and dealing cards,
      * and setting up the initial discard pile.
+     * <p>
+     * While the flight recorder runs, the round that is dealt is reported as a {@link RoundEvent} once it is
+     * won.
+     * </p>
      */
     public void startGame() {
+        roundEvent = null;
+        if (FlightRecording.isStarted()) {
+            RoundEvent event = new RoundEvent();
+            if (event.isEnabled()) {
+                event.begin();
+                roundEvent = event;
+            }
+        }
+
         // Only initialize players when first starting the game.
         if (players.isEmpty()) {
-            int numPlayers = new Random().nextInt(2, 5);
-            System.out.println("Starting game with " + numPlayers + " players.");
+            int numPlayers = 2 + random.nextInt(3);
+            if (verbose) log("Starting game with " + numPlayers + " players.");
             for (int i = 1; i <= numPlayers; i++) {
-                players.add(new Player("Player " + i));
+                addPlayer(new Player("Player " + i, random));
             }
         }
         
         // Dealer selection: each player draws a card; highest score becomes dealer.
         Player dealer = selectDealer();
-        System.out.println("Dealer: " + dealer.getName());
+        if (verbose) log("Dealer: " + dealer.getName());
         
-        deck.shuffle();
         deck.dealCards(players, 7);
+        if (!cardListeners.isEmpty()) dispatcher.roundStarted(players);
         
         for (Player p : players) {
-            System.out.println(p.getName() + " hand: " + p.getHand());
+            if (verbose) log(p.getName() + " hand: " + p.getHand());
         }
         
         // Set the starting player (next to the dealer).
-        currentPlayerIndex = (players.indexOf(dealer) + 1) % players.size();
+        currentPlayerIndex = (dealer.getSeat() + 1) % players.size();
         
         // Draw the starting card and set the current color.
         Card startingCard = deck.drawCard();
         deck.putCardToDiscardPile(startingCard);
+        if (!cardListeners.isEmpty()) dispatcher.cardDiscarded(-1, startingCard);
         currentColor = startingCard.getColor();
-        System.out.println("Starting Discard Pile card: " + startingCard);
+        if (verbose) log("Starting Discard Pile card: " + startingCard);
         
         // Execute the effect if the starting card is an action card.
         if (startingCard instanceof ActionCard) {
             ((ActionCard) startingCard).executeEffect(this);
         }
+        if (publisher != null) {
+            publisher.publish(this);
+        }
+        // A round dealt by the turn that ended the previous one is recorded with that turn.
+        if (history != null && !roundEnded) {
+            history.record(this);
+        }
     }
     
+    /**
+     * Seats a player at this game.
+     *
+     * @param player the player to add
+     */
+    private void addPlayer(Player player) {
+        player.setGame(this, players.size());
+        players.add(player);
+    }
+
     /**
      * Plays a round of the game.
      * <p>
@@ -103,51 +300,86 @@ public class DuoCardGame implements IGameMediator {
      * </p>
      */
     public void playRound() {
-        System.out.println("Round started. Current direction: " + (direction == 1 ? "Left" : "Right"));
+        if (verbose) log("Round started. Current direction: " + (direction == 1 ? "Left" : "Right"));
+        do {
+            playTurn();
+        } while (!roundEnded);
+    }
+    
+    /**
+     * Plays the turn of the current player.
+     * <p>
+     * The player plays a card or draws one, and the effect of a played action card is executed.
+     * If the turn empties the player's hand, the round is scored and, unless the game is over,
+     * the next round is dealt.
+     * </p>
+     */
+    public void playTurn() {
         roundEnded = false;
-        while (!roundEnded) {
-            Player currentPlayer = getCurrentPlayer();
-            Card topCard = deck.getTopDiscardPileCard();
-            System.out.println("Top card: " + topCard + " | Current color: " + currentColor);
-            System.out.println(currentPlayer.getName() + "'s turn.");
-            
-            // Player chooses a playable card.
-            Card cardToPlay = currentPlayer.choosePlayableCard(topCard);
-            if (cardToPlay != null) {
-                currentPlayer.playCard(cardToPlay);
-                deck.putCardToDiscardPile(cardToPlay);
-                currentColor = cardToPlay.getColor();
-                System.out.println(currentPlayer.getName() + " plays " + cardToPlay);
-                if (cardToPlay instanceof ActionCard) {
-                    ((ActionCard) cardToPlay).executeEffect(this);
-                }
-            } else {
-                // If no playable card, draw one from the deck.
-                Card drawn = deck.drawCard();
-                currentPlayer.addCard(drawn);
-                System.out.println(currentPlayer.getName() + " draws " + drawn);
-                if (drawn.isPlayable(topCard)) {
-                    currentPlayer.playCard(drawn);
-                    deck.putCardToDiscardPile(drawn);
-                    currentColor = drawn.getColor();
-                    System.out.println(currentPlayer.getName() + " plays drawn card " + drawn);
-                    if (drawn instanceof ActionCard) {
-                        ((ActionCard) drawn).executeEffect(this);
-                    }
-                }
+        Player currentPlayer = getCurrentPlayer();
+        Card topCard = deck.getTopDiscardPileCard();
+        if (verbose) log("Top card: " + topCard + " | Current color: " + currentColor);
+        if (verbose) log(currentPlayer.getName() + "'s turn.");
+        
+        // Player chooses a playable card.
+        Card cardToPlay = currentPlayer.choosePlayableCard(topCard);
+        if (cardToPlay != null) {
+            if (journal != null) {
+                journal.cardPlayed(currentPlayerIndex, currentPlayer.getHandView().indexOf(cardToPlay), cardToPlay);
+            }
+            currentPlayer.playCard(cardToPlay);
+            deck.putCardToDiscardPile(cardToPlay);
+            if (!cardListeners.isEmpty()) dispatcher.cardDiscarded(currentPlayerIndex, cardToPlay);
+            currentColor = cardToPlay.getColor();
+            if (verbose) log(currentPlayer.getName() + " plays " + cardToPlay);
+            if (cardToPlay instanceof ActionCard) {
+                ((ActionCard) cardToPlay).executeEffect(this);
             }
-            
-            // Check if the current player has emptied their hand, winning the round.
-            if (currentPlayer.getHand().isEmpty()) {
-                System.out.println(currentPlayer.getName() + " wins the round!");
-                updateScores(currentPlayer);
-                roundEnded = true;
+        } else {
+            if (journal != null) {
+                journal.drawChosen(currentPlayerIndex);
             }
-            if (!roundEnded) {
-                moveToNextPlayer();
+            // If no playable card, draw one from the deck.
+            if (!cardListeners.isEmpty()) dispatcher.noPlayableCard(currentPlayerIndex, topCard);
+            Card drawn = deck.drawCard();
+            currentPlayer.addCard(drawn);
+            if (!cardListeners.isEmpty()) dispatcher.cardDrawn(currentPlayerIndex, drawn);
+            if (verbose) log(currentPlayer.getName() + " draws " + drawn);
+            if (drawn.isPlayable(topCard)) {
+                currentPlayer.playCard(drawn);
+                deck.putCardToDiscardPile(drawn);
+                if (!cardListeners.isEmpty()) dispatcher.cardDiscarded(currentPlayerIndex, drawn);
+                currentColor = drawn.getColor();
+                if (verbose) log(currentPlayer.getName() + " plays drawn card " + drawn);
+                if (drawn instanceof ActionCard) {
+                    ((ActionCard) drawn).executeEffect(this);
+                }
             }
         }
         
+        // Check if the current player has emptied their hand, winning the round.
+        if (currentPlayer.getHandSize() == 0) {
+            if (verbose) log(currentPlayer.getName() + " wins the round!");
+            int points = updateScores(currentPlayer);
+            roundEnded = true;
+            commitRoundEvent(currentPlayer, points);
+            finishRound();
+        } else {
+            moveToNextPlayer();
+        }
+        if (publisher != null) {
+            publisher.publish(this);
+        }
+        if (history != null) {
+            history.record(this);
+        }
+    }
+    
+    /**
+     * Completes a won round: checks for the end of the game, logs the status, deals the next round
+     * and writes a checkpoint.
+     */
+    private void finishRound() {
         // Check if any player's score has reached or exceeded 500, ending the game.
         for (Player p : players) {
             if (p.getScore() >= 500) {
@@ -158,13 +390,24 @@ public class DuoCardGame implements IGameMediator {
         }
 
         // Log the game status at the end of the round.
-        logger.logGameStatus(this);
+        if (logger != null) {
+            logger.logGameStatus(this);
+        }
         roundNumber += 1;
         
         // Reset the round if the game is not over.
         if (!gameOver) {
             resetRound();
         }
+        
+        // Checkpoint the state between rounds so a restarted session resumes here.
+        if (checkpointer != null) {
+            try {
+                checkpointer.checkpoint(this);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not checkpoint round " + (roundNumber - 1), e);
+            }
+        }
     }
     
     /**
@@ -174,18 +417,42 @@ public class DuoCardGame implements IGameMediator {
      * </p>
      *
      * @param roundWinner the player who won the round
+     * @return the points the round winner earned
      */
-    private void updateScores(Player roundWinner) {
+    private int updateScores(Player roundWinner) {
         int roundScore = 0;
-        for (Player p : players) {
+        for (int i = 0; i < players.size(); i++) {
+            Player p = players.get(i);
             if (p != roundWinner) {
-                for (Card c : p.getHand()) {
-                    roundScore += c.getScore();
-                }
+                roundScore += p.getHandScore();
             }
         }
         roundWinner.addScore(roundScore);
-        System.out.println(roundWinner.getName() + " earns " + roundScore + " points. Total score: " + roundWinner.getScore());
+        if (verbose) log(roundWinner.getName() + " earns " + roundScore + " points. Total score: " + roundWinner.getScore());
+        return roundScore;
+    }
+
+    /**
+     * Commits the flight recorder event of the round that was just won, if it is being recorded.
+     *
+     * @param roundWinner the player who won the round
+     * @param points the points the round winner earned
+     */
+    private void commitRoundEvent(Player roundWinner, int points) {
+        RoundEvent event = roundEvent;
+        if (event == null) {
+            return;
+        }
+        roundEvent = null;
+        event.end();
+        if (event.shouldCommit()) {
+            event.roundNumber = roundNumber;
+            event.players = players.size();
+            event.winnerSeat = roundWinner.getSeat();
+            event.winner = roundWinner.getName();
+            event.points = points;
+            event.commit();
+        }
     }
     
     /**
@@ -195,7 +462,9 @@ public class DuoCardGame implements IGameMediator {
      * </p>
      */
     private void resetRound() {
-        deck = new Deck();
+        deck = shuffleLane == null ? new Deck(random, shoeDecks, exhaustionPolicy)
+                : new Deck(random, shuffleLane.take(roundNumber));
+        deck.setListener(cardListeners.isEmpty() ? null : dispatcher);
         for (Player p : players) {
             p.clearHand();
         }
@@ -230,29 +499,182 @@ public class DuoCardGame implements IGameMediator {
     /**
      * Shuffles the hands of all players.
      * <p>
-     * All cards from each player's hand are combined, shuffled, and then redistributed evenly among the players.
+     * All cards from each player's hand are combined in a reusable buffer, shuffled in place with the game's
+     * random generator, and then redistributed evenly among the players. No memory is allocated.
      * </p>
      */
     public void shuffleHands() {
-        List<Card> shufflePile = new ArrayList<>();
+        int total = 0;
+        for (Player p : players) {
+            total += p.getHandSize();
+        }
+        if (shuffleBuffer.length < total) {
+            shuffleBuffer = new Card[total];
+        }
+        total = 0;
         for (Player p : players) {
-            shufflePile.addAll(p.getHand());
+            total += p.copyHandInto(shuffleBuffer, total);
             p.clearHand();
         }
-        Collections.shuffle(shufflePile);
-        int index = 0;
-        while (!shufflePile.isEmpty()) {
-            players.get(index % players.size()).addCard(shufflePile.remove(0));
-            index++;
+        // Same swap sequence as Collections.shuffle, so seeded games keep their outcome.
+        for (int i = total; i > 1; i--) {
+            int j = random.nextInt(i);
+            Card tmp = shuffleBuffer[i - 1];
+            shuffleBuffer[i - 1] = shuffleBuffer[j];
+            shuffleBuffer[j] = tmp;
         }
+        int share = (total + players.size() - 1) / players.size();
+        for (Player p : players) {
+            p.ensureHandCapacity(share);
+        }
+        for (int i = 0; i < total; i++) {
+            players.get(i % players.size()).addCard(shuffleBuffer[i]);
+            shuffleBuffer[i] = null;
+        }
+        if (!cardListeners.isEmpty()) dispatcher.handsShuffled();
     }
     
+    /**
+     * Prints a game event if the game is verbose.
+     *
+     * @param message the message describing the event
+     */
+    @Override
+    public void log(String message) {
+        if (verbose) {
+            System.out.println(message);
+        }
+    }
+
+    /**
+     * Checks whether game events are printed, so that callers can skip building messages.
+     *
+     * @return {@code true} if the game is verbose; {@code false} otherwise
+     */
+    @Override
+    public boolean isLogging() {
+        return verbose;
+    }
+
+    /**
+     * Sets whether game events are printed to the standard output. Simulations usually turn this off.
+     *
+     * @param verbose {@code true} to print game events; {@code false} to stay silent
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Sets the logger that records the game status after each round.
+     *
+     * @param logger the CSV logger, or {@code null} to disable logging
+     */
+    public void setLogger(CSVLogger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Sets the checkpointer that saves the game state after every round.
+     *
+     * @param checkpointer the checkpointer, or {@code null} to disable checkpoints
+     * @throws IllegalStateException if this is a large-table game, whose state cannot be encoded
+     */
+    public void setCheckpointer(GameCheckpointer checkpointer) {
+        if (checkpointer != null) {
+            requireEncodable();
+        }
+        this.checkpointer = checkpointer;
+    }
+
+    /**
+     * Enables read-only snapshots of this game for other threads and publishes the current state.
+     * <p>
+     * Must be called by the thread playing the game, before the returned publisher is shared. The state is then
+     * republished after every turn; readers call {@link SnapshotPublisher#read()} without ever blocking the game.
+     * </p>
+     *
+     * @return the publisher to hand to reader threads
+     * @throws IllegalStateException if this is a large-table game, whose state cannot be encoded
+     */
+    public SnapshotPublisher enableSnapshots() {
+        if (publisher == null) {
+            requireEncodable();
+            publisher = new SnapshotPublisher();
+            publisher.publish(this);
+        }
+        return publisher;
+    }
+
+    /**
+     * Adds a listener notified of every card that is dealt, drawn, discarded or reshuffled, such as a
+     * {@link CardTracker}.
+     *
+     * @param listener the listener to add
+     */
+    public void addCardListener(CardListener listener) {
+        cardListeners.add(listener);
+        deck.setListener(dispatcher);
+    }
+
+    /**
+     * Sets the history that records the state after the game starts and after every turn, so turns can be
+     * undone and redone. Set it before {@link #startGame()} to be able to undo back to the first turn.
+     *
+     * @param history the history, or {@code null} to disable undo
+     * @throws IllegalStateException if this is a large-table game, whose state cannot be encoded
+     */
+    public void setHistory(GameHistory history) {
+        if (history != null) {
+            requireEncodable();
+        }
+        this.history = history;
+    }
+
+    /**
+     * Sets the journal that records every card, draw and color decision before it is applied.
+     *
+     * @param journal the journal, or {@code null} to disable journaling
+     */
+    public void setJournal(TurnJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Deals every round of this game from the permutations of a {@link ShufflePipeline} lane instead of
+     * shuffling with the game's random generator.
+     * <p>
+     * Must be called before {@link #startGame()}. The permutation of each round depends only on the given seed
+     * and the round number, so the game plays out the same whether the producer kept up or not, but
+     * differently from the same game without a pipeline.
+     * </p>
+     *
+     * @param lane the lane of the thread playing this game
+     * @param seed the seed keying the permutations, normally the seed of the game
+     * @throws IllegalStateException if this is a large-table game with a shoe of several decks
+     */
+    public void setShuffleLane(ShufflePipeline.Lane lane, long seed) {
+        if (shoeDecks != 1 || exhaustionPolicy != ExhaustionPolicy.FAIL) {
+            throw new IllegalStateException("Only games dealt from a single deck can use a shuffle pipeline");
+        }
+        shuffleLane = lane;
+        lane.start(seed, roundNumber);
+        deck = new Deck(random, lane.take(roundNumber));
+        deck.setListener(cardListeners.isEmpty() ? null : dispatcher);
+    }
+
     /**
      * Sets the current active color.
+     * <p>
+     * Wild cards call this with the color chosen by the current player, so the choice is journaled here.
+     * </p>
      *
      * @param color the new current color
      */
     public void setCurrentColor(CardColor color) {
+        if (journal != null) {
+            journal.colorChosen(currentPlayerIndex, color);
+        }
         currentColor = color;
     }
     
@@ -305,13 +727,81 @@ public class DuoCardGame implements IGameMediator {
     @Override
     public void setDeck(Deck deck) {
         this.deck = new Deck(deck); // Store a defensive copy
+        this.deck.setListener(cardListeners.isEmpty() ? null : dispatcher);
+    }
+
+    /**
+     * Draws cards from the deck directly into a player's hand, without copying the deck.
+     * <p>
+     * With card listeners registered, the cards are drawn in blocks that end where the draw pile runs out,
+     * and each block is reported before the discard pile is reshuffled for the next one. A listener that
+     * recounts on the reshuffle therefore sees every drawn card exactly once.
+     * </p>
+     *
+     * @param player the player receiving the cards
+     * @param count the number of cards to draw
+     */
+    @Override
+    public void drawCards(Player player, int count) {
+        if (cardListeners.isEmpty()) {
+            deck.drawCards(player, count);
+            return;
+        }
+        int seat = player.getSeat();
+        List<Card> hand = player.getHandView();
+        while (count > 0) {
+            // An empty draw pile is refilled by drawing a single card, which is reported after the reshuffle.
+            int n = Math.max(1, Math.min(count, deck.getDrawPileSize()));
+            deck.drawCards(player, n);
+            for (int i = hand.size() - n; i < hand.size(); i++) {
+                dispatcher.cardDrawn(seat, hand.get(i));
+            }
+            count -= n;
+        }
+    }
+
+    /**
+     * Returns the number of cards in the draw pile, without copying the deck.
+     *
+     * @return the draw pile size
+     */
+    int getDrawPileSize() {
+        return deck.getDrawPileSize();
+    }
+
+    /**
+     * Returns the direction of play.
+     *
+     * @return 1 for forward, -1 for backward
+     */
+    int getDirection() {
+        return direction;
+    }
+
+    /**
+     * Returns the card on top of the discard pile, without copying the deck.
+     *
+     * @return the top card, or {@code null} if the discard pile is empty
+     */
+    Card getTopCard() {
+        return deck.getTopDiscardPileCard();
+    }
+
+    /**
+     * Adds the number of draw pile cards of each uncolored face to the given counts, without copying the deck.
+     *
+     * @param counts the counts, indexed by {@link CardCatalog} face
+     */
+    void countDrawPile(int[] counts) {
+        deck.countDrawPile(counts);
     }
 
     /**
      * Selects the dealer for the game.
      * <p>
      * Each player draws a card, and the player with the highest scoring card is selected as the dealer.
-     * After selection, the drawn cards are returned to the deck and it is reshuffled.
+     * After selection, the drawn cards are returned to the bottom of the draw pile together, with a single
+     * shift of the pile, in the same order as returning each card right after it was drawn.
      * </p>
      *
      * @return the {@code Player} selected as the dealer
@@ -320,16 +810,26 @@ public class DuoCardGame implements IGameMediator {
     public Player selectDealer() {
         Player selected = null;
         int highest = -1;
+        if (dealerCards.length < players.size()) {
+            dealerCards = new Card[players.size()];
+        }
+        int returned = 0;
         for (Player p : players) {
+            if (deck.getDrawPileSize() == 0) {
+                // Returning the cards one by one would have left them to be drawn next.
+                deck.addCardsToDrawPileBottom(dealerCards, returned);
+                returned = 0;
+            }
             Card drawn = deck.drawCard();
-            System.out.println(p.getName() + " draws " + drawn + " for dealer selection.");
+            if (verbose) log(p.getName() + " draws " + drawn + " for dealer selection.");
             if (drawn.getScore() > highest) {
                 highest = drawn.getScore();
                 selected = p;
             }
-            deck.addCardToDrawPile(drawn);
+            dealerCards[returned++] = drawn;
         }
-        deck.shuffle();
+        deck.addCardsToDrawPileBottom(dealerCards, returned);
+        Arrays.fill(dealerCards, null);
         return selected;
     }
     
@@ -358,4 +858,151 @@ public class DuoCardGame implements IGameMediator {
     public int getRoundNumber() {
         return roundNumber;
     }
+
+    /**
+     * Writes the complete state of the game, including the random generator, into the buffer.
+     * <p>
+     * Cards are stored as {@link CardCatalog} face ids, one byte each. At most {@link #STATE_BYTES} bytes are written.
+     * </p>
+     *
+     * @param out the buffer to write to, starting at its current position
+     */
+    void saveState(ByteBuffer out) {
+        requireEncodable();
+        out.putLong(random.getState());
+        out.putInt(roundNumber);
+        out.put((byte) players.size());
+        out.put((byte) currentPlayerIndex);
+        out.put((byte) direction);
+        out.put((byte) (currentColor == null ? -1 : currentColor.ordinal()));
+        out.put((byte) ((roundEnded ? 1 : 0) | (gameOver ? 2 : 0)));
+        out.put((byte) players.indexOf(gameWinner));
+        for (Player p : players) {
+            out.putInt(p.getScore());
+            out.put((byte) p.getHandSize());
+        }
+        deck.saveState(out);
+        for (int i = 0; i < players.size(); i++) {
+            List<Card> hand = players.get(i).getHandView();
+            for (int j = 0; j < hand.size(); j++) {
+                out.put((byte) CardCatalog.faceOf(hand.get(j)));
+            }
+        }
+    }
+
+    /**
+     * Makes sure the state of this game fits the fixed-size encoding of {@link #saveState(ByteBuffer)}.
+     *
+     * @throws IllegalStateException if the game has more than four players or a shoe of several decks
+     */
+    private void requireEncodable() {
+        if (players.size() > 4 || shoeDecks != 1 || exhaustionPolicy != ExhaustionPolicy.FAIL) {
+            throw new IllegalStateException("Only standard games with 2 to 4 players and one deck can be encoded");
+        }
+    }
+
+    /**
+     * Decodes a state written by {@link #saveState(ByteBuffer)} into a read-only snapshot.
+     *
+     * @param in the buffer to read from, starting at its current position
+     * @param version the publication version of the state
+     * @return the snapshot
+     */
+    static GameSnapshot readSnapshot(ByteBuffer in, long version) {
+        in.getLong(); // random generator state
+        int round = in.getInt();
+        int playerCount = in.get();
+        int current = in.get();
+        int dir = in.get();
+        int color = in.get();
+        boolean over = (in.get() & 2) != 0;
+        int winner = in.get();
+        int[] scores = new int[playerCount];
+        int[][] hands = new int[playerCount][];
+        for (int i = 0; i < playerCount; i++) {
+            scores[i] = in.getInt();
+            hands[i] = new int[in.get()];
+        }
+        int drawSize = in.get() & 0x7F;
+        int discardSize = in.get();
+        in.position(in.position() + drawSize + discardSize);
+        int topFace = discardSize == 0 ? -1 : in.get(in.position() - 1);
+        for (int[] hand : hands) {
+            for (int j = 0; j < hand.length; j++) {
+                hand[j] = in.get();
+            }
+        }
+        return new GameSnapshot(version, round, current, dir, color < 0 ? null : CardColor.values()[color],
+                over, winner, scores, hands, drawSize, topFace);
+    }
+
+    /**
+     * Replaces the state of this game with a state written by {@link #saveState(ByteBuffer)}.
+     * <p>
+     * Existing players are reused when the player count matches, so references to them stay valid.
+     * </p>
+     *
+     * @param in the buffer to read from, starting at its current position
+     */
+    void restoreState(ByteBuffer in) {
+        random.setState(in.getLong());
+        roundNumber = in.getInt();
+        int playerCount = in.get();
+        currentPlayerIndex = in.get();
+        direction = in.get();
+        int color = in.get();
+        currentColor = color < 0 ? null : CardColor.values()[color];
+        int flags = in.get();
+        roundEnded = (flags & 1) != 0;
+        gameOver = (flags & 2) != 0;
+        int winnerIndex = in.get();
+        // The restored round was not dealt here, so its duration is unknown.
+        roundEvent = null;
+
+        if (players.size() != playerCount) {
+            players.clear();
+            for (int i = 1; i <= playerCount; i++) {
+                addPlayer(new Player("Player " + i, random));
+            }
+        }
+        int[] handSizes = new int[playerCount];
+        for (int i = 0; i < playerCount; i++) {
+            players.get(i).setScore(in.getInt());
+            handSizes[i] = in.get();
+        }
+        gameWinner = winnerIndex < 0 ? null : players.get(winnerIndex);
+        deck = new Deck(random, in);
+        deck.setListener(cardListeners.isEmpty() ? null : dispatcher);
+        for (int i = 0; i < playerCount; i++) {
+            Player p = players.get(i);
+            p.clearHand();
+            for (int j = 0; j < handSizes[i]; j++) {
+                p.addCard(CardCatalog.newCard(in.get()));
+            }
+        }
+    }
+
+    /**
+     * Replaces the state of this game with a recorded turn and publishes it to snapshot readers.
+     *
+     * @param in the buffer holding a state written by {@link #saveState(ByteBuffer)}
+     */
+    void restoreTurn(ByteBuffer in) {
+        restoreState(in);
+        if (publisher != null) {
+            publisher.publish(this);
+        }
+    }
+
+    /**
+     * Creates a game from a state written by {@link #saveState(ByteBuffer)}.
+     *
+     * @param in the buffer to read from, starting at its current position
+     * @return the restored game
+     */
+    static DuoCardGame loadState(ByteBuffer in) {
+        DuoCardGame game = new DuoCardGame(new GameRandom(), 1, ExhaustionPolicy.FAIL);
+        game.restoreState(in);
+        return game;
+    }
 }
@@ -0,0 +1,671 @@
+package com.duocardgame;
+
+/**
+ * Simulates many Duo Card Games at once, keeping the state of every game in parallel primitive arrays.
+ * <p>
+ * Cards are represented by their {@link CardCatalog} face ids, so scores and playability come from the
+ * rules encoded in {@link NumberCard} and {@link ActionCard}. Each game owns a 48-bit linear congruential
+ * generator identical to {@link java.util.Random}, and consumes it in exactly the same order as
+ * {@link DuoCardGame}: a batch game created with seed {@code s} plays out like {@code new DuoCardGame(s)}.
+ * </p>
+ * <p>
+ * {@link #step()} advances every unfinished game by one turn in a single pass over the arrays, which keeps
+ * the working set small and free of object allocation.
+ * </p>
+ * <p>
+ * The batch engine falls well short of its target of ten million turns per second on one core. Measured with
+ * {@link DuoCardGameBatchBenchmark}, it plays about one to two times as many turns per second as
+ * {@link DuoCardGame}, which is 14% to 56% of the target depending on the machine and its load. The
+ * equivalence with {@link DuoCardGame} is checked by {@link DuoCardGameBatchProbe}.
+ * </p>
+ */
+public class DuoCardGameBatch {
+    /** The maximum number of players in a game. */
+    private static final int MAX_PLAYERS = 4;
+
+    /** The number of cards each player is dealt at the start of a round. */
+    private static final int HAND_SIZE = 7;
+
+    /** The score at which a player wins the game. */
+    private static final int WINNING_SCORE = 500;
+
+    /** Multiplier of the {@link java.util.Random} generator. */
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+
+    /** Addend of the {@link java.util.Random} generator. */
+    private static final long ADDEND = 0xBL;
+
+    /** Mask of the 48-bit {@link java.util.Random} state. */
+    private static final long MASK = (1L << 48) - 1;
+
+    /** The action types, cached to avoid copying {@code ActionType.values()}. */
+    private static final ActionType[] ACTIONS = ActionType.values();
+
+    /** The color ordinal of uncolored wild cards. */
+    private static final int WILD = CardColor.WILD.ordinal();
+
+    /** The number of games in the batch. */
+    private final int size;
+
+    /** The random generator state of each game. */
+    private final long[] rng;
+
+    /** The number of players of each game. */
+    private final int[] playerCount;
+
+    /** The index of the current player of each game. */
+    private final int[] currentPlayer;
+
+    /** The direction of play of each game: 1 for forward and -1 for backward. */
+    private final int[] direction;
+
+    /** The current active color ordinal of each game. */
+    private final int[] currentColor;
+
+    /** The round number of each game. */
+    private final int[] roundNumber;
+
+    /** The number of turns played in each game. */
+    private final long[] turns;
+
+    /** The index of the winner of each game, or -1 while the game is running. */
+    private final int[] winner;
+
+    /** The scores of each player, indexed by {@code game * MAX_PLAYERS + player}. */
+    private final int[] scores;
+
+    /** The draw piles, {@link CardCatalog#DECK_SIZE} faces per game with the top card last. */
+    private final byte[] drawPile;
+
+    /** The number of cards in each draw pile. */
+    private final int[] drawSize;
+
+    /** Whether each draw pile must be shuffled before its next card is drawn. */
+    private final boolean[] shufflePending;
+
+    /** The discard piles, {@link CardCatalog#DECK_SIZE} faces per game. */
+    private final byte[] discardPile;
+
+    /** The number of cards in each discard pile. */
+    private final int[] discardSize;
+
+    /** The hands, {@link CardCatalog#DECK_SIZE} faces per player, indexed by {@code game * MAX_PLAYERS + player}. */
+    private final byte[] hands;
+
+    /** The number of cards in each hand, indexed by {@code game * MAX_PLAYERS + player}. */
+    private final int[] handSize;
+
+    /** Scratch buffer for the faces of a standard deck and for shuffling hands. */
+    private final int[] scratch = new int[CardCatalog.DECK_SIZE];
+
+    /** Scratch buffer for the hand positions of different-colored playable cards. */
+    private final int[] diffColored = new int[CardCatalog.DECK_SIZE];
+
+    /** Scratch buffer for the hand positions of wild playable cards. */
+    private final int[] wildCards = new int[CardCatalog.DECK_SIZE];
+
+    /** Scratch buffer for colors tied for the highest count. */
+    private final int[] bestColors = new int[4];
+
+    /** The number of games that are not over yet. */
+    private int activeGames;
+
+    /**
+     * Constructs a batch with one game per seed and starts every game.
+     *
+     * @param seeds the seeds of the games; game {@code i} behaves like {@code new DuoCardGame(seeds[i])}
+     */
+    public DuoCardGameBatch(long[] seeds) {
+        size = seeds.length;
+        rng = new long[size];
+        playerCount = new int[size];
+        currentPlayer = new int[size];
+        direction = new int[size];
+        currentColor = new int[size];
+        roundNumber = new int[size];
+        turns = new long[size];
+        winner = new int[size];
+        scores = new int[size * MAX_PLAYERS];
+        drawPile = new byte[size * CardCatalog.DECK_SIZE];
+        drawSize = new int[size];
+        shufflePending = new boolean[size];
+        discardPile = new byte[size * CardCatalog.DECK_SIZE];
+        discardSize = new int[size];
+        hands = new byte[size * MAX_PLAYERS * CardCatalog.DECK_SIZE];
+        handSize = new int[size * MAX_PLAYERS];
+
+        for (int g = 0; g < size; g++) {
+            rng[g] = (seeds[g] ^ MULTIPLIER) & MASK;
+            direction[g] = 1;
+            roundNumber[g] = 1;
+            winner[g] = -1;
+            newDeck(g);
+            playerCount[g] = 2 + nextInt(g, 3);
+            startRound(g);
+        }
+        activeGames = size;
+    }
+
+    /**
+     * Plays one turn in every game that is not over yet.
+     * <p>
+     * A turn that empties a hand also scores the round and, unless the game is over, deals the next round.
+     * </p>
+     *
+     * @return the number of games that are still running after this step
+     */
+    public int step() {
+        for (int g = 0; g < size; g++) {
+            if (winner[g] < 0) {
+                playTurn(g);
+            }
+        }
+        return activeGames;
+    }
+
+    /**
+     * Plays every game of the batch to completion.
+     */
+    public void playAll() {
+        while (step() > 0) {
+            // keep stepping until all games are over
+        }
+    }
+
+    /**
+     * Returns the number of games in the batch.
+     *
+     * @return the batch size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the given game is over.
+     *
+     * @param game the index of the game
+     * @return {@code true} if the game is over; {@code false} otherwise
+     */
+    public boolean isGameOver(int game) {
+        return winner[game] >= 0;
+    }
+
+    /**
+     * Returns the index of the winner of the given game.
+     *
+     * @param game the index of the game
+     * @return the index of the winning player, or -1 if the game is not over
+     */
+    public int getWinner(int game) {
+        return winner[game];
+    }
+
+    /**
+     * Returns the number of players of the given game.
+     *
+     * @param game the index of the game
+     * @return the number of players
+     */
+    public int getPlayerCount(int game) {
+        return playerCount[game];
+    }
+
+    /**
+     * Returns the score of a player of the given game.
+     *
+     * @param game the index of the game
+     * @param player the index of the player
+     * @return the player's score
+     */
+    public int getScore(int game, int player) {
+        return scores[game * MAX_PLAYERS + player];
+    }
+
+    /**
+     * Returns the round number of the given game, matching {@link DuoCardGame#getRoundNumber()}.
+     *
+     * @param game the index of the game
+     * @return the round number
+     */
+    public int getRoundNumber(int game) {
+        return roundNumber[game];
+    }
+
+    /**
+     * Returns the number of turns played in the given game.
+     *
+     * @param game the index of the game
+     * @return the number of turns
+     */
+    public long getTurnCount(int game) {
+        return turns[game];
+    }
+
+    /**
+     * Plays one turn of the given game, mirroring the loop body of {@link DuoCardGame#playRound()}.
+     *
+     * @param g the index of the game
+     */
+    private void playTurn(int g) {
+        turns[g]++;
+        int player = currentPlayer[g];
+        int top = discardPile[g * CardCatalog.DECK_SIZE + discardSize[g] - 1];
+        int position = choosePlayableCard(g, player, top);
+        if (position >= 0) {
+            playCard(g, removeFromHand(g, player, position));
+        } else {
+            int drawn = drawCard(g);
+            addToHand(g, player, drawn);
+            if (CardCatalog.isPlayable(drawn, top)) {
+                playCard(g, removeFromHand(g, player, handSize[g * MAX_PLAYERS + player] - 1));
+            }
+        }
+
+        if (handSize[g * MAX_PLAYERS + player] == 0) {
+            endRound(g, player);
+        } else {
+            moveToNextPlayer(g);
+        }
+    }
+
+    /**
+     * Puts a card on the discard pile, makes its color current and executes its effect.
+     *
+     * @param g the index of the game
+     * @param face the face of the played card
+     */
+    private void playCard(int g, int face) {
+        discardPile[g * CardCatalog.DECK_SIZE + discardSize[g]++] = (byte) face;
+        currentColor[g] = CardCatalog.color(face);
+        executeEffect(g, face);
+    }
+
+    /**
+     * Executes the effect of the card on top of the discard pile, mirroring {@link Card#executeEffect(IGameMediator)}.
+     *
+     * @param g the index of the game
+     * @param face the face of the card
+     */
+    private void executeEffect(int g, int face) {
+        int kind = CardCatalog.kind(face);
+        if (kind == CardCatalog.KIND_NUMBER) {
+            return;
+        }
+        switch (ACTIONS[kind - 1]) {
+            case DRAW_TWO:
+                moveToNextPlayer(g);
+                drawInto(g, currentPlayer[g], 2);
+                break;
+            case REVERSE:
+                direction[g] = -direction[g];
+                break;
+            case SKIP:
+                moveToNextPlayer(g);
+                break;
+            case WILD:
+                recolorTop(g, chooseColor(g, currentPlayer[g]));
+                break;
+            case WILD_DRAW_FOUR:
+                recolorTop(g, chooseColor(g, currentPlayer[g]));
+                moveToNextPlayer(g);
+                drawInto(g, currentPlayer[g], 4);
+                break;
+            case SHUFFLE_HANDS:
+                shuffleHands(g);
+                recolorTop(g, chooseColor(g, currentPlayer[g]));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Sets the current color and recolors the wild card on top of the discard pile.
+     *
+     * @param g the index of the game
+     * @param color the chosen color ordinal
+     */
+    private void recolorTop(int g, int color) {
+        int index = g * CardCatalog.DECK_SIZE + discardSize[g] - 1;
+        discardPile[index] = (byte) CardCatalog.recolor(discardPile[index], color);
+        currentColor[g] = color;
+    }
+
+    /**
+     * Scores a finished round, checks for the end of the game and deals the next round if needed.
+     *
+     * @param g the index of the game
+     * @param roundWinner the index of the player who emptied their hand
+     */
+    private void endRound(int g, int roundWinner) {
+        int roundScore = 0;
+        for (int p = 0; p < playerCount[g]; p++) {
+            if (p == roundWinner) continue;
+            int base = (g * MAX_PLAYERS + p) * CardCatalog.DECK_SIZE;
+            for (int i = 0, n = handSize[g * MAX_PLAYERS + p]; i < n; i++) {
+                roundScore += CardCatalog.score(hands[base + i]);
+            }
+        }
+        scores[g * MAX_PLAYERS + roundWinner] += roundScore;
+        roundNumber[g]++;
+        for (int p = 0; p < playerCount[g]; p++) {
+            if (scores[g * MAX_PLAYERS + p] >= WINNING_SCORE) {
+                winner[g] = p;
+                activeGames--;
+                return;
+            }
+        }
+        newDeck(g);
+        for (int p = 0; p < playerCount[g]; p++) {
+            handSize[g * MAX_PLAYERS + p] = 0;
+        }
+        startRound(g);
+    }
+
+    /**
+     * Replaces the piles of a game with a standard deck to be shuffled before the first draw,
+     * like {@code new Deck(random)}.
+     *
+     * @param g the index of the game
+     */
+    private void newDeck(int g) {
+        CardCatalog.copyStandardDeck(scratch, 0);
+        int base = g * CardCatalog.DECK_SIZE;
+        for (int i = 0; i < CardCatalog.DECK_SIZE; i++) {
+            drawPile[base + i] = (byte) scratch[i];
+        }
+        drawSize[g] = CardCatalog.DECK_SIZE;
+        discardSize[g] = 0;
+        shufflePending[g] = true;
+    }
+
+    /**
+     * Selects the dealer, deals the hands and turns up the starting card, mirroring {@link DuoCardGame#startGame()}.
+     *
+     * @param g the index of the game
+     */
+    private void startRound(int g) {
+        int dealer = 0;
+        int highest = -1;
+        for (int p = 0; p < playerCount[g]; p++) {
+            int drawn = drawCard(g);
+            if (CardCatalog.score(drawn) > highest) {
+                highest = CardCatalog.score(drawn);
+                dealer = p;
+            }
+            int base = g * CardCatalog.DECK_SIZE;
+            System.arraycopy(drawPile, base, drawPile, base + 1, drawSize[g]++);
+            drawPile[base] = (byte) drawn;
+        }
+        for (int p = 0; p < playerCount[g]; p++) {
+            drawInto(g, p, HAND_SIZE);
+        }
+        currentPlayer[g] = (dealer + 1) % playerCount[g];
+        int starting = drawCard(g);
+        discardPile[g * CardCatalog.DECK_SIZE + discardSize[g]++] = (byte) starting;
+        currentColor[g] = CardCatalog.color(starting);
+        executeEffect(g, starting);
+    }
+
+    /**
+     * Chooses a playable card from a hand, mirroring {@link Player#choosePlayableCard(Card)}.
+     *
+     * @param g the index of the game
+     * @param player the index of the player
+     * @param top the face on top of the discard pile
+     * @return the position of the chosen card in the hand, or -1 if no card is playable
+     */
+    private int choosePlayableCard(int g, int player, int top) {
+        int base = (g * MAX_PLAYERS + player) * CardCatalog.DECK_SIZE;
+        int n = handSize[g * MAX_PLAYERS + player];
+        int topColor = CardCatalog.color(top);
+        int bestSame = -1;
+        int bestSameScore = -1;
+        int diffCount = 0;
+        int wildCount = 0;
+        for (int i = 0; i < n; i++) {
+            int face = hands[base + i];
+            if (!CardCatalog.isPlayable(face, top)) continue;
+            int color = CardCatalog.color(face);
+            if (color == WILD) {
+                wildCards[wildCount++] = i;
+            } else if (color == topColor) {
+                if (CardCatalog.score(face) > bestSameScore) {
+                    bestSameScore = CardCatalog.score(face);
+                    bestSame = i;
+                }
+            } else {
+                diffColored[diffCount++] = i;
+            }
+        }
+
+        boolean prioritizeSameColor = next(g, 1) != 0;
+        if (prioritizeSameColor && bestSame >= 0) {
+            return bestSame;
+        }
+        if (diffCount > 0) {
+            return diffColored[nextInt(g, diffCount)];
+        }
+        if (bestSame >= 0) {
+            return bestSame;
+        }
+        if (wildCount > 0) {
+            return wildCards[nextInt(g, wildCount)];
+        }
+        return -1;
+    }
+
+    /**
+     * Chooses the most common non-wild color of a hand, mirroring {@link Player#chooseColor()}.
+     *
+     * @param g the index of the game
+     * @param player the index of the player
+     * @return the chosen color ordinal
+     */
+    private int chooseColor(int g, int player) {
+        int base = (g * MAX_PLAYERS + player) * CardCatalog.DECK_SIZE;
+        int blue = 0;
+        int green = 0;
+        int red = 0;
+        int yellow = 0;
+        for (int i = 0, n = handSize[g * MAX_PLAYERS + player]; i < n; i++) {
+            switch (CardCatalog.color(hands[base + i])) {
+                case 0: blue++; break;
+                case 1: green++; break;
+                case 2: red++; break;
+                case 3: yellow++; break;
+                default: break;
+            }
+        }
+        int max = Math.max(Math.max(blue, green), Math.max(red, yellow));
+        int ties = 0;
+        if (blue == max) bestColors[ties++] = 0;
+        if (green == max) bestColors[ties++] = 1;
+        if (red == max) bestColors[ties++] = 2;
+        if (yellow == max) bestColors[ties++] = 3;
+        return bestColors[nextInt(g, ties)];
+    }
+
+    /**
+     * Pools all hands of a game, shuffles them and deals them back round-robin, mirroring
+     * {@link DuoCardGame#shuffleHands()}.
+     *
+     * @param g the index of the game
+     */
+    private void shuffleHands(int g) {
+        int total = 0;
+        for (int p = 0; p < playerCount[g]; p++) {
+            int base = (g * MAX_PLAYERS + p) * CardCatalog.DECK_SIZE;
+            for (int i = 0, n = handSize[g * MAX_PLAYERS + p]; i < n; i++) {
+                scratch[total++] = hands[base + i];
+            }
+            handSize[g * MAX_PLAYERS + p] = 0;
+        }
+        for (int i = total; i > 1; i--) {
+            int j = nextInt(g, i);
+            int tmp = scratch[i - 1];
+            scratch[i - 1] = scratch[j];
+            scratch[j] = tmp;
+        }
+        for (int i = 0; i < total; i++) {
+            addToHand(g, i % playerCount[g], scratch[i]);
+        }
+    }
+
+    /**
+     * Advances to the next player in the current direction.
+     *
+     * @param g the index of the game
+     */
+    private void moveToNextPlayer(int g) {
+        currentPlayer[g] = (currentPlayer[g] + direction[g] + playerCount[g]) % playerCount[g];
+    }
+
+    /**
+     * Moves cards from the top of the draw pile into a player's hand in blocks, mirroring
+     * {@link Deck#drawCards(Player, int)}.
+     *
+     * @param g the index of the game
+     * @param player the index of the player
+     * @param count the number of cards to move
+     */
+    private void drawInto(int g, int player, int count) {
+        while (count > 0) {
+            if (drawSize[g] == 0) {
+                reshuffle(g);
+                if (drawSize[g] == 0) {
+                    throw new IllegalStateException("Game " + g + " ran out of cards to draw");
+                }
+            }
+            shuffleIfPending(g);
+            int n = Math.min(count, drawSize[g]);
+            int from = g * CardCatalog.DECK_SIZE + drawSize[g] - n;
+            for (int i = 0; i < n; i++) {
+                addToHand(g, player, drawPile[from + i]);
+            }
+            drawSize[g] -= n;
+            count -= n;
+        }
+    }
+
+    /**
+     * Appends a card to a player's hand.
+     *
+     * @param g the index of the game
+     * @param player the index of the player
+     * @param face the face of the card
+     */
+    private void addToHand(int g, int player, int face) {
+        int slot = g * MAX_PLAYERS + player;
+        hands[slot * CardCatalog.DECK_SIZE + handSize[slot]++] = (byte) face;
+    }
+
+    /**
+     * Removes the card at the given position of a player's hand, keeping the order of the other cards.
+     *
+     * @param g the index of the game
+     * @param player the index of the player
+     * @param position the position of the card in the hand
+     * @return the face of the removed card
+     */
+    private int removeFromHand(int g, int player, int position) {
+        int slot = g * MAX_PLAYERS + player;
+        int base = slot * CardCatalog.DECK_SIZE;
+        int face = hands[base + position];
+        int last = --handSize[slot];
+        System.arraycopy(hands, base + position + 1, hands, base + position, last - position);
+        return face;
+    }
+
+    /**
+     * Draws the top card of the draw pile, refilling it from the discard pile when empty,
+     * mirroring {@link Deck#drawCard()}.
+     *
+     * @param g the index of the game
+     * @return the face of the drawn card
+     * @throws IllegalStateException if both the draw pile and the reusable discard pile are empty
+     */
+    private int drawCard(int g) {
+        if (drawSize[g] == 0) {
+            reshuffle(g);
+            if (drawSize[g] == 0) {
+                throw new IllegalStateException("Game " + g + " ran out of cards to draw");
+            }
+        }
+        shuffleIfPending(g);
+        return drawPile[g * CardCatalog.DECK_SIZE + --drawSize[g]];
+    }
+
+    /**
+     * Moves all discarded cards except the top one into the draw pile and marks it for shuffling,
+     * mirroring {@link Deck#reshuffle()}.
+     *
+     * @param g the index of the game
+     */
+    private void reshuffle(int g) {
+        int discardBase = g * CardCatalog.DECK_SIZE;
+        int count = discardSize[g] - 1;
+        if (count < 1) {
+            return;
+        }
+        System.arraycopy(discardPile, discardBase, drawPile, g * CardCatalog.DECK_SIZE + drawSize[g], count);
+        drawSize[g] += count;
+        discardPile[discardBase] = discardPile[discardBase + count];
+        discardSize[g] = 1;
+        shufflePending[g] = true;
+    }
+
+    /**
+     * Performs a pending shuffle of a draw pile with the same swap sequence as
+     * {@link java.util.Collections#shuffle(java.util.List, java.util.Random)}.
+     *
+     * @param g the index of the game
+     */
+    private void shuffleIfPending(int g) {
+        if (!shufflePending[g]) {
+            return;
+        }
+        shufflePending[g] = false;
+        int base = g * CardCatalog.DECK_SIZE;
+        for (int i = drawSize[g]; i > 1; i--) {
+            int a = base + i - 1;
+            int b = base + nextInt(g, i);
+            byte tmp = drawPile[a];
+            drawPile[a] = drawPile[b];
+            drawPile[b] = tmp;
+        }
+    }
+
+    /**
+     * Advances the generator of a game and returns its next pseudorandom bits, like {@code Random.next(int)}.
+     *
+     * @param g the index of the game
+     * @param bits the number of random bits
+     * @return the next pseudorandom value
+     */
+    private int next(int g, int bits) {
+        long seed = (rng[g] * MULTIPLIER + ADDEND) & MASK;
+        rng[g] = seed;
+        return (int) (seed >>> (48 - bits));
+    }
+
+    /**
+     * Returns a pseudorandom value between 0 (inclusive) and the bound (exclusive), like {@code Random.nextInt(int)}.
+     *
+     * @param g the index of the game
+     * @param bound the upper bound, must be positive
+     * @return the next pseudorandom value
+     */
+    private int nextInt(int g, int bound) {
+        int r = next(g, 31);
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return (int) ((bound * (long) r) >> 31);
+        }
+        for (int u = r; u - (r = u % bound) + m < 0; u = next(g, 31)) {
+            // reject values from the incomplete last interval
+        }
+        return r;
+    }
+}
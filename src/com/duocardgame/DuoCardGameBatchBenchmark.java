@@ -0,0 +1,95 @@
+package com.duocardgame;
+
+import java.util.*;
+
+/**
+ * Measures the turns per second of {@link DuoCardGameBatch} against {@link DuoCardGame} on the same seeds.
+ * <p>
+ * Both engines play the same completable seeds, after a warm-up round of each, on the calling thread.
+ * The object engine plays one game after another; the batch engine plays the seeds in batches of the
+ * given size. The tool prints the turns per second of each engine, the speedup and how far the batch
+ * engine is from its target of {@value #TARGET_TURNS_PER_SECOND} turns per second on one core.
+ * </p>
+ * <p>
+ * Usage: {@code DuoCardGameBatchBenchmark [games] [batchSize] [repetitions]}
+ * </p>
+ */
+public class DuoCardGameBatchBenchmark {
+    /** The turns per second the batch engine aims for on one core. */
+    static final long TARGET_TURNS_PER_SECOND = 10_000_000;
+
+    /**
+     * Prevents instantiation of this class.
+     */
+    private DuoCardGameBatchBenchmark() {
+    }
+
+    /**
+     * Plays the seeds with the object engine.
+     *
+     * @param seeds the seeds
+     * @return the number of turns played
+     */
+    private static long playObjects(long[] seeds) {
+        long turns = 0;
+        for (long seed : seeds) {
+            DuoCardGame game = new DuoCardGame(seed);
+            game.setVerbose(false);
+            game.setLogger(null);
+            game.startGame();
+            while (!game.isGameOver()) {
+                game.playTurn();
+                turns++;
+            }
+        }
+        return turns;
+    }
+
+    /**
+     * Plays the seeds with the batch engine.
+     *
+     * @param seeds the seeds
+     * @param batchSize the number of games per batch
+     * @return the number of turns played
+     */
+    private static long playBatches(long[] seeds, int batchSize) {
+        long turns = 0;
+        for (int start = 0; start < seeds.length; start += batchSize) {
+            DuoCardGameBatch batch = new DuoCardGameBatch(
+                    Arrays.copyOfRange(seeds, start, Math.min(seeds.length, start + batchSize)));
+            batch.playAll();
+            for (int i = 0; i < batch.size(); i++) {
+                turns += batch.getTurnCount(i);
+            }
+        }
+        return turns;
+    }
+
+    /**
+     * Runs the benchmark and prints the throughput of both engines.
+     *
+     * @param args optional number of games, batch size and number of timed repetitions
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        int repetitions = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        long[] seeds = DuoCardGameBatchProbe.completableSeeds(1, games);
+        playObjects(seeds);
+        playBatches(seeds, batchSize);
+
+        double best = 0, bestObjects = 0;
+        for (int r = 0; r < repetitions; r++) {
+            long start = System.nanoTime();
+            long turns = playObjects(seeds);
+            bestObjects = Math.max(bestObjects, turns / ((System.nanoTime() - start) / 1e9));
+            start = System.nanoTime();
+            turns = playBatches(seeds, batchSize);
+            best = Math.max(best, turns / ((System.nanoTime() - start) / 1e9));
+        }
+        System.out.printf("%d games, batches of %d, best of %d%n", games, batchSize, repetitions);
+        System.out.printf("object engine: %12.0f turns/s%n", bestObjects);
+        System.out.printf("batch engine:  %12.0f turns/s, %.2fx the object engine, %.0f%% of the %d turns/s target%n",
+                best, best / bestObjects, 100 * best / TARGET_TURNS_PER_SECOND, TARGET_TURNS_PER_SECOND);
+    }
+}
@@ -0,0 +1,126 @@
+package com.duocardgame;
+
+import java.util.*;
+
+/**
+ * Checks that {@link DuoCardGameBatch} plays every seeded game exactly like {@link DuoCardGame}.
+ * <p>
+ * Each seed is played to the end by the object engine, counting its turns, and then by the batch engine
+ * together with the other seeds of its batch. The winner, the number of players, the round number, every
+ * score and the number of turns must be identical. Seeds whose game runs out of cards are skipped, since
+ * the batch engine cannot abort a single game. The first mismatch is printed and the process exits with
+ * status 1, so the probe can run as a build step.
+ * </p>
+ * <p>
+ * Usage: {@code DuoCardGameBatchProbe [games] [batchSize] [firstSeed]}
+ * </p>
+ */
+public class DuoCardGameBatchProbe {
+    /**
+     * Prevents instantiation of this class.
+     */
+    private DuoCardGameBatchProbe() {
+    }
+
+    /**
+     * Returns the seeds, counting up from the first one, whose games can be played to the end.
+     *
+     * @param firstSeed the first seed to try
+     * @param count the number of seeds wanted
+     * @return the seeds
+     */
+    static long[] completableSeeds(long firstSeed, int count) {
+        long[] seeds = new long[count];
+        long seed = firstSeed;
+        for (int found = 0; found < count; seed++) {
+            if (play(seed) != null) {
+                seeds[found++] = seed;
+            }
+        }
+        return seeds;
+    }
+
+    /**
+     * Plays a seeded game with the object engine.
+     *
+     * @param seed the seed of the game
+     * @return the finished game and its turn count as {game, turns}, or {@code null} if it ran out of cards
+     */
+    private static Object[] play(long seed) {
+        DuoCardGame game = new DuoCardGame(seed);
+        game.setVerbose(false);
+        game.setLogger(null);
+        long turns = 0;
+        try {
+            game.startGame();
+            while (!game.isGameOver()) {
+                game.playTurn();
+                turns++;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            // Both piles ran out of cards; the game cannot continue.
+            return null;
+        }
+        return new Object[] { game, turns };
+    }
+
+    /**
+     * Compares one game of a finished batch with the object engine.
+     *
+     * @param batch the finished batch
+     * @param index the index of the game in the batch
+     * @param seed the seed of the game
+     * @return a description of the first difference, or {@code null} if the games are identical
+     */
+    static String compare(DuoCardGameBatch batch, int index, long seed) {
+        Object[] played = play(seed);
+        DuoCardGame game = (DuoCardGame) played[0];
+        long turns = (Long) played[1];
+        int players = game.getPlayers().size();
+        if (batch.getPlayerCount(index) != players) {
+            return "players " + batch.getPlayerCount(index) + ", expected " + players;
+        }
+        int winner = game.getPlayers().indexOf(game.getWinner());
+        if (batch.getWinner(index) != winner) {
+            return "winner " + batch.getWinner(index) + ", expected " + winner;
+        }
+        if (batch.getRoundNumber(index) != game.getRoundNumber()) {
+            return "round " + batch.getRoundNumber(index) + ", expected " + game.getRoundNumber();
+        }
+        for (int p = 0; p < players; p++) {
+            int score = game.getPlayers().get(p).getScore();
+            if (batch.getScore(index, p) != score) {
+                return "score of player " + p + " " + batch.getScore(index, p) + ", expected " + score;
+            }
+        }
+        if (batch.getTurnCount(index) != turns) {
+            return "turns " + batch.getTurnCount(index) + ", expected " + turns;
+        }
+        return null;
+    }
+
+    /**
+     * Runs the comparison and exits with status 1 at the first mismatch.
+     *
+     * @param args optional number of games, batch size and first seed
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        long firstSeed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        long[] seeds = completableSeeds(firstSeed, games);
+        for (int start = 0; start < games; start += batchSize) {
+            long[] block = Arrays.copyOfRange(seeds, start, Math.min(games, start + batchSize));
+            DuoCardGameBatch batch = new DuoCardGameBatch(block);
+            batch.playAll();
+            for (int i = 0; i < block.length; i++) {
+                String mismatch = compare(batch, i, block[i]);
+                if (mismatch != null) {
+                    System.out.println("MISMATCH seed " + block[i] + ": " + mismatch);
+                    System.exit(1);
+                }
+            }
+        }
+        System.out.printf("%d games from seed %d identical in both engines%n", games, firstSeed);
+    }
+}
@@ -0,0 +1,653 @@
+package com.duocardgame;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Searches the end of a two-player round exactly, for {@link EndgameStrategy}.
+ * <p>
+ * A position is both hands, the composition of the draw pile, the top card and the side to move. Cards are
+ * counted per uncolored {@link CardCatalog} face, since a wild card's old color does not matter in hand.
+ * Players choose cards and colors at decision nodes, searched as negamax with alpha-beta pruning; draws
+ * are chance nodes weighted by the draw pile composition. The value of a position is the expected round score
+ * for the side to move: the opponent's hand score when the round is won, minus the own hand score when it
+ * is lost. Positions are keyed by Zobrist hashing and cached in a shared {@link TranspositionTable}.
+ * </p>
+ * <p>
+ * The search deepens iteratively until it is exact or the node or time budget runs out. Positions it does
+ * not model (a played {@code SHUFFLE_HANDS}, an empty draw pile that would be reshuffled, the depth
+ * horizon) are estimated from the hand sizes and scores. A solver is used by one thread at a time.
+ * </p>
+ */
+final class EndgameSolver {
+    /** The move that draws a card instead of playing one. */
+    static final int DRAW = -1;
+
+    /** Returned when no search iteration completed within the budget. */
+    static final int NO_MOVE = -2;
+
+    /** The highest count of one uncolored face in a standard deck, plus one. */
+    private static final int COUNTS = 5;
+
+    /** The deepest iteration of the search. */
+    private static final int MAX_DEPTH = 100;
+
+    /** The depth stored for positions searched to the end of the round. */
+    private static final int SOLVED_DEPTH = 127;
+
+    /** Larger than any round score. */
+    private static final float INFINITY = 1e9f;
+
+    /** The first face of the wild action cards. */
+    private static final int FIRST_WILD_FACE = CardCatalog.recolor(
+            CardCatalog.faceOf(new ActionCard(CardColor.WILD, ActionType.WILD)), CardColor.BLUE.ordinal());
+
+    /** The kind of {@code DRAW_TWO} cards. */
+    private static final int DRAW_TWO = 1 + ActionType.DRAW_TWO.ordinal();
+
+    /** The kind of {@code SKIP} cards. */
+    private static final int SKIP = 1 + ActionType.SKIP.ordinal();
+
+    /** The kind of {@code WILD} cards. */
+    private static final int WILD = 1 + ActionType.WILD.ordinal();
+
+    /** The kind of {@code WILD_DRAW_FOUR} cards. */
+    private static final int WILD_DRAW_FOUR = 1 + ActionType.WILD_DRAW_FOUR.ordinal();
+
+    /** The kind of {@code SHUFFLE_HANDS} cards. */
+    private static final int SHUFFLE_HANDS = 1 + ActionType.SHUFFLE_HANDS.ordinal();
+
+    /** Zobrist keys of each side holding a number of copies of a face. */
+    private static final long[][][] HAND_KEYS = new long[2][CardCatalog.FACE_COUNT][COUNTS];
+
+    /** Zobrist keys of the draw pile holding a number of copies of a face. */
+    private static final long[][] DRAW_KEYS = new long[CardCatalog.FACE_COUNT][COUNTS];
+
+    /** Zobrist keys of the top card. */
+    private static final long[] TOP_KEYS = new long[CardCatalog.FACE_COUNT];
+
+    /** Zobrist key of the second side being to move. */
+    private static final long SIDE_KEY;
+
+    /** Thrown to abandon a search iteration once the budget is spent. */
+    private static final RuntimeException OUT_OF_BUDGET = new RuntimeException("Search budget exhausted", null, false, false) {
+        private static final long serialVersionUID = 1L;
+    };
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED);
+        for (int face = 0; face < CardCatalog.FACE_COUNT; face++) {
+            for (int count = 0; count < COUNTS; count++) {
+                HAND_KEYS[0][face][count] = random.nextLong();
+                HAND_KEYS[1][face][count] = random.nextLong();
+                DRAW_KEYS[face][count] = random.nextLong();
+            }
+            TOP_KEYS[face] = random.nextLong();
+        }
+        SIDE_KEY = random.nextLong();
+    }
+
+    /** The shared table of searched positions. */
+    private final TranspositionTable table;
+
+    /** The number of copies of each face in each hand; side 0 is the solving player. */
+    private final int[][] hands = new int[2][CardCatalog.FACE_COUNT];
+
+    /** The number of cards in each hand. */
+    private final int[] sizes = new int[2];
+
+    /** The total score of each hand. */
+    private final int[] scores = new int[2];
+
+    /** The number of copies of each face in the draw pile. */
+    private final int[] draw = new int[CardCatalog.FACE_COUNT];
+
+    /** The number of cards in the draw pile. */
+    private int drawTotal;
+
+    /** The total score of the draw pile. */
+    private int drawScore;
+
+    /** The face on top of the discard pile, with its chosen color. */
+    private int top;
+
+    /** The side to move. */
+    private int toMove;
+
+    /** The Zobrist key of the position. */
+    private long key;
+
+    /** The number of nodes visited in the current search. */
+    private long nodes;
+
+    /** The node budget of the current search. */
+    private long maxNodes;
+
+    /** The time budget of the current search, from {@link System#nanoTime()}. */
+    private long deadline;
+
+    /** Whether the current iteration estimated any position instead of searching it to the end. */
+    private boolean estimated;
+
+    /** The best move of the last root search. */
+    private int rootMove;
+
+    /**
+     * Constructs a solver that caches positions in the given table.
+     *
+     * @param table the shared table of searched positions
+     */
+    EndgameSolver(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Loads the position of a player's game, with the player to move.
+     *
+     * @param player the solving player
+     * @param maxHandCards the largest total number of cards in both hands the solver takes on
+     * @return {@code true} if the position was loaded; {@code false} if the game is not a small enough
+     *         two-player endgame
+     */
+    boolean load(Player player, int maxHandCards) {
+        DuoCardGame game = player.getGame();
+        if (game == null) return false;
+        List<Player> players = game.getPlayers();
+        if (players.size() != 2) return false;
+        Player opponent = players.get(0) == player ? players.get(1) : players.get(0);
+        if (player.getHandSize() + opponent.getHandSize() > maxHandCards) return false;
+        Card topCard = game.getTopCard();
+        if (topCard == null) return false;
+
+        for (int side = 0; side < 2; side++) {
+            java.util.Arrays.fill(hands[side], 0);
+            sizes[side] = 0;
+            scores[side] = 0;
+            List<Card> hand = (side == 0 ? player : opponent).getHandView();
+            for (int i = 0; i < hand.size(); i++) {
+                int face = CardCatalog.uncolored(CardCatalog.faceOf(hand.get(i)));
+                hands[side][face]++;
+                sizes[side]++;
+                scores[side] += CardCatalog.score(face);
+            }
+        }
+        java.util.Arrays.fill(draw, 0);
+        game.countDrawPile(draw);
+        drawTotal = game.getDrawPileSize();
+        drawScore = 0;
+        top = CardCatalog.faceOf(topCard);
+        toMove = 0;
+
+        key = TOP_KEYS[top];
+        for (int face = 0; face < CardCatalog.FACE_COUNT; face++) {
+            if (hands[0][face] >= COUNTS || hands[1][face] >= COUNTS || draw[face] >= COUNTS) return false;
+            key ^= HAND_KEYS[0][face][hands[0][face]] ^ HAND_KEYS[1][face][hands[1][face]] ^ DRAW_KEYS[face][draw[face]];
+            drawScore += draw[face] * CardCatalog.score(face);
+        }
+        return true;
+    }
+
+    /**
+     * Finds the best move of the loaded position.
+     * <p>
+     * The preferred move is searched first and kept unless another move is strictly better, so the
+     * solver only overrides it where the search can tell the moves apart.
+     * </p>
+     *
+     * @param preferredFace the uncolored face of the preferred card, or {@link #DRAW}
+     * @param timeNanos the time budget
+     * @param nodeBudget the node budget
+     * @return the top face after the best card is played (which includes the color of a wild card),
+     *         {@link #DRAW}, or {@link #NO_MOVE} if the budget ran out before the first iteration completed
+     */
+    int solveMove(int preferredFace, long timeNanos, long nodeBudget) {
+        return deepen(preferredFace, -1, timeNanos, nodeBudget);
+    }
+
+    /**
+     * Finds the best color for the wild card on top of the loaded position, which the player to move has
+     * just played.
+     *
+     * @param preferredColor the ordinal of the preferred color, kept unless another color is strictly better
+     * @param timeNanos the time budget
+     * @param nodeBudget the node budget
+     * @return the best color ordinal, or {@link #NO_MOVE} if the budget ran out before the first iteration
+     *         completed
+     */
+    int solveColor(int preferredColor, long timeNanos, long nodeBudget) {
+        int move = deepen(preferredColor, CardCatalog.uncolored(top), timeNanos, nodeBudget);
+        return move < 0 ? move : CardCatalog.color(move);
+    }
+
+    /**
+     * Deepens the root search until it is exact or the budget runs out.
+     *
+     * @param preferred the preferred move or color
+     * @param wildFace the uncolored face of a just played wild card to choose a color for, or -1 to choose a move
+     * @param timeNanos the time budget
+     * @param nodeBudget the node budget
+     * @return the best move of the deepest completed iteration, or {@link #NO_MOVE}
+     */
+    private int deepen(int preferred, int wildFace, long timeNanos, long nodeBudget) {
+        table.newSearch();
+        nodes = 0;
+        maxNodes = nodeBudget;
+        deadline = System.nanoTime() + timeNanos;
+        int best = NO_MOVE;
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            estimated = false;
+            try {
+                if (wildFace < 0) {
+                    searchRoot(preferred, depth);
+                } else {
+                    colorRoot(wildFace, preferred, depth);
+                }
+            } catch (RuntimeException e) {
+                if (e != OUT_OF_BUDGET) throw e;
+                break;
+            }
+            best = rootMove;
+            if (!estimated) break;
+        }
+        return best;
+    }
+
+    /**
+     * Searches every move of the side to move at the root, the preferred one first.
+     *
+     * @param preferredFace the uncolored face of the preferred card, or {@link #DRAW}
+     * @param depth the remaining depth
+     */
+    private void searchRoot(int preferredFace, int depth) {
+        float best = rootFace(preferredFace, depth, -INFINITY);
+        for (int face = 0; face < CardCatalog.FACE_COUNT; face++) {
+            if (face != preferredFace && hands[0][face] > 0 && CardCatalog.isPlayable(face, top)) {
+                best = rootFace(face, depth, best);
+            }
+        }
+        if (preferredFace != DRAW) {
+            rootFace(DRAW, depth, best);
+        }
+    }
+
+    /**
+     * Searches the root moves of one card, in every color for a wild card, and records a move that beats
+     * the best so far.
+     *
+     * @param face the uncolored face of the card, or {@link #DRAW}
+     * @param depth the remaining depth
+     * @param best the value of the best move so far
+     * @return the value of the best move including those of this card
+     */
+    private float rootFace(int face, int depth, float best) {
+        if (face == DRAW) {
+            float value = drawCard(depth);
+            if (value > best) {
+                best = value;
+                rootMove = DRAW;
+            }
+            return best;
+        }
+        int colors = colorChoices(face);
+        for (int color = 0; color < colors; color++) {
+            int newTop = colors == 1 ? face : CardCatalog.recolor(face, color);
+            float value = play(face, newTop, depth, best, INFINITY);
+            if (value > best) {
+                best = value;
+                rootMove = newTop;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Searches every color for a wild card the side to move has just played, the preferred one first.
+     *
+     * @param wildFace the uncolored face of the wild card
+     * @param preferredColor the ordinal of the preferred color
+     * @param depth the remaining depth
+     */
+    private void colorRoot(int wildFace, int preferredColor, int depth) {
+        // The hands of a played SHUFFLE_HANDS card are already redistributed; play goes on like after a WILD.
+        int kind = CardCatalog.kind(wildFace) == SHUFFLE_HANDS ? WILD : CardCatalog.kind(wildFace);
+        int played = top;
+        float best = -INFINITY;
+        for (int i = 0; i < 4; i++) {
+            setTop(CardCatalog.recolor(wildFace, (preferredColor + i) & 3));
+            float value = afterPlay(kind, depth, best, INFINITY);
+            if (value > best) {
+                best = value;
+                rootMove = top;
+            }
+        }
+        setTop(played);
+    }
+
+    /**
+     * Returns the number of colors that are searched for playing a card: four for a wild card whose color
+     * is chosen when it is played, one otherwise.
+     *
+     * @param face the uncolored face of the card
+     * @return the number of colors to search
+     */
+    private static int colorChoices(int face) {
+        return face < FIRST_WILD_FACE || CardCatalog.kind(face) == SHUFFLE_HANDS ? 1 : 4;
+    }
+
+    /**
+     * Searches a position where the side to move chooses a card to play or draws.
+     *
+     * @param depth the remaining depth
+     * @param alpha the value the side to move is already guaranteed
+     * @param beta the value above which the opponent avoids this position
+     * @return the value for the side to move
+     */
+    private float search(int depth, float alpha, float beta) {
+        if (++nodes > maxNodes || (nodes & 1023) == 0 && System.nanoTime() > deadline) {
+            throw OUT_OF_BUDGET;
+        }
+        if (depth == 0) {
+            return estimate(toMove);
+        }
+        long entry = table.probe(key);
+        if (entry != 0 && TranspositionTable.depth(entry) >= depth) {
+            float value = TranspositionTable.value(entry);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || bound == TranspositionTable.LOWER && value >= beta
+                    || bound == TranspositionTable.UPPER && value <= alpha) {
+                estimated |= TranspositionTable.depth(entry) < SOLVED_DEPTH;
+                return value;
+            }
+        }
+        boolean outerEstimated = estimated;
+        estimated = false;
+        float originalAlpha = alpha;
+        float best = -INFINITY;
+        int side = toMove;
+        for (int face = 0; face < CardCatalog.FACE_COUNT && best < beta; face++) {
+            if (hands[side][face] == 0 || !CardCatalog.isPlayable(face, top)) continue;
+            int colors = colorChoices(face);
+            for (int color = 0; color < colors && best < beta; color++) {
+                int newTop = colors == 1 ? face : CardCatalog.recolor(face, color);
+                float value = play(face, newTop, depth, Math.max(alpha, best), beta);
+                best = Math.max(best, value);
+            }
+        }
+        if (best < beta) {
+            best = Math.max(best, drawCard(depth));
+        }
+        int bound = best <= originalAlpha ? TranspositionTable.UPPER
+                : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        // A subtree searched to the end of the round holds at any depth.
+        table.store(key, best, estimated ? depth : SOLVED_DEPTH, bound);
+        estimated |= outerEstimated;
+        return best;
+    }
+
+    /**
+     * Plays a card of the side to move and searches the rest of the turn.
+     *
+     * @param face the uncolored face of the card
+     * @param newTop the face of the card on the discard pile, with its chosen color
+     * @param depth the remaining depth
+     * @param alpha the value the side to move is already guaranteed
+     * @param beta the value above which the opponent avoids this position
+     * @return the value for the side to move
+     */
+    private float play(int face, int newTop, int depth, float alpha, float beta) {
+        int side = toMove;
+        removeFromHand(side, face);
+        int oldTop = top;
+        setTop(newTop);
+        float value = afterPlay(CardCatalog.kind(face), depth, alpha, beta);
+        setTop(oldTop);
+        addToHand(side, face);
+        return value;
+    }
+
+    /**
+     * Applies the effect of the card just played by the side to move and searches the rest of the turn.
+     *
+     * @param kind the kind of the played card
+     * @param depth the remaining depth
+     * @param alpha the value the side to move is already guaranteed
+     * @param beta the value above which the opponent avoids this position
+     * @return the value for the side to move
+     */
+    private float afterPlay(int kind, int depth, float alpha, float beta) {
+        if (kind == SHUFFLE_HANDS) {
+            return estimate(toMove);
+        }
+        int draws = kind == DRAW_TWO ? 2 : kind == WILD_DRAW_FOUR ? 4 : 0;
+        boolean playsAgain = kind == DRAW_TWO || kind == SKIP || kind == WILD_DRAW_FOUR;
+        if (draws == 0) {
+            return endTurn(playsAgain, depth, alpha, beta);
+        }
+        return opponentDraws(draws, depth);
+    }
+
+    /**
+     * Lets the opponent of the side to move draw cards, then searches the rest of the turn.
+     *
+     * @param count the number of cards to draw
+     * @param depth the remaining depth
+     * @return the expected value for the side to move
+     */
+    private float opponentDraws(int count, int depth) {
+        if (drawTotal < count) {
+            return estimate(toMove);
+        }
+        if (depth == 1) {
+            // Every combination ends at the horizon, so only the expected score of the drawn cards matters.
+            int opponent = 1 - toMove;
+            float drawnScore = (float) count * drawScore / drawTotal;
+            sizes[opponent] += count;
+            float value = estimate(toMove, drawnScore);
+            sizes[opponent] -= count;
+            return value;
+        }
+        float ways = 1;
+        for (int i = 0; i < count; i++) {
+            ways *= drawTotal - i;
+        }
+        return drawCombinations(count, count, 0, depth) / ways;
+    }
+
+    /**
+     * Sums the values of every combination of cards the opponent of the side to move can draw, weighted
+     * by the number of draw orders that yield it. Only the faces from {@code firstFace} on are drawn, so
+     * each combination is searched once instead of once per order.
+     *
+     * @param count the number of cards still to draw
+     * @param remaining the number of cards drawn so far plus {@code count}, minus those of earlier faces
+     * @param firstFace the lowest face that may still be drawn
+     * @param depth the remaining depth
+     * @return the weighted sum of values for the side to move
+     */
+    private float drawCombinations(int count, int remaining, int firstFace, int depth) {
+        if (count == 0) {
+            return endTurn(true, depth, -INFINITY, INFINITY);
+        }
+        int opponent = 1 - toMove;
+        float sum = 0;
+        for (int face = firstFace; face < CardCatalog.FACE_COUNT; face++) {
+            int copies = draw[face];
+            // Drawing k copies of this face among the remaining cards: C(remaining, k) orders of
+            // copies * (copies - 1) * ... choices each.
+            float weight = 1;
+            int k = 0;
+            while (k < count && k < copies) {
+                weight *= (float) (copies - k) * (remaining - k) / (k + 1);
+                takeFromDraw(face);
+                addToHand(opponent, face);
+                k++;
+                sum += weight * drawCombinations(count - k, remaining - k, face + 1, depth);
+            }
+            for (; k > 0; k--) {
+                removeFromHand(opponent, face);
+                returnToDraw(face);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Ends the turn of the side to move: scores the round if its hand is empty, otherwise passes the turn
+     * or lets it play again.
+     *
+     * @param playsAgain whether the opponent was skipped
+     * @param depth the remaining depth
+     * @param alpha the value the side to move is already guaranteed
+     * @param beta the value above which the opponent avoids this position
+     * @return the value for the side to move
+     */
+    private float endTurn(boolean playsAgain, int depth, float alpha, float beta) {
+        int side = toMove;
+        if (sizes[side] == 0) {
+            return scores[1 - side];
+        }
+        if (playsAgain) {
+            return search(depth - 1, alpha, beta);
+        }
+        setToMove(1 - side);
+        float value = -search(depth - 1, -beta, -alpha);
+        setToMove(side);
+        return value;
+    }
+
+    /**
+     * Lets the side to move draw a card, which is played at once if it is playable.
+     *
+     * @param depth the remaining depth
+     * @return the expected value for the side to move
+     */
+    private float drawCard(int depth) {
+        if (drawTotal == 0) {
+            return estimate(toMove);
+        }
+        int side = toMove;
+        int total = drawTotal;
+        float sum = 0;
+        for (int face = 0; face < CardCatalog.FACE_COUNT; face++) {
+            int copies = draw[face];
+            if (copies == 0) continue;
+            takeFromDraw(face);
+            addToHand(side, face);
+            float value;
+            if (!CardCatalog.isPlayable(face, top)) {
+                setToMove(1 - side);
+                value = -search(depth - 1, -INFINITY, INFINITY);
+                setToMove(side);
+            } else if (colorChoices(face) == 1) {
+                value = play(face, face, depth, -INFINITY, INFINITY);
+            } else {
+                value = -INFINITY;
+                for (int color = 0; color < 4; color++) {
+                    value = Math.max(value, play(face, CardCatalog.recolor(face, color), depth, value, INFINITY));
+                }
+            }
+            sum += copies * value;
+            removeFromHand(side, face);
+            returnToDraw(face);
+        }
+        return sum / total;
+    }
+
+    /**
+     * Estimates a position that is not searched further from the hand sizes and scores: each side is
+     * assumed to win the round with a chance proportional to the opponent's hand size.
+     *
+     * @param side the side to evaluate for
+     * @return the estimated value for that side
+     */
+    private float estimate(int side) {
+        return estimate(side, 0);
+    }
+
+    /**
+     * Estimates a position that is not searched further, with extra points in the opponent's hand.
+     *
+     * @param side the side to evaluate for
+     * @param extraScore the expected score of cards the opponent has drawn but are not counted in its hand
+     * @return the estimated value for that side
+     */
+    private float estimate(int side, float extraScore) {
+        estimated = true;
+        int other = 1 - side;
+        float winChance = (float) sizes[other] / (sizes[side] + sizes[other]);
+        return winChance * (scores[other] + extraScore) - (1 - winChance) * scores[side];
+    }
+
+    /**
+     * Adds a card to a hand.
+     *
+     * @param side the side holding the hand
+     * @param face the uncolored face of the card
+     */
+    private void addToHand(int side, int face) {
+        int count = hands[side][face]++;
+        key ^= HAND_KEYS[side][face][count] ^ HAND_KEYS[side][face][count + 1];
+        sizes[side]++;
+        scores[side] += CardCatalog.score(face);
+    }
+
+    /**
+     * Removes a card from a hand.
+     *
+     * @param side the side holding the hand
+     * @param face the uncolored face of the card
+     */
+    private void removeFromHand(int side, int face) {
+        int count = hands[side][face]--;
+        key ^= HAND_KEYS[side][face][count] ^ HAND_KEYS[side][face][count - 1];
+        sizes[side]--;
+        scores[side] -= CardCatalog.score(face);
+    }
+
+    /**
+     * Removes a card from the draw pile.
+     *
+     * @param face the uncolored face of the card
+     */
+    private void takeFromDraw(int face) {
+        int count = draw[face]--;
+        key ^= DRAW_KEYS[face][count] ^ DRAW_KEYS[face][count - 1];
+        drawTotal--;
+        drawScore -= CardCatalog.score(face);
+    }
+
+    /**
+     * Puts a card back into the draw pile.
+     *
+     * @param face the uncolored face of the card
+     */
+    private void returnToDraw(int face) {
+        int count = draw[face]++;
+        key ^= DRAW_KEYS[face][count] ^ DRAW_KEYS[face][count + 1];
+        drawTotal++;
+        drawScore += CardCatalog.score(face);
+    }
+
+    /**
+     * Replaces the top card.
+     *
+     * @param face the face of the new top card
+     */
+    private void setTop(int face) {
+        key ^= TOP_KEYS[top] ^ TOP_KEYS[face];
+        top = face;
+    }
+
+    /**
+     * Sets the side to move.
+     *
+     * @param side the side to move
+     */
+    private void setToMove(int side) {
+        if (side != toMove) {
+            key ^= SIDE_KEY;
+            toMove = side;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.duocardgame;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A strategy that searches the end of two-player rounds exactly and defers to another strategy otherwise.
+ * <p>
+ * Once both hands together hold at most {@code maxHandCards} cards, every card and color choice is made by
+ * an {@link EndgameSolver}, which sees both hands and the composition of the draw pile and maximizes the
+ * expected round score. The fallback strategy's choice is searched first and kept unless the search
+ * finds a strictly better one. Each search stops at a node budget and a time cap; with only the node budget
+ * binding, decisions are reproducible. Searched positions are kept in a {@link TranspositionTable} that
+ * all threads using the strategy share, while each thread searches with its own solver.
+ * </p>
+ */
+public class EndgameStrategy implements PlayerStrategy {
+    /** The default largest total number of cards in both hands that is searched. */
+    public static final int DEFAULT_MAX_HAND_CARDS = 8;
+
+    /** The default time cap of one decision, in milliseconds. */
+    public static final long DEFAULT_MOVE_MILLIS = 50;
+
+    /** The default node budget of one decision. */
+    public static final long DEFAULT_MAX_NODES = 20_000;
+
+    /** The default table size: 2^20 slots, 16 MiB. */
+    private static final int DEFAULT_TABLE_SLOTS_LOG2 = 20;
+
+    /** The strategy used outside of the endgame. */
+    private final PlayerStrategy fallback;
+
+    /** The largest total number of cards in both hands that is searched. */
+    private final int maxHandCards;
+
+    /** The time cap of one decision, in milliseconds. */
+    private final long moveMillis;
+
+    /** The node budget of one decision. */
+    private final long maxNodes;
+
+    /** The solver of each thread, all sharing one table. */
+    private final ThreadLocal<EndgameSolver> solvers;
+
+    /**
+     * Constructs an endgame strategy with the default thresholds and budgets.
+     *
+     * @param fallback the strategy used outside of the endgame
+     */
+    public EndgameStrategy(PlayerStrategy fallback) {
+        this(fallback, DEFAULT_MAX_HAND_CARDS, DEFAULT_MOVE_MILLIS, DEFAULT_MAX_NODES,
+                new TranspositionTable(DEFAULT_TABLE_SLOTS_LOG2));
+    }
+
+    /**
+     * Constructs an endgame strategy.
+     *
+     * @param fallback the strategy used outside of the endgame and when a search runs out of budget
+     * @param maxHandCards the largest total number of cards in both hands that is searched
+     * @param moveMillis the time cap of one decision, in milliseconds
+     * @param maxNodes the node budget of one decision
+     * @param table the table of searched positions, which may be shared with other strategies
+     */
+    public EndgameStrategy(PlayerStrategy fallback, int maxHandCards, long moveMillis, long maxNodes, TranspositionTable table) {
+        this.fallback = fallback;
+        this.maxHandCards = maxHandCards;
+        this.moveMillis = moveMillis;
+        this.maxNodes = maxNodes;
+        this.solvers = ThreadLocal.withInitial(() -> new EndgameSolver(table));
+    }
+
+    /**
+     * Chooses the card with the best expected round score in the endgame, or the fallback strategy's card.
+     * <p>
+     * The fallback strategy is always asked first, so it consumes the same random numbers either way, and
+     * its card is kept unless the search finds a strictly better move.
+     * </p>
+     *
+     * @param player the player whose turn it is
+     * @param topCard the card on the top of the discard pile
+     * @param random the game's random number generator, used by the fallback strategy
+     * @return a playable card from the player's hand, or {@code null} to draw a card instead
+     */
+    @Override
+    public Card choosePlayableCard(Player player, Card topCard, Random random) {
+        Card preferred = fallback.choosePlayableCard(player, topCard, random);
+        EndgameSolver solver = solvers.get();
+        if (!solver.load(player, maxHandCards)) {
+            return preferred;
+        }
+        int preferredFace = preferred == null ? EndgameSolver.DRAW : CardCatalog.uncolored(CardCatalog.faceOf(preferred));
+        int move = solver.solveMove(preferredFace, moveMillis * 1_000_000, maxNodes);
+        if (move == EndgameSolver.NO_MOVE) {
+            return preferred;
+        }
+        if (move == EndgameSolver.DRAW) {
+            return null;
+        }
+        int face = CardCatalog.uncolored(move);
+        if (face == preferredFace) {
+            return preferred;
+        }
+        List<Card> hand = player.getHandView();
+        for (int i = 0; i < hand.size(); i++) {
+            Card card = hand.get(i);
+            if (CardCatalog.uncolored(CardCatalog.faceOf(card)) == face) {
+                return card;
+            }
+        }
+        return preferred;
+    }
+
+    /**
+     * Chooses the color with the best expected round score in the endgame, or the fallback strategy's color.
+     *
+     * @param player the player who played the wild card
+     * @param random the game's random number generator, used by the fallback strategy
+     * @return the chosen non-WILD color
+     */
+    @Override
+    public CardColor chooseColor(Player player, Random random) {
+        CardColor preferred = fallback.chooseColor(player, random);
+        EndgameSolver solver = solvers.get();
+        if (!solver.load(player, maxHandCards)) {
+            return preferred;
+        }
+        int color = solver.solveColor(preferred.ordinal(), moveMillis * 1_000_000, maxNodes);
+        return color < 0 ? preferred : CardColor.values()[color];
+    }
+
+    /**
+     * Returns a key made of the fallback strategy's key and the search parameters.
+     *
+     * @return the configuration key of this strategy
+     */
+    @Override
+    public String getConfigKey() {
+        return getClass().getName() + "(" + fallback.getConfigKey() + "," + maxHandCards + "," + moveMillis + "," + maxNodes + ")";
+    }
+}
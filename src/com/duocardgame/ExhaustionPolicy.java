@@ -0,0 +1,14 @@
+package com.duocardgame;
+/**
+ * Enumerates what a deck does when a card must be drawn but both the draw pile and the reusable part of
+ * the discard pile are empty.
+ * <p>
+ * Standard games fail; large tables, where hands can hold most of the shoe, open another deck.
+ * </p>
+ */
+public enum ExhaustionPolicy {
+    /** Throws an {@link IndexOutOfBoundsException}, which ends the game. */
+    FAIL,
+    /** Adds a fresh standard deck to the draw pile and shuffles it, so play always goes on. */
+    ADD_DECK;
+}
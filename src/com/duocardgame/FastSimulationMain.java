@@ -0,0 +1,68 @@
+package com.duocardgame;
+
+/**
+ * A launcher for short-lived simulation jobs that keeps JVM startup and warm-up small.
+ * <p>
+ * Games are played one after another on the main thread with the default strategies, without streams,
+ * lambdas, reflection, formatting or CSV logging, so only the game classes and a few JDK classes are
+ * loaded before the first game. Combined with a class-data-sharing archive built by
+ * {@code scripts/fast-startup.sh}, the first game finishes within a few tens of milliseconds of launch.
+ * </p>
+ * <p>
+ * Usage: {@code FastSimulationMain [games] [firstSeed]}. Prints the number of wins of each seat, the
+ * number of aborted games and the time from entering {@code main} to the end of the first and last game.
+ * </p>
+ */
+public final class FastSimulationMain {
+    /** The largest number of players in a game. */
+    private static final int MAX_PLAYERS = 4;
+
+    /**
+     * Prevents instantiation of this class.
+     */
+    private FastSimulationMain() {
+    }
+
+    /**
+     * Plays the requested games and prints a summary.
+     *
+     * @param args the optional number of games and the seed of the first game
+     */
+    public static void main(String[] args) {
+        long start = System.nanoTime();
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long firstSeed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+
+        long[] wins = new long[MAX_PLAYERS];
+        long aborted = 0;
+        long firstGameNanos = 0;
+        for (int i = 0; i < games; i++) {
+            DuoCardGame game = new DuoCardGame(firstSeed + i);
+            game.setVerbose(false);
+            game.setLogger(null);
+            try {
+                game.startGame();
+                while (!game.isGameOver()) {
+                    game.playTurn();
+                }
+                wins[game.getPlayers().indexOf(game.getWinner())]++;
+            } catch (IndexOutOfBoundsException e) {
+                // Both piles ran out of cards; the game cannot continue.
+                aborted++;
+            }
+            if (i == 0) {
+                firstGameNanos = System.nanoTime() - start;
+            }
+        }
+        long totalNanos = System.nanoTime() - start;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("games=").append(games).append(" aborted=").append(aborted);
+        for (int seat = 0; seat < MAX_PLAYERS; seat++) {
+            sb.append(" seat").append(seat + 1).append('=').append(wins[seat]);
+        }
+        sb.append(" firstGameMicros=").append(firstGameNanos / 1000);
+        sb.append(" totalMicros=").append(totalNanos / 1000);
+        System.out.println(sb);
+    }
+}
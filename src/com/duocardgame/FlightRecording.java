@@ -0,0 +1,29 @@
+package com.duocardgame;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Tells the engine whether its Java Flight Recorder events may be recorded at all.
+ * <p>
+ * Creating the first event loads and registers the whole flight recorder, close to a hundred classes and a
+ * few hundred milliseconds, even when no recording is running. The engine therefore only creates its
+ * events once the recorder has been started, by {@code -XX:StartFlightRecording} or {@code jcmd JFR.start};
+ * before that, checking costs a single field read and loads only {@link FlightRecorder}.
+ * </p>
+ */
+final class FlightRecording {
+    /**
+     * Prevents instantiation of this class.
+     */
+    private FlightRecording() {
+    }
+
+    /**
+     * Checks whether the flight recorder has been started in this JVM.
+     *
+     * @return {@code true} if a recording has been started; {@code false} otherwise
+     */
+    static boolean isStarted() {
+        return FlightRecorder.isInitialized();
+    }
+}
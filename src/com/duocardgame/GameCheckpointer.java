@@ -0,0 +1,339 @@
+package com.duocardgame;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Writes crash-consistent checkpoints of a game to an append-only file and restores the latest one.
+ * <p>
+ * Each checkpoint is a record holding a marker, the payload length, the full game state written by
+ * {@link DuoCardGame#saveState(ByteBuffer)} (players, hands, scores, piles, direction, color, round number
+ * and random generator) and a CRC32 of the payload. A record torn by a crash fails its checksum and is
+ * ignored, so recovery always finds the last complete checkpoint. To limit the cost of {@code fsync},
+ * the file is forced to disk only every {@code syncEvery} checkpoints or after {@code syncIntervalMillis};
+ * a single daemon thread shared by all checkpointers enforces the interval even when no further checkpoint
+ * is written.
+ * </p>
+ * <p>
+ * Only the latest checkpoint is ever restored, so once the file has grown past the compaction size and
+ * its last checkpoint is on disk, the file is replaced by one holding just that checkpoint: it is written
+ * to a temporary file, forced, and atomically moved over the checkpoint file, and the directory is forced
+ * so that the move itself survives a crash. Recovery reads the file
+ * backwards from its end in small windows and stops at the first valid checkpoint, so restoring takes
+ * the same time however long the session ran.
+ * </p>
+ * <p>
+ * Attach a checkpointer with {@link DuoCardGame#setCheckpointer(GameCheckpointer)} to checkpoint the game
+ * after every round.
+ * </p>
+ */
+public class GameCheckpointer implements Closeable {
+    /** The marker at the start of every record. */
+    private static final int MAGIC = 0x44554F43;
+
+    /** The size of the record header: marker and payload length. */
+    private static final int HEADER_BYTES = 8;
+
+    /** The size of the record trailer: the checksum. */
+    private static final int TRAILER_BYTES = 4;
+
+    /** The largest possible record. */
+    private static final int MAX_RECORD_BYTES = HEADER_BYTES + DuoCardGame.STATE_BYTES + TRAILER_BYTES;
+
+    /** The default file size after which the file is compacted to its last checkpoint, in bytes. */
+    public static final long DEFAULT_COMPACT_BYTES = 1024 * 1024;
+
+    /** The size of the first window read from the end of the file on recovery, in bytes. */
+    private static final int TAIL_WINDOW_BYTES = 4 * MAX_RECORD_BYTES;
+
+    /** Runs the interval syncs of every checkpointer on one daemon thread, started on first use. */
+    private static final ScheduledThreadPoolExecutor SYNC_SCHEDULER = new ScheduledThreadPoolExecutor(1, task -> {
+        Thread thread = new Thread(task, "checkpoint-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        SYNC_SCHEDULER.setRemoveOnCancelPolicy(true);
+    }
+
+    /** The checkpoint file. */
+    private final Path file;
+
+    /** The file size after which the file is compacted to its last checkpoint, in bytes. */
+    private final long compactBytes;
+
+    /** The channel of the checkpoint file, positioned at its end; replaced by compaction. */
+    private FileChannel channel;
+
+    /** Forces pending checkpoints to disk once the sync interval has passed, or {@code null} without an interval. */
+    private final ScheduledFuture<?> syncTask;
+
+    /** The number of checkpoints after which the file is forced to disk. */
+    private final int syncEvery;
+
+    /** The time after which pending checkpoints are forced to disk, in nanoseconds. */
+    private final long syncIntervalNanos;
+
+    /** Reusable buffer holding the last record written. */
+    private final ByteBuffer record = ByteBuffer.allocate(MAX_RECORD_BYTES);
+
+    /** Reusable checksum calculator. */
+    private final CRC32 crc = new CRC32();
+
+    /** The number of checkpoints written since the last sync. */
+    private int unsynced;
+
+    /** The time of the last sync, from {@link System#nanoTime()}. */
+    private long lastSync = System.nanoTime();
+
+    /**
+     * Opens a checkpoint file for appending, compacting it after {@link #DEFAULT_COMPACT_BYTES}.
+     *
+     * @param file the checkpoint file
+     * @param syncEvery the number of checkpoints after which the file is forced to disk
+     * @param syncIntervalMillis the time after which pending checkpoints are forced to disk
+     * @throws IOException if the file cannot be opened
+     */
+    public GameCheckpointer(Path file, int syncEvery, long syncIntervalMillis) throws IOException {
+        this(file, syncEvery, syncIntervalMillis, DEFAULT_COMPACT_BYTES);
+    }
+
+    /**
+     * Opens a checkpoint file for appending, creating it if needed.
+     * <p>
+     * A torn record left at the end of the file by a crash is cut off, so new records follow the last
+     * complete one.
+     * </p>
+     *
+     * @param file the checkpoint file
+     * @param syncEvery the number of checkpoints after which the file is forced to disk
+     * @param syncIntervalMillis the time after which pending checkpoints are forced to disk
+     * @param compactBytes the file size after which the file is compacted to its last checkpoint
+     * @throws IOException if the file cannot be opened
+     */
+    public GameCheckpointer(Path file, int syncEvery, long syncIntervalMillis, long compactBytes) throws IOException {
+        this.file = file;
+        this.syncEvery = syncEvery;
+        this.syncIntervalNanos = syncIntervalMillis * 1_000_000;
+        this.compactBytes = compactBytes;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long[] latest = findLatest(channel);
+        long end = latest == null ? 0 : latest[1];
+        channel.truncate(end);
+        channel.position(end);
+        syncTask = syncIntervalMillis > 0 ? SYNC_SCHEDULER.scheduleWithFixedDelay(this::syncIfDue,
+                syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS) : null;
+    }
+
+    /**
+     * Appends a checkpoint of the game and forces the file to disk if a sync is due.
+     *
+     * @param game the game to checkpoint
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public synchronized void checkpoint(DuoCardGame game) throws IOException {
+        record.clear();
+        record.position(HEADER_BYTES);
+        game.saveState(record);
+        int length = record.position() - HEADER_BYTES;
+        crc.reset();
+        crc.update(record.array(), HEADER_BYTES, length);
+        record.putInt((int) crc.getValue());
+        record.putInt(0, MAGIC);
+        record.putInt(4, length);
+        record.flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        unsynced++;
+        if (unsynced >= syncEvery || System.nanoTime() - lastSync >= syncIntervalNanos) {
+            sync();
+        }
+    }
+
+    /**
+     * Forces every written checkpoint to disk, and compacts the file if it has grown past the compaction size.
+     *
+     * @throws IOException if the file cannot be synced or compacted
+     */
+    public synchronized void sync() throws IOException {
+        if (unsynced > 0) {
+            channel.force(false);
+            unsynced = 0;
+            if (channel.size() >= compactBytes) {
+                compact();
+            }
+        }
+        lastSync = System.nanoTime();
+    }
+
+    /**
+     * Syncs pending checkpoints once the sync interval has passed since the last sync. Called by the shared
+     * sync thread.
+     */
+    private synchronized void syncIfDue() {
+        if (unsynced == 0 || System.nanoTime() - lastSync < syncIntervalNanos || !channel.isOpen()) {
+            return;
+        }
+        try {
+            sync();
+        } catch (IOException e) {
+            // The next checkpoint or close syncs again and reports the failure to the game.
+            System.err.println("Could not sync checkpoints to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the file with one holding only the last checkpoint, which must already be on disk.
+     *
+     * @throws IOException if the compacted file cannot be written or moved into place
+     */
+    private void compact() throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".compact");
+        ByteBuffer last = record.duplicate();
+        last.position(0);
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (last.hasRemaining()) {
+                out.write(last);
+            }
+            out.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // The rename is only durable once the directory entry is on disk.
+        try (FileChannel directory = FileChannel.open(file.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        }
+        channel.close();
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+    }
+
+    /**
+     * Stops the interval syncs, syncs pending checkpoints and closes the file.
+     *
+     * @throws IOException if the file cannot be synced or closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (syncTask != null) {
+            syncTask.cancel(false);
+        }
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Restores the latest valid checkpoint of a file into a new game.
+     * <p>
+     * The players of the restored game use the default strategy; use
+     * {@link #recoverInto(Path, DuoCardGame)} to keep the players of an existing game.
+     * </p>
+     *
+     * @param file the checkpoint file
+     * @return the restored game, or {@code null} if the file holds no valid checkpoint
+     * @throws IOException if the file cannot be read
+     */
+    public static DuoCardGame recover(Path file) throws IOException {
+        ByteBuffer state = readLatest(file);
+        return state == null ? null : DuoCardGame.loadState(state);
+    }
+
+    /**
+     * Restores the latest valid checkpoint of a file into an existing game, keeping its players and their
+     * strategies when the player count matches.
+     *
+     * @param file the checkpoint file
+     * @param game the game whose state is replaced
+     * @return {@code true} if a checkpoint was restored; {@code false} if the file holds none
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean recoverInto(Path file, DuoCardGame game) throws IOException {
+        ByteBuffer state = readLatest(file);
+        if (state == null) {
+            return false;
+        }
+        game.restoreState(state);
+        return true;
+    }
+
+    /**
+     * Reads the game state of the latest valid checkpoint of a file.
+     *
+     * @param file the checkpoint file
+     * @return the state, positioned at its start, or {@code null} if the file holds no valid checkpoint
+     * @throws IOException if the file cannot be read
+     */
+    private static ByteBuffer readLatest(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] latest = findLatest(channel);
+            if (latest == null) {
+                return null;
+            }
+            int length = (int) (latest[1] - latest[0]) - HEADER_BYTES - TRAILER_BYTES;
+            ByteBuffer state = ByteBuffer.allocate(length);
+            long position = latest[0] + HEADER_BYTES;
+            while (state.hasRemaining()) {
+                if (channel.read(state, position + state.position()) < 0) {
+                    throw new EOFException("Checkpoint file " + file + " was truncated while reading");
+                }
+            }
+            state.flip();
+            return state;
+        }
+    }
+
+    /**
+     * Locates the last record of a checkpoint file with a valid checksum by reading backwards from its end.
+     * <p>
+     * A window at the end of the file is searched for the valid record that starts last; if it holds none,
+     * for example because a long torn tail was appended, the window is doubled until it covers the file.
+     * </p>
+     *
+     * @param channel the channel of the file
+     * @return the start and end offsets of the last valid record, or {@code null} if there is none
+     * @throws IOException if the file cannot be read
+     */
+    private static long[] findLatest(FileChannel channel) throws IOException {
+        long size = channel.size();
+        CRC32 crc = new CRC32();
+        for (long window = TAIL_WINDOW_BYTES; ; window *= 2) {
+            long from = Math.max(0, size - window);
+            ByteBuffer data = ByteBuffer.allocate((int) (size - from));
+            while (data.hasRemaining() && channel.read(data, from + data.position()) >= 0) {
+                // Keep reading until the window is full.
+            }
+            for (int position = data.position() - HEADER_BYTES - TRAILER_BYTES; position >= 0; position--) {
+                if (data.getInt(position) != MAGIC) continue;
+                int length = data.getInt(position + 4);
+                if (length < 0 || length > DuoCardGame.STATE_BYTES
+                        || position + HEADER_BYTES + length + TRAILER_BYTES > data.position()) {
+                    continue;
+                }
+                crc.reset();
+                crc.update(data.array(), position + HEADER_BYTES, length);
+                if ((int) crc.getValue() == data.getInt(position + HEADER_BYTES + length)) {
+                    return new long[] { from + position, from + position + HEADER_BYTES + length + TRAILER_BYTES };
+                }
+            }
+            if (from == 0) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.duocardgame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Keeps the recent turns of a game so they can be undone and redone.
+ * <p>
+ * After the game starts and after every turn, the full state is written with
+ * {@link DuoCardGame#saveState(ByteBuffer)} into the next fixed-size slot of a ring, at most
+ * {@link DuoCardGame#STATE_BYTES} bytes per turn. The state includes the random generator and the chosen
+ * color of every wild card, so undoing a turn restores exactly the position before it, and replaying from
+ * there with the same strategies repeats the same turns. Undo and redo restore one slot, which takes the same
+ * time however long the game has run. Playing a turn after an undo discards the turns that could have been
+ * redone. Once the ring is full, the oldest turns are forgotten, so memory stays bounded for games of any
+ * length.
+ * </p>
+ * <p>
+ * Attach a history with {@link DuoCardGame#setHistory(GameHistory)}. Card listeners such as
+ * {@link CardTracker} only see the turns that are played, so they must be rebuilt after an undo.
+ * </p>
+ */
+public class GameHistory {
+    /** The recorded states, one slot of {@link DuoCardGame#STATE_BYTES} bytes per turn. */
+    private final ByteBuffer slots;
+
+    /** The number of slots. */
+    private final int capacity;
+
+    /** The number of the oldest turn that is still recorded. */
+    private long oldest;
+
+    /** The number of the turn the game is at. */
+    private long current = -1;
+
+    /** The number of the newest recorded turn; turns after {@link #current} can be redone. */
+    private long newest = -1;
+
+    /**
+     * Constructs an empty history.
+     *
+     * @param capacity the number of turns kept, at least 1
+     */
+    public GameHistory(int capacity) {
+        if (capacity < 1 || capacity > Integer.MAX_VALUE / DuoCardGame.STATE_BYTES) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + Integer.MAX_VALUE / DuoCardGame.STATE_BYTES);
+        }
+        this.capacity = capacity;
+        slots = ByteBuffer.allocate(capacity * DuoCardGame.STATE_BYTES);
+    }
+
+    /**
+     * Records the state of a game after a turn, discarding the turns that could have been redone.
+     *
+     * @param game the game
+     */
+    void record(DuoCardGame game) {
+        current++;
+        newest = current;
+        if (newest - oldest >= capacity) {
+            oldest = newest - capacity + 1;
+        }
+        game.saveState(slot(current));
+    }
+
+    /**
+     * Undoes the last turn of a game.
+     *
+     * @param game the game this history is attached to
+     * @return {@code true} if a turn was undone; {@code false} if no earlier turn is recorded
+     */
+    public boolean undo(DuoCardGame game) {
+        if (!canUndo()) {
+            return false;
+        }
+        current--;
+        game.restoreTurn(slot(current));
+        return true;
+    }
+
+    /**
+     * Redoes the last undone turn of a game.
+     *
+     * @param game the game this history is attached to
+     * @return {@code true} if a turn was redone; {@code false} if there is no undone turn
+     */
+    public boolean redo(DuoCardGame game) {
+        if (!canRedo()) {
+            return false;
+        }
+        current++;
+        game.restoreTurn(slot(current));
+        return true;
+    }
+
+    /**
+     * Returns whether an earlier turn is recorded.
+     *
+     * @return {@code true} if {@link #undo(DuoCardGame)} would succeed
+     */
+    public boolean canUndo() {
+        return current > oldest;
+    }
+
+    /**
+     * Returns whether an undone turn can be redone.
+     *
+     * @return {@code true} if {@link #redo(DuoCardGame)} would succeed
+     */
+    public boolean canRedo() {
+        return current < newest;
+    }
+
+    /**
+     * Returns the number of turns that can be undone.
+     *
+     * @return the undo depth
+     */
+    public int getUndoDepth() {
+        return current < 0 ? 0 : (int) (current - oldest);
+    }
+
+    /**
+     * Positions the buffer at the slot of a turn.
+     *
+     * @param turn the turn number
+     * @return the buffer, positioned at the start of the slot
+     */
+    private ByteBuffer slot(long turn) {
+        slots.clear();
+        slots.position((int) (turn % capacity) * DuoCardGame.STATE_BYTES);
+        return slots;
+    }
+}
@@ -0,0 +1,85 @@
+package com.duocardgame;
+
+import java.util.Random;
+
+/**
+ * A {@link Random} whose internal state can be read and restored.
+ * <p>
+ * It produces exactly the same sequence as {@code java.util.Random} for the same seed, but exposes the
+ * 48-bit generator state so that a paused or checkpointed game resumes with the same random stream.
+ * Unlike {@code Random}, it is not safe for concurrent use; each game owns its own instance.
+ * </p>
+ */
+class GameRandom extends Random {
+    /** Serialization version of this class. */
+    private static final long serialVersionUID = 1L;
+
+    /** Multiplier of the linear congruential generator. */
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+
+    /** Addend of the linear congruential generator. */
+    private static final long ADDEND = 0xBL;
+
+    /** Mask of the 48-bit generator state. */
+    private static final long MASK = (1L << 48) - 1;
+
+    /** The current generator state. Assigned by {@link #setSeed(long)} during construction. */
+    private long state;
+
+    /**
+     * Constructs a generator with a seed that is very likely distinct from any other invocation.
+     */
+    GameRandom() {
+        super();
+    }
+
+    /**
+     * Constructs a generator with the given seed.
+     *
+     * @param seed the initial seed
+     */
+    GameRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * Sets the seed of this generator, scrambling it the same way {@link Random#setSeed(long)} does.
+     *
+     * @param seed the new seed
+     */
+    @Override
+    public void setSeed(long seed) {
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    /**
+     * Generates the next pseudorandom number.
+     *
+     * @param bits the number of random bits
+     * @return the next pseudorandom value
+     */
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    /**
+     * Returns the current 48-bit generator state.
+     *
+     * @return the generator state
+     */
+    long getState() {
+        return state;
+    }
+
+    /**
+     * Restores a generator state previously returned by {@link #getState()}.
+     *
+     * @param state the generator state
+     */
+    void setState(long state) {
+        this.state = state & MASK;
+    }
+}
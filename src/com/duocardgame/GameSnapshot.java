@@ -0,0 +1,200 @@
+package com.duocardgame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable, consistent view of a game at one point in time.
+ * <p>
+ * Snapshots are taken from a {@link SnapshotPublisher} and can be read from any thread while the game keeps
+ * running. Cards are held as {@link CardCatalog} face ids; the card accessors return fresh card instances.
+ * </p>
+ */
+public final class GameSnapshot {
+    /** The number of state changes published before this snapshot. */
+    private final long version;
+
+    /** The round number. */
+    private final int roundNumber;
+
+    /** The index of the current player. */
+    private final int currentPlayer;
+
+    /** The direction of play: 1 for forward and -1 for backward. */
+    private final int direction;
+
+    /** The current active color, or {@code null} before the game starts. */
+    private final CardColor currentColor;
+
+    /** Whether the game is over. */
+    private final boolean gameOver;
+
+    /** The index of the winner, or -1 while the game is running. */
+    private final int winner;
+
+    /** The score of each player. */
+    private final int[] scores;
+
+    /** The faces of each player's hand. */
+    private final int[][] hands;
+
+    /** The number of cards in the draw pile. */
+    private final int drawPileSize;
+
+    /** The face on top of the discard pile, or -1 if it is empty. */
+    private final int topFace;
+
+    /**
+     * Constructs a snapshot. The arrays are owned by the snapshot and must not be modified afterwards.
+     *
+     * @param version the number of published state changes
+     * @param roundNumber the round number
+     * @param currentPlayer the index of the current player
+     * @param direction the direction of play
+     * @param currentColor the current active color
+     * @param gameOver whether the game is over
+     * @param winner the index of the winner, or -1
+     * @param scores the score of each player
+     * @param hands the faces of each player's hand
+     * @param drawPileSize the number of cards in the draw pile
+     * @param topFace the face on top of the discard pile, or -1
+     */
+    GameSnapshot(long version, int roundNumber, int currentPlayer, int direction, CardColor currentColor,
+                 boolean gameOver, int winner, int[] scores, int[][] hands, int drawPileSize, int topFace) {
+        this.version = version;
+        this.roundNumber = roundNumber;
+        this.currentPlayer = currentPlayer;
+        this.direction = direction;
+        this.currentColor = currentColor;
+        this.gameOver = gameOver;
+        this.winner = winner;
+        this.scores = scores;
+        this.hands = hands;
+        this.drawPileSize = drawPileSize;
+        this.topFace = topFace;
+    }
+
+    /**
+     * Returns the number of state changes published before this snapshot; later snapshots have higher versions.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the round number.
+     *
+     * @return the round number
+     */
+    public int getRoundNumber() {
+        return roundNumber;
+    }
+
+    /**
+     * Returns the number of players.
+     *
+     * @return the player count
+     */
+    public int getPlayerCount() {
+        return scores.length;
+    }
+
+    /**
+     * Returns the index of the current player.
+     *
+     * @return the current player index
+     */
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Returns the direction of play.
+     *
+     * @return 1 for forward and -1 for backward
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    /**
+     * Returns the current active color.
+     *
+     * @return the current color, or {@code null} before the game starts
+     */
+    public CardColor getCurrentColor() {
+        return currentColor;
+    }
+
+    /**
+     * Checks whether the game is over.
+     *
+     * @return {@code true} if the game is over; {@code false} otherwise
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Returns the index of the winner.
+     *
+     * @return the winner index, or -1 while the game is running
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Returns the score of a player.
+     *
+     * @param seat the index of the player
+     * @return the player's score
+     */
+    public int getScore(int seat) {
+        return scores[seat];
+    }
+
+    /**
+     * Returns the number of cards in a player's hand.
+     *
+     * @param seat the index of the player
+     * @return the hand size
+     */
+    public int getHandSize(int seat) {
+        return hands[seat].length;
+    }
+
+    /**
+     * Returns copies of the cards in a player's hand.
+     *
+     * @param seat the index of the player
+     * @return a new list of new card instances
+     */
+    public List<Card> getHand(int seat) {
+        List<Card> hand = new ArrayList<>(hands[seat].length);
+        for (int face : hands[seat]) {
+            hand.add(CardCatalog.newCard(face));
+        }
+        return hand;
+    }
+
+    /**
+     * Returns the number of cards in the draw pile.
+     *
+     * @return the draw pile size
+     */
+    public int getDrawPileSize() {
+        return drawPileSize;
+    }
+
+    /**
+     * Returns a copy of the card on top of the discard pile.
+     *
+     * @return a new card instance, or {@code null} if the discard pile is empty
+     */
+    public Card getTopCard() {
+        return topFace < 0 ? null : CardCatalog.newCard(topFace);
+    }
+}
@@ -0,0 +1,38 @@
+package com.duocardgame;
+
+import java.util.Random;
+
+/**
+ * A strategy that gets rid of points as fast as possible.
+ * <p>
+ * The highest scoring playable non-wild card is played first, so fewer points are left in hand when an
+ * opponent wins the round. Wild cards are kept as a last resort.
+ * </p>
+ */
+public class GreedyScoreStrategy implements PlayerStrategy {
+    /** The shared instance; the strategy has no state. */
+    public static final GreedyScoreStrategy INSTANCE = new GreedyScoreStrategy();
+
+    /**
+     * Chooses the highest scoring playable card, preferring non-wild cards.
+     *
+     * @param player the player whose turn it is
+     * @param topCard the card on the top of the discard pile
+     * @param random the game's random number generator (unused)
+     * @return a playable card if one exists; otherwise, {@code null}
+     */
+    @Override
+    public Card choosePlayableCard(Player player, Card topCard, Random random) {
+        Card best = null;
+        Card wild = null;
+        for (Card c : player.getHandView()) {
+            if (!c.isPlayable(topCard)) continue;
+            if (c.getColor() == CardColor.WILD) {
+                if (wild == null || c.getScore() > wild.getScore()) wild = c;
+            } else if (best == null || c.getScore() > best.getScore()) {
+                best = c;
+            }
+        }
+        return best != null ? best : wild;
+    }
+}
@@ -0,0 +1,158 @@
+package com.duocardgame;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Searches for good {@link HeuristicWeights} by playing each candidate against the original heuristic.
+ * <p>
+ * Each candidate takes every seat in turn while {@link RandomHeuristicStrategy} fills the others, over the
+ * same seed blocks for every candidate. Games run through a {@link SimulationCache}, which stores every
+ * block of seeds as soon as it is played, so an interrupted sweep picks up where it stopped without
+ * replaying anything.
+ * </p>
+ * <p>
+ * Usage: {@code HeuristicSweep [grid | random <count>] [gamesPerSeat] [players] [cacheDir]}
+ * </p>
+ */
+public class HeuristicSweep {
+    /** The seed of the first game of every candidate. */
+    private static final long FIRST_SEED = 1;
+
+    /** The maximum size of the result cache in bytes. */
+    private static final long CACHE_BYTES = 64L * 1024 * 1024;
+
+    /** The number of games per seat for each candidate. */
+    private final int gamesPerSeat;
+
+    /** The number of players per game. */
+    private final int players;
+
+    /** The cache of evaluated seed blocks. */
+    private final SimulationCache cache;
+
+    /**
+     * Constructs a sweep backed by the given result cache.
+     *
+     * @param gamesPerSeat the number of games per seat for each candidate
+     * @param players the number of players per game
+     * @param cache the cache of evaluated seed blocks
+     */
+    public HeuristicSweep(int gamesPerSeat, int players, SimulationCache cache) {
+        this.gamesPerSeat = gamesPerSeat;
+        this.players = players;
+        this.cache = cache;
+    }
+
+    /**
+     * Evaluates a candidate and returns the fraction of games it won.
+     *
+     * @param weights the candidate weights
+     * @return the candidate's win rate over all seats
+     * @throws IOException if the cache cannot be accessed
+     */
+    public double evaluate(HeuristicWeights weights) throws IOException {
+        PlayerStrategy candidate = new WeightedHeuristicStrategy(weights);
+        long games = 0;
+        long wins = 0;
+        for (int seat = 0; seat < players; seat++) {
+            SimulationResult result = cache.run(seating(candidate, seat), FIRST_SEED, gamesPerSeat);
+            games += result.getGames();
+            wins += result.getWins(seat);
+        }
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    /**
+     * Builds a seating with the candidate in one seat and the original heuristic in the others.
+     *
+     * @param candidate the candidate strategy
+     * @param seat the seat of the candidate
+     * @return the strategy of each seat
+     */
+    private List<PlayerStrategy> seating(PlayerStrategy candidate, int seat) {
+        List<PlayerStrategy> seats = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            seats.add(i == seat ? candidate : RandomHeuristicStrategy.INSTANCE);
+        }
+        return seats;
+    }
+
+    /**
+     * Returns every combination of a small grid of weights.
+     *
+     * @return the grid candidates
+     */
+    static List<HeuristicWeights> grid() {
+        List<HeuristicWeights> candidates = new ArrayList<>();
+        for (double bias : new double[] { 0, 0.25, 0.5, 0.75, 1 }) {
+            for (double sameScore : new double[] { -1, 0, 1 }) {
+                for (double otherScore : new double[] { -1, 0, 1 }) {
+                    for (double wildFirst : new double[] { 0, 1 }) {
+                        candidates.add(new HeuristicWeights(bias, sameScore, otherScore, wildFirst));
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Returns randomly sampled weights; the sample is fixed by the seed so resumed sweeps reuse the cache.
+     *
+     * @param count the number of candidates
+     * @param seed the sampling seed
+     * @return the sampled candidates
+     */
+    static List<HeuristicWeights> randomSample(int count, long seed) {
+        Random random = new Random(seed);
+        List<HeuristicWeights> candidates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            candidates.add(new HeuristicWeights(
+                    Math.round(random.nextDouble() * 20) / 20.0,
+                    Math.round((random.nextDouble() * 2 - 1) * 20) / 20.0,
+                    Math.round((random.nextDouble() * 2 - 1) * 20) / 20.0,
+                    Math.round(random.nextDouble() * 20) / 20.0));
+        }
+        return candidates;
+    }
+
+    /**
+     * Runs a sweep and prints the candidates ordered by win rate.
+     *
+     * @param args the search mode followed by optional games per seat, player count and cache directory
+     * @throws IOException if the cache cannot be accessed
+     */
+    public static void main(String[] args) throws IOException {
+        int next = 0;
+        List<HeuristicWeights> candidates;
+        if (args.length > 1 && args[0].equals("random")) {
+            candidates = randomSample(Integer.parseInt(args[1]), 42);
+            next = 2;
+        } else {
+            candidates = grid();
+            next = args.length > 0 && args[0].equals("grid") ? 1 : 0;
+        }
+        int gamesPerSeat = args.length > next ? Integer.parseInt(args[next]) : 2000;
+        int players = args.length > next + 1 ? Integer.parseInt(args[next + 1]) : 2;
+        Path cacheDir = Paths.get(args.length > next + 2 ? args[next + 2] : "Files/simulation_cache");
+
+        HeuristicSweep sweep = new HeuristicSweep(gamesPerSeat, players, new SimulationCache(cacheDir, CACHE_BYTES));
+        Map<HeuristicWeights, Double> results = new LinkedHashMap<>();
+        results.put(HeuristicWeights.DEFAULT, sweep.evaluate(HeuristicWeights.DEFAULT));
+        for (HeuristicWeights weights : candidates) {
+            results.put(weights, sweep.evaluate(weights));
+        }
+
+        List<Map.Entry<HeuristicWeights, Double>> ranking = new ArrayList<>(results.entrySet());
+        ranking.sort(Map.Entry.<HeuristicWeights, Double>comparingByValue().reversed());
+        double fair = 1.0 / players;
+        System.out.printf("Win rate against %d-player RandomHeuristic tables (fair share %.4f)%n", players, fair);
+        for (Map.Entry<HeuristicWeights, Double> entry : ranking) {
+            System.out.printf("%.4f  %s%s%n", entry.getValue(), entry.getKey(),
+                    entry.getKey() == HeuristicWeights.DEFAULT ? "  (default)" : "");
+        }
+    }
+}
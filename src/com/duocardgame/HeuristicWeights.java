@@ -0,0 +1,108 @@
+package com.duocardgame;
+
+import java.util.Locale;
+
+/**
+ * The tunable parameters of {@link WeightedHeuristicStrategy}.
+ * <p>
+ * The defaults follow the decision rule of {@link RandomHeuristicStrategy}: a 50/50 coin flip between
+ * same-color and different-colored cards, the highest scoring same-color card first, a random
+ * different-colored card, and wild cards as a last resort. They do not replay its seeded games, since
+ * {@link WeightedHeuristicStrategy} draws from the game's random generator differently: a
+ * {@code nextDouble()} for each coin flip and extra draws to break ties, including ties between equally
+ * scoring same-color cards, which {@link RandomHeuristicStrategy} resolves by hand order instead.
+ * </p>
+ */
+public final class HeuristicWeights {
+    /** The weights of the original heuristic. */
+    public static final HeuristicWeights DEFAULT = new HeuristicWeights(0.5, 1, 0, 0);
+
+    /** The probability of preferring a same-color card over a different-colored one. */
+    private final double sameColorBias;
+
+    /** Ordering of same-color cards: positive plays high scores first, negative low scores first, zero at random. */
+    private final double sameColorScoreWeight;
+
+    /** Ordering of different-colored cards, with the same meaning as {@link #sameColorScoreWeight}. */
+    private final double otherColorScoreWeight;
+
+    /** The probability of playing a wild card before any colored card. */
+    private final double wildFirstProbability;
+
+    /**
+     * Constructs a set of weights.
+     *
+     * @param sameColorBias the probability of preferring a same-color card, between 0 and 1
+     * @param sameColorScoreWeight the score ordering of same-color cards
+     * @param otherColorScoreWeight the score ordering of different-colored cards
+     * @param wildFirstProbability the probability of playing a wild card first, between 0 and 1
+     * @throws IllegalArgumentException if a probability is outside [0, 1]
+     */
+    public HeuristicWeights(double sameColorBias, double sameColorScoreWeight,
+                            double otherColorScoreWeight, double wildFirstProbability) {
+        if (sameColorBias < 0 || sameColorBias > 1 || wildFirstProbability < 0 || wildFirstProbability > 1) {
+            throw new IllegalArgumentException("Probabilities must be between 0 and 1");
+        }
+        this.sameColorBias = sameColorBias;
+        this.sameColorScoreWeight = sameColorScoreWeight;
+        this.otherColorScoreWeight = otherColorScoreWeight;
+        this.wildFirstProbability = wildFirstProbability;
+    }
+
+    /**
+     * Returns the probability of preferring a same-color card.
+     *
+     * @return the same-color bias
+     */
+    public double getSameColorBias() {
+        return sameColorBias;
+    }
+
+    /**
+     * Returns the score ordering of same-color cards.
+     *
+     * @return the same-color score weight
+     */
+    public double getSameColorScoreWeight() {
+        return sameColorScoreWeight;
+    }
+
+    /**
+     * Returns the score ordering of different-colored cards.
+     *
+     * @return the different-color score weight
+     */
+    public double getOtherColorScoreWeight() {
+        return otherColorScoreWeight;
+    }
+
+    /**
+     * Returns the probability of playing a wild card before any colored card.
+     *
+     * @return the wild-first probability
+     */
+    public double getWildFirstProbability() {
+        return wildFirstProbability;
+    }
+
+    /**
+     * Returns a stable textual key identifying these weights, used for caching evaluation results.
+     *
+     * @return the key
+     */
+    public String toKey() {
+        return String.format(Locale.ROOT, "%.4f,%.4f,%.4f,%.4f",
+                sameColorBias, sameColorScoreWeight, otherColorScoreWeight, wildFirstProbability);
+    }
+
+    /**
+     * Returns a string representation of the weights.
+     *
+     * @return a string representing these weights
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "sameColorBias=%.2f sameColorScore=%.2f otherColorScore=%.2f wildFirst=%.2f",
+                sameColorBias, sameColorScoreWeight, otherColorScoreWeight, wildFirstProbability);
+    }
+}
@@ -37,6 +37,14 @@ public interface IGameMediator {
      */
     void setDeck(Deck deck);
     
+    /**
+     * Draws cards from the deck directly into a player's hand.
+     *
+     * @param player the player receiving the cards
+     * @param count the number of cards to draw
+     */
+    void drawCards(Player player, int count);
+    
     /**
      * Selects the dealer for the game.
      * <p>
@@ -51,4 +59,18 @@ public interface IGameMediator {
      * Ends the current round.
      */
     void endRound();
+    
+    /**
+     * Reports a game event, such as a played card or an executed effect.
+     *
+     * @param message the message describing the event
+     */
+    void log(String message);
+
+    /**
+     * Checks whether messages passed to {@link #log(String)} are recorded, so that callers can skip building them.
+     *
+     * @return {@code true} if messages are recorded; {@code false} otherwise
+     */
+    boolean isLogging();
 }
@@ -0,0 +1,293 @@
+package com.duocardgame;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import jdk.jfr.consumer.*;
+
+/**
+ * Summarizes the engine events of a Java Flight Recorder recording.
+ * <p>
+ * The engine emits {@link RoundEvent}, {@link ActionEffectEvent}, {@link ReshuffleEvent} and
+ * {@link CsvFlushEvent}. This tool groups them into phases, with action effects split by action type, and
+ * ranks the phases by total time with the count, mean, median, 99th percentile and maximum duration of
+ * each. To correlate the engine with the JVM, it also reports the garbage collection pauses that fell
+ * inside rounds and the engine methods most often on top of the CPU execution samples.
+ * </p>
+ * <p>
+ * Record with, for example,
+ * {@code java -XX:StartFlightRecording=filename=game.jfr,settings=profile -cp out com.duocardgame.FastSimulationMain}
+ * and then run {@code JfrReport game.jfr [topMethods]}. Action effects are only recorded when their event is
+ * enabled as well, by adding {@code +com.duocardgame.ActionEffect#enabled=true} to the recording options.
+ * </p>
+ */
+public final class JfrReport {
+    /** The prefix of the names of the engine's events. */
+    private static final String EVENT_PREFIX = "com.duocardgame.";
+
+    /** The prefix of the engine's classes in stack frames. */
+    private static final String CLASS_PREFIX = "com.duocardgame.";
+
+    /** The durations of one phase. */
+    private static final class Phase {
+        /** The durations recorded so far, in nanoseconds. */
+        private long[] durations = new long[64];
+
+        /** The number of durations recorded. */
+        private int count;
+
+        /** The sum of the durations, in nanoseconds. */
+        private long total;
+
+        /**
+         * Adds the duration of one occurrence of the phase.
+         *
+         * @param nanos the duration in nanoseconds
+         */
+        void add(long nanos) {
+            if (count == durations.length) {
+                durations = Arrays.copyOf(durations, count * 2);
+            }
+            durations[count++] = nanos;
+            total += nanos;
+        }
+
+        /**
+         * Returns a percentile of the recorded durations; the durations must be sorted.
+         *
+         * @param fraction the percentile as a fraction between 0 and 1
+         * @return the duration at the percentile, in nanoseconds
+         */
+        long percentile(double fraction) {
+            return durations[Math.min(count - 1, (int) (fraction * count))];
+        }
+    }
+
+    /** The phases by name, in order of first appearance. */
+    private final Map<String, Phase> phases = new LinkedHashMap<>();
+
+    /** The start and end of every round, in nanoseconds since the epoch, as pairs. */
+    private long[] rounds = new long[128];
+
+    /** The number of values in {@link #rounds}. */
+    private int roundValues;
+
+    /** The points earned per round, summed. */
+    private long roundPoints;
+
+    /** The start and duration of every garbage collection, in nanoseconds, as pairs. */
+    private final List<long[]> collections = new ArrayList<>();
+
+    /** The number of CPU execution samples. */
+    private long samples;
+
+    /** The number of CPU execution samples with an engine method on the stack. */
+    private long engineSamples;
+
+    /** The number of samples whose innermost engine frame is each method. */
+    private final Map<String, Long> hotMethods = new HashMap<>();
+
+    /** The time of the first event of the recording. */
+    private Instant first;
+
+    /** The time of the last event of the recording. */
+    private Instant last;
+
+    /**
+     * Reads every event of a recording.
+     *
+     * @param file the recording file
+     * @throws IOException if the recording cannot be read
+     */
+    public void read(Path file) throws IOException {
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                accept(recording.readEvent());
+            }
+        }
+    }
+
+    /**
+     * Accumulates one event.
+     *
+     * @param event the event
+     */
+    private void accept(RecordedEvent event) {
+        Instant start = event.getStartTime();
+        if (first == null || start.isBefore(first)) first = start;
+        if (last == null || event.getEndTime().isAfter(last)) last = event.getEndTime();
+
+        String type = event.getEventType().getName();
+        long nanos = event.getDuration().toNanos();
+        if (type.startsWith(EVENT_PREFIX)) {
+            String phase = event.getEventType().getLabel();
+            if (type.equals(EVENT_PREFIX + "ActionEffect")) {
+                phase += " " + event.getString("action");
+            } else if (type.equals(EVENT_PREFIX + "Round")) {
+                addRound(epochNanos(start), nanos);
+                roundPoints += event.getInt("points");
+            }
+            phases.computeIfAbsent(phase, name -> new Phase()).add(nanos);
+        } else if (type.equals("jdk.GarbageCollection")) {
+            collections.add(new long[] { epochNanos(start), nanos });
+        } else if (type.equals("jdk.ExecutionSample")) {
+            samples++;
+            String method = innermostEngineMethod(event.getStackTrace());
+            if (method != null) {
+                engineSamples++;
+                hotMethods.merge(method, 1L, Long::sum);
+            }
+        }
+    }
+
+    /**
+     * Records the interval of one round.
+     *
+     * @param start the start of the round in nanoseconds since the epoch
+     * @param nanos the duration of the round
+     */
+    private void addRound(long start, long nanos) {
+        if (roundValues == rounds.length) {
+            rounds = Arrays.copyOf(rounds, roundValues * 2);
+        }
+        rounds[roundValues++] = start;
+        rounds[roundValues++] = start + nanos;
+    }
+
+    /**
+     * Returns the innermost engine method of a stack trace.
+     *
+     * @param stack the stack trace, or {@code null}
+     * @return the method as {@code Class.method}, or {@code null} if no engine method is on the stack
+     */
+    private static String innermostEngineMethod(RecordedStackTrace stack) {
+        if (stack == null) {
+            return null;
+        }
+        for (RecordedFrame frame : stack.getFrames()) {
+            RecordedMethod method = frame.getMethod();
+            String type = method.getType().getName();
+            if (type.startsWith(CLASS_PREFIX)) {
+                return type.substring(CLASS_PREFIX.length()) + "." + method.getName();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Converts an instant to nanoseconds since the epoch.
+     *
+     * @param instant the instant
+     * @return the nanoseconds since the epoch
+     */
+    private static long epochNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    /**
+     * Returns the total garbage collection time that fell inside at least one round.
+     *
+     * @return the overlapping collection time in nanoseconds
+     */
+    private long collectionNanosInRounds() {
+        // Merge the round intervals, which overlap when several games run in parallel.
+        int count = roundValues / 2;
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) order[i] = i;
+        Arrays.sort(order, (x, y) -> Long.compare(rounds[2 * x], rounds[2 * y]));
+        long[] starts = new long[count];
+        long[] ends = new long[count];
+        int merged = 0;
+        for (int i : order) {
+            long start = rounds[2 * i];
+            long end = rounds[2 * i + 1];
+            if (merged > 0 && start <= ends[merged - 1]) {
+                ends[merged - 1] = Math.max(ends[merged - 1], end);
+            } else {
+                starts[merged] = start;
+                ends[merged] = end;
+                merged++;
+            }
+        }
+
+        long overlap = 0;
+        for (long[] collection : collections) {
+            long start = collection[0];
+            long end = start + collection[1];
+            int index = Arrays.binarySearch(starts, 0, merged, start);
+            int i = index >= 0 ? index : Math.max(0, -index - 2);
+            for (; i < merged && starts[i] < end; i++) {
+                overlap += Math.max(0, Math.min(end, ends[i]) - Math.max(start, starts[i]));
+            }
+        }
+        return overlap;
+    }
+
+    /**
+     * Prints the phase table, the collections inside rounds and the hottest engine methods.
+     *
+     * @param topMethods the number of engine methods to list
+     */
+    public void print(int topMethods) {
+        if (first == null) {
+            System.out.println("The recording holds no events.");
+            return;
+        }
+        System.out.printf("Recording span: %.3f s%n", Duration.between(first, last).toNanos() / 1e9);
+        System.out.println();
+
+        List<Map.Entry<String, Phase>> ranking = new ArrayList<>(phases.entrySet());
+        ranking.sort((x, y) -> Long.compare(y.getValue().total, x.getValue().total));
+        System.out.printf("%-32s %10s %12s %10s %10s %10s %10s%n",
+                "Phase", "Count", "Total ms", "Mean us", "p50 us", "p99 us", "Max us");
+        for (Map.Entry<String, Phase> entry : ranking) {
+            Phase phase = entry.getValue();
+            Arrays.sort(phase.durations, 0, phase.count);
+            System.out.printf("%-32s %10d %12.3f %10.2f %10.2f %10.2f %10.2f%n", entry.getKey(), phase.count,
+                    phase.total / 1e6, phase.total / 1e3 / phase.count, phase.percentile(0.5) / 1e3,
+                    phase.percentile(0.99) / 1e3, phase.durations[phase.count - 1] / 1e3);
+        }
+        if (phases.isEmpty()) {
+            System.out.println("(no engine events; were the com.duocardgame events enabled?)");
+        }
+
+        int roundCount = roundValues / 2;
+        long gcNanos = 0;
+        for (long[] collection : collections) {
+            gcNanos += collection[1];
+        }
+        System.out.println();
+        if (roundCount > 0) {
+            System.out.printf("Rounds: %d, mean points %.1f%n", roundCount, (double) roundPoints / roundCount);
+        }
+        System.out.printf("Garbage collections: %d, %.3f ms in total, %.3f ms inside rounds%n",
+                collections.size(), gcNanos / 1e6, collectionNanosInRounds() / 1e6);
+
+        System.out.printf("CPU samples: %d, %d with engine code on the stack%n", samples, engineSamples);
+        List<Map.Entry<String, Long>> hot = new ArrayList<>(hotMethods.entrySet());
+        hot.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        for (int i = 0; i < Math.min(topMethods, hot.size()); i++) {
+            Map.Entry<String, Long> entry = hot.get(i);
+            System.out.printf("  %6.2f%%  %s%n", 100.0 * entry.getValue() / engineSamples, entry.getKey());
+        }
+    }
+
+    /**
+     * Reads a recording and prints its report.
+     *
+     * @param args the recording file and the optional number of engine methods to list
+     * @throws IOException if the recording cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: JfrReport <recording.jfr> [topMethods]");
+            System.exit(2);
+        }
+        JfrReport report = new JfrReport();
+        report.read(Paths.get(args[0]));
+        report.print(args.length > 1 ? Integer.parseInt(args[1]) : 15);
+    }
+}
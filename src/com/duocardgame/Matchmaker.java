@@ -0,0 +1,397 @@
+package com.duocardgame;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Forms tables of 2 to 4 waiting players, grouped by skill band and latency region, and creates their games.
+ * <p>
+ * Waiting players are kept in one lock-free queue per region and skill band, so any number of lobby threads
+ * can enqueue at once. The queues are first-in first-out, which makes the head of each queue its longest
+ * waiting player. A single matching thread calls {@link #matchBatch(List, int)}: it first fills whole tables
+ * of {@link #MAX_TABLE} from every band that has enough players, and then lets the head of each remaining band
+ * search a window that widens with its wait, by one neighbouring band every {@code widenMillis} and across
+ * all regions after {@code crossRegionMillis}. A head that has waited {@code shrinkMillis} also accepts a
+ * table of fewer than {@link #MAX_TABLE} players.
+ * </p>
+ * <p>
+ * The games of a batch are created together once its tables are formed, with seeds counting up from the
+ * matchmaker's first seed.
+ * </p>
+ */
+public class Matchmaker {
+    /** The smallest table, as chosen by {@link DuoCardGame#startGame()}. */
+    public static final int MIN_TABLE = 2;
+
+    /** The largest table, as chosen by {@link DuoCardGame#startGame()}. */
+    public static final int MAX_TABLE = 4;
+
+    /** A player waiting for a table. */
+    public static final class Ticket {
+        /** The lobby's id of the player. */
+        private final long playerId;
+
+        /** The skill rating of the player. */
+        private final int skill;
+
+        /** The latency region of the player. */
+        private final int region;
+
+        /** The strategy that plays the player's seat. */
+        private final PlayerStrategy strategy;
+
+        /** The time the player started waiting, from {@link System#nanoTime()}. */
+        private final long enqueuedNanos;
+
+        /**
+         * Constructs a ticket.
+         *
+         * @param playerId the lobby's id of the player
+         * @param skill the skill rating of the player
+         * @param region the latency region of the player
+         * @param strategy the strategy that plays the player's seat
+         * @param enqueuedNanos the time the player started waiting
+         */
+        private Ticket(long playerId, int skill, int region, PlayerStrategy strategy, long enqueuedNanos) {
+            this.playerId = playerId;
+            this.skill = skill;
+            this.region = region;
+            this.strategy = strategy;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
+        /**
+         * Returns the lobby's id of the player.
+         *
+         * @return the player id
+         */
+        public long getPlayerId() {
+            return playerId;
+        }
+
+        /**
+         * Returns the skill rating of the player.
+         *
+         * @return the skill rating
+         */
+        public int getSkill() {
+            return skill;
+        }
+
+        /**
+         * Returns the latency region of the player.
+         *
+         * @return the region
+         */
+        public int getRegion() {
+            return region;
+        }
+
+        /**
+         * Returns the time the player started waiting.
+         *
+         * @return the enqueue time, from {@link System#nanoTime()}
+         */
+        public long getEnqueuedNanos() {
+            return enqueuedNanos;
+        }
+    }
+
+    /** A formed table and the game created for it. */
+    public static final class Match {
+        /** The players of the table, in seat order. */
+        private final Ticket[] tickets;
+
+        /** The time the table was formed, from {@link System#nanoTime()}. */
+        private final long formedNanos;
+
+        /** The game of the table; created once the whole batch is formed. */
+        private DuoCardGame game;
+
+        /**
+         * Constructs a match.
+         *
+         * @param tickets the players of the table, in seat order
+         * @param formedNanos the time the table was formed
+         */
+        private Match(Ticket[] tickets, long formedNanos) {
+            this.tickets = tickets;
+            this.formedNanos = formedNanos;
+        }
+
+        /**
+         * Returns the number of players at the table.
+         *
+         * @return the table size
+         */
+        public int size() {
+            return tickets.length;
+        }
+
+        /**
+         * Returns the player in a seat.
+         *
+         * @param seat the seat index
+         * @return the ticket of the player
+         */
+        public Ticket getTicket(int seat) {
+            return tickets[seat];
+        }
+
+        /**
+         * Returns how long a seated player waited for the table.
+         *
+         * @param seat the seat index
+         * @return the wait in nanoseconds
+         */
+        public long getWaitNanos(int seat) {
+            return formedNanos - tickets[seat].enqueuedNanos;
+        }
+
+        /**
+         * Returns the game created for the table; seat {@code i} is played by {@link #getTicket(int) ticket i}.
+         *
+         * @return the game, ready for {@link DuoCardGame#startGame()}
+         */
+        public DuoCardGame getGame() {
+            return game;
+        }
+    }
+
+    /** The number of latency regions. */
+    private final int regions;
+
+    /** The number of skill bands per region. */
+    private final int bands;
+
+    /** The width of a skill band in rating points. */
+    private final int bandWidth;
+
+    /** The wait after which a search widens by one more band on each side, in nanoseconds. */
+    private final long widenNanos;
+
+    /** The wait after which a search includes every region, in nanoseconds. */
+    private final long crossRegionNanos;
+
+    /** The wait after which a table of fewer than {@link #MAX_TABLE} players is accepted, in nanoseconds. */
+    private final long shrinkNanos;
+
+    /** The waiting players of each region and band, at index {@code region * bands + band}, oldest first. */
+    private final ConcurrentLinkedQueue<Ticket>[] queues;
+
+    /**
+     * The number of players in each queue. Enqueuing offers before incrementing, so a positive count
+     * guarantees the matching thread a ticket to poll.
+     */
+    private final AtomicInteger[] counts;
+
+    /** The seed of the next game. Only used by the matching thread. */
+    private long nextSeed;
+
+    /** The tickets of the table being gathered. Only used by the matching thread. */
+    private final Ticket[] gathered = new Ticket[MAX_TABLE];
+
+    /**
+     * Constructs an empty matchmaker.
+     *
+     * @param regions the number of latency regions
+     * @param maxSkill the highest skill rating; higher ratings share the top band
+     * @param bandWidth the width of a skill band in rating points
+     * @param widenMillis the wait after which a search widens by one more band on each side
+     * @param crossRegionMillis the wait after which a search includes every region
+     * @param shrinkMillis the wait after which a table of fewer than {@link #MAX_TABLE} players is accepted
+     * @param firstSeed the seed of the first game
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public Matchmaker(int regions, int maxSkill, int bandWidth, long widenMillis, long crossRegionMillis,
+            long shrinkMillis, long firstSeed) {
+        this.regions = regions;
+        this.bands = maxSkill / bandWidth + 1;
+        this.bandWidth = bandWidth;
+        this.widenNanos = widenMillis * 1_000_000;
+        this.crossRegionNanos = crossRegionMillis * 1_000_000;
+        this.shrinkNanos = shrinkMillis * 1_000_000;
+        this.nextSeed = firstSeed;
+        queues = new ConcurrentLinkedQueue[regions * bands];
+        counts = new AtomicInteger[regions * bands];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ConcurrentLinkedQueue<>();
+            counts[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Puts a player in the queue of their region and skill band. Safe to call from any thread.
+     *
+     * @param playerId the lobby's id of the player
+     * @param skill the skill rating of the player
+     * @param region the latency region of the player
+     * @param strategy the strategy that plays the player's seat
+     * @return the player's ticket
+     */
+    public Ticket enqueue(long playerId, int skill, int region, PlayerStrategy strategy) {
+        Ticket ticket = new Ticket(playerId, skill, region, strategy, System.nanoTime());
+        int queue = region * bands + Math.min(bands - 1, Math.max(0, skill / bandWidth));
+        queues[queue].offer(ticket);
+        counts[queue].incrementAndGet();
+        return ticket;
+    }
+
+    /**
+     * Returns the number of players waiting for a table.
+     *
+     * @return the waiting count
+     */
+    public int getWaiting() {
+        int waiting = 0;
+        for (AtomicInteger count : counts) {
+            waiting += count.get();
+        }
+        return waiting;
+    }
+
+    /**
+     * Returns how long every waiting player has waited so far. Safe to call from any thread; players enqueued
+     * or matched during the call may or may not be included.
+     *
+     * @param now the current time, from {@link System#nanoTime()}
+     * @return the waits in nanoseconds, in no particular order
+     */
+    public long[] getWaitNanos(long now) {
+        long[] waits = new long[getWaiting()];
+        int count = 0;
+        for (ConcurrentLinkedQueue<Ticket> queue : queues) {
+            for (Ticket ticket : queue) {
+                if (count == waits.length) waits = Arrays.copyOf(waits, count * 2 + 1);
+                waits[count++] = now - ticket.enqueuedNanos;
+            }
+        }
+        return Arrays.copyOf(waits, count);
+    }
+
+    /**
+     * Forms up to the given number of tables and creates their games. Must only be called by one thread at
+     * a time.
+     *
+     * @param out the list receiving the matches
+     * @param maxMatches the largest number of tables to form
+     * @return the number of tables formed
+     */
+    public int matchBatch(List<Match> out, int maxMatches) {
+        int first = out.size();
+        long now = System.nanoTime();
+        // Full tables from single bands need no search.
+        for (int queue = 0; queue < queues.length && out.size() - first < maxMatches; queue++) {
+            while (counts[queue].get() >= MAX_TABLE && out.size() - first < maxMatches) {
+                for (int i = 0; i < MAX_TABLE; i++) {
+                    gathered[i] = take(queue);
+                }
+                out.add(new Match(Arrays.copyOf(gathered, MAX_TABLE), now));
+            }
+        }
+        // The remaining heads search their widening windows.
+        for (int queue = 0; queue < queues.length && out.size() - first < maxMatches; queue++) {
+            Ticket head = queues[queue].peek();
+            if (head != null) {
+                Match match = search(queue, now - head.enqueuedNanos, now);
+                if (match != null) out.add(match);
+            }
+        }
+        for (int i = first; i < out.size(); i++) {
+            Match match = out.get(i);
+            List<PlayerStrategy> strategies = new ArrayList<>(match.tickets.length);
+            for (Ticket ticket : match.tickets) {
+                strategies.add(ticket.strategy);
+            }
+            DuoCardGame game = new DuoCardGame(nextSeed++, strategies);
+            game.setVerbose(false);
+            game.setLogger(null);
+            match.game = game;
+        }
+        return out.size() - first;
+    }
+
+    /**
+     * Gathers a table around the head of a queue from the bands and regions its wait allows, nearest first.
+     *
+     * @param queue the queue of the waiting head
+     * @param waited how long the head has waited, in nanoseconds
+     * @param now the current time
+     * @return the match, or {@code null} if the window does not hold enough players yet
+     */
+    private Match search(int queue, long waited, long now) {
+        int region = queue / bands;
+        int band = queue % bands;
+        int reach = (int) Math.min(bands - 1, waited / widenNanos);
+        int needed = waited >= shrinkNanos ? MIN_TABLE : MAX_TABLE;
+        boolean anyRegion = waited >= crossRegionNanos;
+
+        int available = 0;
+        for (int r = 0; r < regions && available < MAX_TABLE; r++) {
+            if (r != region && !anyRegion) continue;
+            for (int d = 0; d <= reach && available < MAX_TABLE; d++) {
+                available += countAt(r, band - d);
+                if (d > 0) available += countAt(r, band + d);
+            }
+        }
+        if (available < needed) {
+            return null;
+        }
+
+        int size = Math.min(available, MAX_TABLE);
+        int taken = 0;
+        // The head's own region first, then the others, each from the nearest bands outwards.
+        for (int pass = 0; pass < regions && taken < size; pass++) {
+            int r = (region + pass) % regions;
+            if (pass > 0 && !anyRegion) break;
+            for (int d = 0; d <= reach && taken < size; d++) {
+                taken = takeAll(r, band - d, size, taken);
+                if (d > 0) taken = takeAll(r, band + d, size, taken);
+            }
+        }
+        return new Match(Arrays.copyOf(gathered, taken), now);
+    }
+
+    /**
+     * Returns the number of players in a queue, or 0 for a band outside the range.
+     *
+     * @param region the region
+     * @param band the skill band
+     * @return the waiting count
+     */
+    private int countAt(int region, int band) {
+        return band < 0 || band >= bands ? 0 : counts[region * bands + band].get();
+    }
+
+    /**
+     * Moves players from a queue into the table being gathered until it reaches the wanted size.
+     *
+     * @param region the region
+     * @param band the skill band
+     * @param size the wanted table size
+     * @param taken the number of players gathered so far
+     * @return the number of players gathered now
+     */
+    private int takeAll(int region, int band, int size, int taken) {
+        if (band < 0 || band >= bands) {
+            return taken;
+        }
+        int queue = region * bands + band;
+        while (taken < size && counts[queue].get() > 0) {
+            gathered[taken++] = take(queue);
+        }
+        return taken;
+    }
+
+    /**
+     * Removes the oldest player from a queue whose count is positive.
+     *
+     * @param queue the queue
+     * @return the ticket of the player
+     */
+    private Ticket take(int queue) {
+        counts[queue].decrementAndGet();
+        return queues[queue].poll();
+    }
+}
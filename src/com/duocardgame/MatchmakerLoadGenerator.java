@@ -0,0 +1,200 @@
+package com.duocardgame;
+
+import java.util.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures the throughput and wait times of a {@link Matchmaker} under a steady synthetic lobby load.
+ * <p>
+ * Producer threads enqueue players at a fixed total arrival rate, with normally distributed skill ratings
+ * and uniformly distributed regions, while the main thread forms tables in batches. At the end the tool
+ * prints the matches per second, the percentiles of the time players waited, the share of each table size
+ * and how many tables mixed regions. The wait percentiles cover every player: those who got a table count
+ * their wait until it was formed, and those still waiting at the end count their wait so far.
+ * </p>
+ * <p>
+ * While the matchmaker keeps up, the matches per second only follow the arrival rate. The tool therefore
+ * also measures the matchmaker's ceiling: a second matchmaker is filled with a backlog of players up front
+ * and the main thread forms tables as fast as it can until none are left to form.
+ * </p>
+ * <p>
+ * Usage: {@code MatchmakerLoadGenerator [playersPerSecond] [seconds] [producers] [regions] [backlog]}
+ * </p>
+ */
+public class MatchmakerLoadGenerator {
+    /** The highest skill rating. */
+    private static final int MAX_SKILL = 3000;
+
+    /** The width of a skill band. */
+    private static final int BAND_WIDTH = 100;
+
+    /** The interval between two bursts of arrivals from a producer, in nanoseconds. */
+    private static final long BURST_NANOS = 1_000_000;
+
+    /** The largest number of tables formed per batch. */
+    private static final int BATCH = 1024;
+
+    /**
+     * Runs the load and prints the report.
+     *
+     * @param args optional arrival rate, duration, producer count, region count and backlog size
+     * @throws InterruptedException if interrupted while waiting for the producers
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int producerCount = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int regions = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        int backlog = args.length > 4 ? Integer.parseInt(args[4]) : 1_000_000;
+
+        Matchmaker matchmaker = new Matchmaker(regions, MAX_SKILL, BAND_WIDTH, 200, 2000, 3000, 1);
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        Thread[] producers = new Thread[producerCount];
+        for (int p = 0; p < producerCount; p++) {
+            int index = p;
+            producers[p] = new Thread(() -> produce(matchmaker, index, rate / producerCount, regions, start, end),
+                    "lobby-" + p);
+            producers[p].start();
+        }
+
+        List<Matchmaker.Match> batch = new ArrayList<>(BATCH);
+        long[] waits = new long[1 << 16];
+        int waitCount = 0;
+        long matches = 0;
+        long mixedRegions = 0;
+        long[] sizes = new long[Matchmaker.MAX_TABLE + 1];
+        while (System.nanoTime() < end) {
+            batch.clear();
+            if (matchmaker.matchBatch(batch, BATCH) == 0) {
+                LockSupport.parkNanos(100_000);
+                continue;
+            }
+            for (Matchmaker.Match match : batch) {
+                matches++;
+                sizes[match.size()]++;
+                int region = match.getTicket(0).getRegion();
+                boolean mixed = false;
+                for (int seat = 0; seat < match.size(); seat++) {
+                    if (waitCount == waits.length) waits = Arrays.copyOf(waits, waitCount * 2);
+                    waits[waitCount++] = match.getWaitNanos(seat);
+                    mixed |= match.getTicket(seat).getRegion() != region;
+                }
+                if (mixed) mixedRegions++;
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        int matched = waitCount;
+        long[] unmatched = matchmaker.getWaitNanos(System.nanoTime());
+        waits = Arrays.copyOf(waits, matched + unmatched.length);
+        System.arraycopy(unmatched, 0, waits, matched, unmatched.length);
+        waitCount = waits.length;
+
+        Arrays.sort(waits, 0, waitCount);
+        System.out.printf("%d players/s for %d s, %d producers, %d regions%n", rate, seconds, producerCount, regions);
+        System.out.printf("%d matches, %.0f matches/s, %.0f of %d arriving players/s seated, %d players still waiting%n",
+                matches, matches / elapsed, matched / elapsed, rate, unmatched.length);
+        System.out.printf("table sizes: 2=%d 3=%d 4=%d, mixed regions %d%n", sizes[2], sizes[3], sizes[4], mixedRegions);
+        if (waitCount > 0) {
+            System.out.printf("wait ms of %d matched and %d waiting: p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                    matched, unmatched.length, percentile(waits, waitCount, 0.5), percentile(waits, waitCount, 0.9),
+                    percentile(waits, waitCount, 0.99), percentile(waits, waitCount, 0.999),
+                    waits[waitCount - 1] / 1e6);
+        }
+        measureCeiling(regions, backlog);
+    }
+
+    /**
+     * Fills a new matchmaker with a backlog of players and forms tables as fast as possible until no more
+     * can be formed, which measures the highest rate the matchmaker sustains on the calling thread.
+     *
+     * @param regions the number of regions
+     * @param backlog the number of players enqueued up front
+     */
+    private static void measureCeiling(int regions, int backlog) {
+        Matchmaker matchmaker = new Matchmaker(regions, MAX_SKILL, BAND_WIDTH, 200, 2000, 3000, 1);
+        SplittableRandom random = new SplittableRandom(-1);
+        for (long playerId = 0; playerId < backlog; playerId++) {
+            enqueueRandom(matchmaker, random, playerId, regions);
+        }
+        List<Matchmaker.Match> batch = new ArrayList<>(BATCH);
+        long matches = 0;
+        long players = 0;
+        long start = System.nanoTime();
+        while (true) {
+            batch.clear();
+            if (matchmaker.matchBatch(batch, BATCH) == 0) break;
+            matches += batch.size();
+            for (Matchmaker.Match match : batch) {
+                players += match.size();
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("ceiling from a backlog of %d players: %d matches in %.2f s, %.0f matches/s, %.0f players/s%n",
+                backlog, matches, elapsed, matches / elapsed, players / elapsed);
+    }
+
+    /**
+     * Enqueues players at a steady rate until the end time.
+     *
+     * @param matchmaker the matchmaker
+     * @param index the index of the producer, used for player ids and the random seed
+     * @param rate the players per second of this producer
+     * @param regions the number of regions
+     * @param start the start time
+     * @param end the end time
+     */
+    private static void produce(Matchmaker matchmaker, int index, int rate, int regions, long start, long end) {
+        SplittableRandom random = new SplittableRandom(index);
+        long playerId = (long) index << 40;
+        double perBurst = rate * (BURST_NANOS / 1e9);
+        double due = 0;
+        for (long next = start; next < end; next += BURST_NANOS) {
+            long delay = next - System.nanoTime();
+            if (delay > 0) LockSupport.parkNanos(delay);
+            due += perBurst;
+            for (; due >= 1; due--) {
+                enqueueRandom(matchmaker, random, playerId++, regions);
+            }
+        }
+    }
+
+    /**
+     * Enqueues a player with a normally distributed skill rating and a uniformly distributed region.
+     *
+     * @param matchmaker the matchmaker
+     * @param random the random number generator
+     * @param playerId the id of the player
+     * @param regions the number of regions
+     */
+    private static void enqueueRandom(Matchmaker matchmaker, SplittableRandom random, long playerId, int regions) {
+        int skill = (int) Math.max(0, Math.min(MAX_SKILL, 1500 + gaussian(random) * 350));
+        matchmaker.enqueue(playerId, skill, random.nextInt(regions), RandomHeuristicStrategy.INSTANCE);
+    }
+
+    /**
+     * Returns a standard normal sample by the Box-Muller transform.
+     *
+     * @param random the random number generator
+     * @return the sample
+     */
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    /**
+     * Returns a percentile of sorted waits in milliseconds.
+     *
+     * @param waits the sorted waits in nanoseconds
+     * @param count the number of waits
+     * @param fraction the percentile as a fraction between 0 and 1
+     * @return the wait at the percentile in milliseconds
+     */
+    private static double percentile(long[] waits, int count, double fraction) {
+        return waits[Math.min(count - 1, (int) (fraction * count))] / 1e6;
+    }
+}
@@ -0,0 +1,224 @@
+package com.duocardgame;
+
+import java.util.List;
+
+/**
+ * Answers live odds queries analytically from the unseen cards counted by a {@link CardTracker}.
+ * <p>
+ * Unseen cards are treated as a multiset from which the opponents' hands and the draw pile are drawn without
+ * replacement, so every query reduces to hypergeometric probabilities over per-face counts. The binomial
+ * coefficients behind them come from a table of log-factorials built once when the class is loaded, which
+ * keeps each query to one pass over the {@link CardCatalog#FACE_COUNT} faces, without allocation or
+ * simulation. Cards an opponent is known not to hold, because they had to draw on an earlier top card,
+ * are taken into account as in {@link CardTracker#probabilityHoldsPlayable(int, Card)}.
+ * </p>
+ * <p>
+ * Like the tracker, the calculator sees the game from the tracked seat: that player's hand is known
+ * exactly and the others are estimated. An opponent's hand is modeled as its constrained cards drawn first
+ * from the unseen cards they are not excluded from, and the rest drawn from the unseen cards left after that.
+ * The odds are exact under this model, but the model itself is an estimate: real hands also depend on the
+ * choices the players made, which the tracker does not see. The tracker counts a single standard deck, so the odds of large-table
+ * games dealt from a shoe are not supported.
+ * </p>
+ */
+public class OddsCalculator {
+    /** The largest pool size the combinatorics tables cover. */
+    private static final int MAX_POOL = CardCatalog.DECK_SIZE;
+
+    /** {@code LOG_FACTORIAL[n]} is the natural logarithm of {@code n!}. */
+    private static final double[] LOG_FACTORIAL = new double[MAX_POOL + 1];
+
+    static {
+        for (int n = 1; n <= MAX_POOL; n++) {
+            LOG_FACTORIAL[n] = LOG_FACTORIAL[n - 1] + Math.log(n);
+        }
+    }
+
+    /** The tracker whose counts the odds are computed from. */
+    private final CardTracker tracker;
+
+    /**
+     * Constructs a calculator over the counts of a tracker.
+     *
+     * @param tracker the tracker, registered as a card listener of the game
+     */
+    public OddsCalculator(CardTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    /**
+     * Returns the natural logarithm of the binomial coefficient {@code C(n, k)}.
+     *
+     * @param n the size of the set, at most {@link CardCatalog#DECK_SIZE}
+     * @param k the size of the subsets
+     * @return the logarithm, or negative infinity if {@code k} is outside {@code [0, n]}
+     */
+    public static double logChoose(int n, int k) {
+        if (k < 0 || k > n) return Double.NEGATIVE_INFINITY;
+        return LOG_FACTORIAL[n] - LOG_FACTORIAL[k] - LOG_FACTORIAL[n - k];
+    }
+
+    /**
+     * Returns the probability that exactly {@code hits} of {@code draws} cards drawn without replacement from
+     * a pool are among its {@code marked} cards.
+     *
+     * @param pool the size of the pool, at most {@link CardCatalog#DECK_SIZE}
+     * @param marked the number of marked cards in the pool
+     * @param draws the number of cards drawn
+     * @param hits the number of marked cards drawn
+     * @return the probability, between 0 and 1
+     */
+    public static double hypergeometric(int pool, int marked, int draws, int hits) {
+        if (draws > pool) return 0;
+        return Math.exp(logChoose(marked, hits) + logChoose(pool - marked, draws - hits) - logChoose(pool, draws));
+    }
+
+    /**
+     * Returns the probability that a player can play on their turn, either from their hand or with the card
+     * they must draw when their hand holds nothing playable.
+     *
+     * @param seat the index of the player
+     * @param topCard the card on top of the discard pile, carrying the current color
+     * @return the probability, between 0 and 1
+     */
+    public double probabilityCanPlay(int seat, Card topCard) {
+        int top = CardCatalog.faceOf(topCard);
+        int playable = 0;
+        for (int face = 0; face < CardCatalog.FACE_COUNT; face++) {
+            int count = tracker.getUnseenCount(face);
+            if (count > 0 && CardCatalog.isPlayable(face, top)) playable += count;
+        }
+        int unseen = tracker.getUnseenTotal();
+        double noneInHand = 1 - probabilityHoldsPlayable(seat, top);
+        // Given no playable card in hand, every unseen playable card lies outside it.
+        int pool = seat == tracker.getSeat() ? unseen : unseen - tracker.getHandSize(seat);
+        double drawnPlayable = pool <= 0 ? 0 : Math.min(1, (double) playable / pool);
+        return 1 - noneInHand * (1 - drawnPlayable);
+    }
+
+    /**
+     * Returns the expected number of cards a player would draw, one after another, until drawing one that is
+     * playable on the top card.
+     * <p>
+     * The draw pile is taken as a uniform sample of the cards the player has not seen, of which {@code K} of
+     * {@code N} are playable, giving {@code (N + 1) / (K + 1)} draws. When no playable card is left the
+     * result is {@code N + 1}: the whole pool would be drawn without success.
+     * </p>
+     *
+     * @param seat the index of the player
+     * @param topCard the card on top of the discard pile, carrying the current color
+     * @return the expected number of draws
+     */
+    public double expectedDrawsUntilPlayable(int seat, Card topCard) {
+        int top = CardCatalog.faceOf(topCard);
+        int pool = 0;
+        int playable = 0;
+        for (int face = 0; face < CardCatalog.FACE_COUNT; face++) {
+            int count = tracker.getUnseenCount(face);
+            if (count == 0) continue;
+            pool += count;
+            if (CardCatalog.isPlayable(face, top)) playable += count;
+        }
+        if (seat != tracker.getSeat()) {
+            // The player's own cards are not in the draw pile; estimate their make-up from the unseen cards.
+            double hand = Math.min(tracker.getHandSize(seat), pool);
+            double playableInHand = pool == 0 ? 0 : hand * playable / pool;
+            return (pool - hand + 1) / (playable - playableInHand + 1);
+        }
+        return (pool + 1.0) / (playable + 1);
+    }
+
+    /**
+     * Returns the expected score of the cards a player holds, from the {@link Card#getScore()} values.
+     * <p>
+     * For an opponent this is the expectation under the hand model described in the class comment.
+     * </p>
+     *
+     * @param seat the index of the player
+     * @return the exact score of the tracked player's hand, or the expected score of an opponent's hand
+     */
+    public double expectedHandScore(int seat) {
+        if (seat == tracker.getSeat()) {
+            List<Card> hand = tracker.getTrackedHand();
+            int score = 0;
+            for (int i = 0; i < hand.size(); i++) {
+                score += hand.get(i).getScore();
+            }
+            return score;
+        }
+        long total = 0;
+        int count = 0;
+        long allowedTotal = 0;
+        int allowedCount = 0;
+        for (int face = 0; face < CardCatalog.FACE_COUNT; face++) {
+            int unseen = tracker.getUnseenCount(face);
+            if (unseen == 0) continue;
+            int score = CardCatalog.score(face) * unseen;
+            total += score;
+            count += unseen;
+            if (!tracker.isExcluded(seat, face)) {
+                allowedTotal += score;
+                allowedCount += unseen;
+            }
+        }
+        int fixed = tracker.getConstrainedCount(seat);
+        int free = tracker.getHandSize(seat) - fixed;
+        double constrainedScore = fixed > 0 && allowedCount > 0 ? fixed * (double) allowedTotal / allowedCount : 0;
+        double expected = constrainedScore;
+        // The rest of the hand comes from the unseen cards the constrained cards did not take.
+        if (free > 0 && count > fixed) expected += free * (total - constrainedScore) / (count - fixed);
+        return expected;
+    }
+
+    /**
+     * Returns the expected number of points a player would earn by winning the round now: the expected
+     * score of every other hand.
+     *
+     * @param seat the index of the player
+     * @param players the number of players in the game
+     * @return the expected round score
+     */
+    public double expectedRoundScore(int seat, int players) {
+        double expected = 0;
+        for (int i = 0; i < players; i++) {
+            if (i != seat) expected += expectedHandScore(i);
+        }
+        return expected;
+    }
+
+    /**
+     * Returns the probability that a player holds at least one card playable on the given top face, under the
+     * hand model described in the class comment for an opponent.
+     *
+     * @param seat the index of the player
+     * @param top the face on top of the discard pile
+     * @return the probability, between 0 and 1
+     */
+    private double probabilityHoldsPlayable(int seat, int top) {
+        if (seat == tracker.getSeat()) {
+            List<Card> hand = tracker.getTrackedHand();
+            for (int i = 0; i < hand.size(); i++) {
+                if (CardCatalog.isPlayable(CardCatalog.faceOf(hand.get(i)), top)) return 1;
+            }
+            return 0;
+        }
+        int playable = 0;
+        int allowed = 0;
+        int allowedPlayable = 0;
+        for (int face = 0; face < CardCatalog.FACE_COUNT; face++) {
+            int count = tracker.getUnseenCount(face);
+            if (count == 0) continue;
+            boolean isPlayable = CardCatalog.isPlayable(face, top);
+            if (isPlayable) playable += count;
+            if (!tracker.isExcluded(seat, face)) {
+                allowed += count;
+                if (isPlayable) allowedPlayable += count;
+            }
+        }
+        int fixed = tracker.getConstrainedCount(seat);
+        // If the constrained cards hold nothing playable, every playable card is among the ones they left.
+        double none = hypergeometric(allowed, allowedPlayable, fixed, 0)
+                * hypergeometric(tracker.getUnseenTotal() - fixed, playable, tracker.getHandSize(seat) - fixed, 0);
+        return 1 - none;
+    }
+}
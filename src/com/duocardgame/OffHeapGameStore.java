@@ -0,0 +1,146 @@
+package com.duocardgame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Stores paused games outside the Java heap.
+ * <p>
+ * Each game is packed into a fixed-size slot of a single direct {@link ByteBuffer}: the random generator,
+ * turn state, scores, hands and both {@link Deck} piles, with every card stored as a one-byte
+ * {@link CardCatalog} face id. A pool of paused games therefore costs the garbage collector a single object.
+ * Games are materialized on the heap with {@link #load(int)} only while they are being played and written
+ * back with {@link #save(int, DuoCardGame)}.
+ * </p>
+ * <p>
+ * Slot allocation is thread-safe. Loading and saving different slots concurrently is safe; a single slot
+ * must not be loaded and saved at the same time.
+ * </p>
+ */
+public class OffHeapGameStore {
+    /** The number of bytes reserved for each game. */
+    public static final int SLOT_BYTES = (DuoCardGame.STATE_BYTES + 7) & ~7;
+
+    /** The off-heap memory holding every slot. */
+    private final ByteBuffer memory;
+
+    /** The number of slots in the store. */
+    private final int capacity;
+
+    /** Stack of free slot indexes. */
+    private final int[] freeSlots;
+
+    /** The number of entries in {@link #freeSlots}. */
+    private int freeCount;
+
+    /**
+     * Constructs a store that can hold the given number of games.
+     *
+     * @param capacity the maximum number of stored games
+     * @throws IllegalArgumentException if the capacity is not positive or the slots do not fit in one buffer
+     */
+    public OffHeapGameStore(int capacity) {
+        if (capacity <= 0 || (long) capacity * SLOT_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + Integer.MAX_VALUE / SLOT_BYTES);
+        }
+        this.capacity = capacity;
+        memory = ByteBuffer.allocateDirect(capacity * SLOT_BYTES);
+        freeSlots = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            freeSlots[i] = capacity - 1 - i;
+        }
+        freeCount = capacity;
+    }
+
+    /**
+     * Packs a game into a free slot.
+     *
+     * @param game the game to store
+     * @return the slot holding the game
+     * @throws IllegalStateException if the store is full
+     */
+    public int store(DuoCardGame game) {
+        int slot;
+        synchronized (this) {
+            if (freeCount == 0) {
+                throw new IllegalStateException("Off-heap game store is full");
+            }
+            slot = freeSlots[--freeCount];
+        }
+        save(slot, game);
+        return slot;
+    }
+
+    /**
+     * Overwrites a slot with the current state of a game.
+     *
+     * @param slot the slot to write
+     * @param game the game to store
+     */
+    public void save(int slot, DuoCardGame game) {
+        game.saveState(slotBuffer(slot));
+    }
+
+    /**
+     * Materializes the game stored in a slot as a new on-heap {@link DuoCardGame}.
+     * <p>
+     * The slot keeps its contents; call {@link #save(int, DuoCardGame)} after playing to persist the changes.
+     * </p>
+     *
+     * @param slot the slot to read
+     * @return the restored game
+     */
+    public DuoCardGame load(int slot) {
+        return DuoCardGame.loadState(slotBuffer(slot));
+    }
+
+    /**
+     * Restores the game stored in a slot into an existing game instance, avoiding a new allocation of players.
+     *
+     * @param slot the slot to read
+     * @param game the game whose state is replaced
+     */
+    public void loadInto(int slot, DuoCardGame game) {
+        game.restoreState(slotBuffer(slot));
+    }
+
+    /**
+     * Frees a slot so it can hold another game.
+     *
+     * @param slot the slot to free
+     */
+    public synchronized void release(int slot) {
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Returns the number of games currently stored.
+     *
+     * @return the number of occupied slots
+     */
+    public synchronized int size() {
+        return capacity - freeCount;
+    }
+
+    /**
+     * Returns the maximum number of games the store can hold.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns a view of the memory of a slot positioned at its first byte.
+     *
+     * @param slot the slot index
+     * @return a buffer covering exactly one slot
+     * @throws IndexOutOfBoundsException if the slot does not exist
+     */
+    private ByteBuffer slotBuffer(int slot) {
+        if (slot < 0 || slot >= capacity) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " out of range");
+        }
+        return memory.slice(slot * SLOT_BYTES, SLOT_BYTES);
+    }
+}
@@ -7,12 +7,28 @@ import java.util.*;
  * The class provides functionality for managing the player's hand, score, and making game decisions.
  */
 public class Player {
+    /** The card colors, cached to avoid copying {@code CardColor.values()}. */
+    private static final CardColor[] COLORS = CardColor.values();
     /** The name of the player. */
     private String name;
     /** The list of cards that make up the player's hand. */
-    private List<Card> hand;
+    private final ArrayList<Card> hand;
+    /** Read-only view of the hand handed to strategies. */
+    private final List<Card> handView;
     /** The player's score. */
     private int score;
+    /** The random number generator used for the player's decisions. */
+    private final Random random;
+    /** The strategy that makes the player's decisions. */
+    private PlayerStrategy strategy;
+    /** The game the player is seated at, or {@code null}. */
+    private DuoCardGame game;
+    /** The seat of the player at its game. */
+    private int seat;
+    /** The number of cards of each non-WILD color in the hand, indexed by {@link CardColor} ordinal. */
+    private final int[] colorCounts = new int[4];
+    /** The total score of the cards in the hand. */
+    private int handScore;
     
     /**
      * Constructs a new Player with the given name.
@@ -20,8 +36,33 @@ public class Player {
      * @param name the name of the player
      */
     public Player(String name) {
+        this(name, new Random());
+    }
+    
+    /**
+     * Constructs a new Player with the given name whose decisions draw from the given random source.
+     * Sharing the game's seeded generator makes the player's choices reproducible.
+     *
+     * @param name the name of the player
+     * @param random the random number generator used for decisions
+     */
+    public Player(String name, Random random) {
+        this(name, random, RandomHeuristicStrategy.INSTANCE);
+    }
+    
+    /**
+     * Constructs a new Player with the given name, random source and decision strategy.
+     *
+     * @param name the name of the player
+     * @param random the random number generator used for decisions
+     * @param strategy the strategy that makes the player's decisions
+     */
+    public Player(String name, Random random, PlayerStrategy strategy) {
         this.name = name;
+        this.random = random;
+        this.strategy = strategy;
         hand = new ArrayList<>();
+        handView = Collections.unmodifiableList(hand);
         score = 0;
     }
     
@@ -45,10 +86,55 @@ public class Player {
     }
     
     /**
-     * Clears the player's hand by creating a new, empty list.
+     * Returns a read-only view of the player's hand.
+     * The view reflects later changes to the hand and must not be kept across turns.
+     *
+     * @return an unmodifiable view of the cards in the player's hand
+     */
+    public List<Card> getHandView() {
+        return handView;
+    }
+    
+    /**
+     * Returns the number of cards in the player's hand without copying it.
+     *
+     * @return the hand size
+     */
+    public int getHandSize() {
+        return hand.size();
+    }
+    
+    /**
+     * Copies the cards of the player's hand into an array.
+     *
+     * @param dest the array to copy into
+     * @param offset the index of {@code dest} at which to start writing
+     * @return the number of cards copied
+     */
+    int copyHandInto(Card[] dest, int offset) {
+        int n = hand.size();
+        for (int i = 0; i < n; i++) {
+            dest[offset + i] = hand.get(i);
+        }
+        return n;
+    }
+    
+    /**
+     * Makes sure the hand can hold the given number of cards without growing.
+     *
+     * @param capacity the number of cards the hand should hold
+     */
+    void ensureHandCapacity(int capacity) {
+        hand.ensureCapacity(capacity);
+    }
+    
+    /**
+     * Clears the player's hand, keeping the capacity of the underlying list.
      */
     public void clearHand() {
-        hand = new ArrayList<>();
+        hand.clear();
+        Arrays.fill(colorCounts, 0);
+        handScore = 0;
     }
     
     /**
@@ -60,6 +146,15 @@ public class Player {
         return score;
     }
     
+    /**
+     * Sets the player's score, used when a saved game is restored.
+     *
+     * @param score the new score
+     */
+    void setScore(int score) {
+        this.score = score;
+    }
+    
     /**
      * Adds the specified amount to the player's score.
      *
@@ -76,6 +171,28 @@ public class Player {
      */
     public void addCard(Card card) {
         hand.add(card);
+        countCard(card, 1);
+    }
+    
+    /**
+     * Adds a block of cards to the player's hand, in array order.
+     * <p>
+     * The capacity of the hand is reserved once for the whole block, which is then appended without
+     * allocating, and the hand score and color counts are updated in a separate pass.
+     * </p>
+     *
+     * @param cards the array holding the cards
+     * @param offset the index of the first card to add
+     * @param count the number of cards to add
+     */
+    public void addCards(Card[] cards, int offset, int count) {
+        hand.ensureCapacity(hand.size() + count);
+        for (int i = offset; i < offset + count; i++) {
+            hand.add(cards[i]);
+        }
+        for (int i = offset; i < offset + count; i++) {
+            countCard(cards[i], 1);
+        }
     }
     
     /**
@@ -84,105 +201,143 @@ public class Player {
      * @param card the card to remove
      */
     public void removeCard(Card card) {
-        hand.remove(card);
+        if (hand.remove(card)) {
+            countCard(card, -1);
+        }
     }
     
     /**
-     * Chooses a playable card from the player's hand based on the top card of the discard pile.
-     * The method categorizes playable cards into same-color cards, different-colored cards, and wild cards.
-     * It then prioritizes the choice based on card color match and score.
+     * Adjusts the hand score and the count of the card's color if it is not WILD.
+     *
+     * @param card the card added to or removed from the hand
+     * @param delta 1 when the card was added, -1 when it was removed
+     */
+    private void countCard(Card card, int delta) {
+        handScore += delta * card.getScore();
+        CardColor color = card.getColor();
+        if (color != CardColor.WILD) {
+            colorCounts[color.ordinal()] += delta;
+        }
+    }
+    
+    /**
+     * Chooses a playable card from the player's hand based on the top card of the discard pile,
+     * using the player's strategy.
      *
      * @param topCard the card on the top of the discard pile
      * @return a playable card if one exists; otherwise, {@code null}
      */
     public Card choosePlayableCard(Card topCard) {
-        List<Card> sameColorCards = new ArrayList<>();
-        List<Card> diffColoredCards = new ArrayList<>();
-        List<Card> wildCards = new ArrayList<>();
-    
-        // Categorize cards in a single loop
-        for (Card c : hand) {
-            if (!c.isPlayable(topCard)) continue;
-    
-            if (c.getColor() == CardColor.WILD) {
-                wildCards.add(c);
-            } else if (c.getColor() == topCard.getColor()) {
-                sameColorCards.add(c);
-            } else {
-                diffColoredCards.add(c);
-            }
-        }
-    
-        // Sort same-color cards by highest score
-        sameColorCards.sort(Comparator.comparing(Card::getScore).reversed());
-    
-        Random random = new Random();
-    
-        // Randomly choose whether to prioritize same-color or different-color cards
-        boolean prioritizeSameColor = random.nextBoolean();
-    
-        if (prioritizeSameColor && !sameColorCards.isEmpty()) {
-            return sameColorCards.get(0); // Highest scoring same-color card
-        }
-        if (!diffColoredCards.isEmpty()) {
-            return diffColoredCards.get(random.nextInt(diffColoredCards.size()));
-        }
-        if (!sameColorCards.isEmpty()) { // Fallback to same-color if needed
-            return sameColorCards.get(0);
-        }
-        if (!wildCards.isEmpty()) {
-            return wildCards.get(random.nextInt(wildCards.size())); // Random Wild card
-        }
-    
-        return null; // No playable card available
+        return strategy.choosePlayableCard(this, topCard, random);
     }
     
     /**
-     * Chooses a color for a wild card based on the composition of the player's hand.
-     * The method counts the non-WILD cards in the player's hand and selects the color
-     * with the highest count. In the event of a tie or if no non-WILD cards are present,
-     * a random non-WILD color is chosen.
+     * Chooses a color for a wild card using the player's strategy.
      *
      * @return the chosen {@link CardColor} for the wild card
      */
     public CardColor chooseColor() {
-        Map<CardColor, Integer> colorCount = new HashMap<>();
+        return strategy.chooseColor(this, random);
+    }
     
-        // Initialize count for non-WILD colors only
-        for (CardColor color : CardColor.values()) {
-            if (color != CardColor.WILD) {
-                colorCount.put(color, 0);
-            }
+    /**
+     * Returns the most common non-WILD color of the player's hand.
+     * The method uses the per-color counts of the non-WILD cards in the player's hand and selects the color
+     * with the highest count. In the event of a tie, including a hand with no non-WILD cards,
+     * one of the tied colors is chosen at random.
+     *
+     * @param random the random number generator used to break ties
+     * @return the most common color
+     */
+    public CardColor mostCommonColor(Random random) {
+        int max = Math.max(Math.max(colorCounts[0], colorCounts[1]), Math.max(colorCounts[2], colorCounts[3]));
+        int ties = 0;
+        for (int count : colorCounts) {
+            if (count == max) ties++;
         }
-    
-        // Count non-WILD colors in the player's hand
-        for (Card c : hand) {
-            if (c.getColor() != null && c.getColor() != CardColor.WILD) {
-                colorCount.put(c.getColor(), colorCount.get(c.getColor()) + 1);
+        // Randomly select one of the best colors, in color order
+        int pick = random.nextInt(ties);
+        for (int i = 0; i < colorCounts.length; i++) {
+            if (colorCounts[i] == max && pick-- == 0) {
+                return COLORS[i];
             }
         }
+        throw new IllegalStateException("No color with the highest count");
+    }
     
-        // Find the maximum count and collect colors with that count
-        List<CardColor> bestColors = new ArrayList<>();
-        int max = -1;
-        for (Map.Entry<CardColor, Integer> entry : colorCount.entrySet()) {
-            if (entry.getValue() > max) {
-                max = entry.getValue();
-                bestColors.clear();  // Clear previous choices
-                bestColors.add(entry.getKey());
-            } else if (entry.getValue() == max) {
-                bestColors.add(entry.getKey());  // Add to list if same count
-            }
-        }
+    /**
+     * Returns the number of cards of the given color in the player's hand.
+     *
+     * @param color a non-WILD color
+     * @return the number of cards of that color
+     */
+    public int getColorCount(CardColor color) {
+        return colorCounts[color.ordinal()];
+    }
     
-        // If no color has been chosen (only WILD cards in hand), pick a random non-WILD color
-        if (bestColors.isEmpty()) {
-            bestColors.addAll(colorCount.keySet()); // All non-WILD colors are valid choices
-        }
+    /**
+     * Returns the total score of the cards in the player's hand, kept up to date as cards come and go.
+     *
+     * @return the hand score
+     */
+    public int getHandScore() {
+        return handScore;
+    }
+
+    /**
+     * Returns the random number generator the player's decisions draw from.
+     *
+     * @return the player's random source
+     */
+    Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Returns the seat of the player at its game.
+     *
+     * @return the index of the player in the game's player list
+     */
+    public int getSeat() {
+        return seat;
+    }
+
+    /**
+     * Returns the game the player is seated at, so that strategies can look beyond the player's own hand.
+     *
+     * @return the game, or {@code null} if the player was created outside a game
+     */
+    public DuoCardGame getGame() {
+        return game;
+    }
+
+    /**
+     * Seats the player at a game.
+     *
+     * @param game the game
+     * @param seat the index of the player in the game's player list
+     */
+    void setGame(DuoCardGame game, int seat) {
+        this.game = game;
+        this.seat = seat;
+    }
+
+    /**
+     * Returns the strategy that makes this player's decisions.
+     *
+     * @return the player's strategy
+     */
+    public PlayerStrategy getStrategy() {
+        return strategy;
+    }
     
-        // Randomly select one of the best colors
-        Random rand = new Random();
-        return bestColors.get(rand.nextInt(bestColors.size()));
+    /**
+     * Sets the strategy that makes this player's decisions.
+     *
+     * @param strategy the new strategy
+     */
+    public void setStrategy(PlayerStrategy strategy) {
+        this.strategy = strategy;
     }
     
     /**
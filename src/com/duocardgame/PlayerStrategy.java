@@ -0,0 +1,50 @@
+package com.duocardgame;
+
+import java.util.Random;
+
+/**
+ * Defines how a player makes decisions during the game.
+ * <p>
+ * A strategy chooses which card to play and which color to call for wild cards. Strategies receive the
+ * game's random generator so that seeded games stay reproducible. One strategy instance may be shared by
+ * several players and games running on different threads, so implementations should keep no mutable state.
+ * </p>
+ */
+public interface PlayerStrategy {
+    /**
+     * Chooses a playable card from the player's hand.
+     *
+     * @param player the player whose turn it is
+     * @param topCard the card on the top of the discard pile
+     * @param random the game's random number generator
+     * @return a playable card from the player's hand, or {@code null} to draw a card instead
+     */
+    Card choosePlayableCard(Player player, Card topCard, Random random);
+
+    /**
+     * Chooses a color for a wild card.
+     * <p>
+     * By default the most common non-WILD color of the player's hand is chosen, breaking ties at random.
+     * </p>
+     *
+     * @param player the player who played the wild card
+     * @param random the game's random number generator
+     * @return the chosen non-WILD color
+     */
+    default CardColor chooseColor(Player player, Random random) {
+        return player.mostCommonColor(random);
+    }
+
+    /**
+     * Returns a stable description of this strategy and its parameters.
+     * <p>
+     * Two strategies with the same key must make the same decisions from the same random stream; the key is
+     * used to identify cached simulation results. By default it is the class name.
+     * </p>
+     *
+     * @return the configuration key of this strategy
+     */
+    default String getConfigKey() {
+        return getClass().getName();
+    }
+}
@@ -0,0 +1,88 @@
+package com.duocardgame;
+
+import java.util.*;
+
+/**
+ * The original decision heuristic of the game.
+ * <p>
+ * Playable cards are split into same-color, different-colored and wild cards. A coin flip decides whether
+ * the highest scoring same-color card is preferred; otherwise a random different-colored card is played,
+ * and wild cards are kept as a last resort.
+ * </p>
+ */
+public class RandomHeuristicStrategy implements PlayerStrategy {
+    /** The shared instance; the strategy has no state. */
+    public static final RandomHeuristicStrategy INSTANCE = new RandomHeuristicStrategy();
+
+    /**
+     * Chooses a playable card by color match and score, with a random tie-break between the categories.
+     *
+     * @param player the player whose turn it is
+     * @param topCard the card on the top of the discard pile
+     * @param random the game's random number generator
+     * @return a playable card if one exists; otherwise, {@code null}
+     */
+    @Override
+    public Card choosePlayableCard(Player player, Card topCard, Random random) {
+        List<Card> hand = player.getHandView();
+        Card bestSameColor = null;
+        int diffColored = 0;
+        int wilds = 0;
+    
+        // Categorize cards in a single loop, keeping the first highest scoring same-color card
+        for (int i = 0; i < hand.size(); i++) {
+            Card c = hand.get(i);
+            if (!c.isPlayable(topCard)) continue;
+    
+            if (c.getColor() == CardColor.WILD) {
+                wilds++;
+            } else if (c.getColor() == topCard.getColor()) {
+                if (bestSameColor == null || c.getScore() > bestSameColor.getScore()) {
+                    bestSameColor = c;
+                }
+            } else {
+                diffColored++;
+            }
+        }
+    
+        // Randomly choose whether to prioritize same-color or different-color cards
+        boolean prioritizeSameColor = random.nextBoolean();
+    
+        if (prioritizeSameColor && bestSameColor != null) {
+            return bestSameColor; // Highest scoring same-color card
+        }
+        if (diffColored > 0) {
+            return nthPlayable(hand, topCard, random.nextInt(diffColored), false);
+        }
+        if (bestSameColor != null) { // Fallback to same-color if needed
+            return bestSameColor;
+        }
+        if (wilds > 0) {
+            return nthPlayable(hand, topCard, random.nextInt(wilds), true); // Random Wild card
+        }
+    
+        return null; // No playable card available
+    }
+
+    /**
+     * Returns the n-th playable wild card, or the n-th playable card whose color differs from the top card.
+     *
+     * @param hand the player's hand
+     * @param topCard the card on the top of the discard pile
+     * @param n the index of the card among the matching cards
+     * @param wild {@code true} to count wild cards; {@code false} to count different-colored cards
+     * @return the matching card
+     */
+    private static Card nthPlayable(List<Card> hand, Card topCard, int n, boolean wild) {
+        for (int i = 0; i < hand.size(); i++) {
+            Card c = hand.get(i);
+            if (!c.isPlayable(topCard)) continue;
+            boolean isWild = c.getColor() == CardColor.WILD;
+            boolean matches = wild ? isWild : !isWild && c.getColor() != topCard.getColor();
+            if (matches && n-- == 0) {
+                return c;
+            }
+        }
+        throw new IllegalStateException("Fewer matching cards than counted");
+    }
+}
@@ -0,0 +1,46 @@
+package com.duocardgame;
+
+import java.util.Random;
+
+/**
+ * A baseline strategy that plays a uniformly random playable card and calls a random color.
+ */
+public class RandomPlayStrategy implements PlayerStrategy {
+    /** The shared instance; the strategy has no state. */
+    public static final RandomPlayStrategy INSTANCE = new RandomPlayStrategy();
+
+    /** The colors a wild card can be given. */
+    private static final CardColor[] COLORS = { CardColor.BLUE, CardColor.GREEN, CardColor.RED, CardColor.YELLOW };
+
+    /**
+     * Chooses a random playable card using reservoir sampling over the hand.
+     *
+     * @param player the player whose turn it is
+     * @param topCard the card on the top of the discard pile
+     * @param random the game's random number generator
+     * @return a playable card if one exists; otherwise, {@code null}
+     */
+    @Override
+    public Card choosePlayableCard(Player player, Card topCard, Random random) {
+        Card chosen = null;
+        int seen = 0;
+        for (Card c : player.getHandView()) {
+            if (c.isPlayable(topCard) && random.nextInt(++seen) == 0) {
+                chosen = c;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Chooses a random non-WILD color.
+     *
+     * @param player the player who played the wild card
+     * @param random the game's random number generator
+     * @return the chosen color
+     */
+    @Override
+    public CardColor chooseColor(Player player, Random random) {
+        return COLORS[random.nextInt(COLORS.length)];
+    }
+}
@@ -0,0 +1,18 @@
+package com.duocardgame;
+
+import jdk.jfr.*;
+
+/**
+ * A Java Flight Recorder event covering a reshuffle of the discard pile into the draw pile.
+ */
+@Name("com.duocardgame.Reshuffle")
+@Label("Discard Pile Reshuffle")
+@Category({ "Duo Card Game", "Engine" })
+@Description("The discard pile shuffled back into the empty draw pile")
+@StackTrace(false)
+@Threshold("0 ms")
+final class ReshuffleEvent extends Event {
+    /** The number of cards moved into the draw pile. */
+    @Label("Cards")
+    int cards;
+}
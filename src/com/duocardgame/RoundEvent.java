@@ -0,0 +1,39 @@
+package com.duocardgame;
+
+import jdk.jfr.*;
+
+/**
+ * A Java Flight Recorder event spanning one round, from the deal to the turn that empties a hand.
+ * <p>
+ * The event begins when {@link DuoCardGame#startGame()} deals the round and is committed when the round is
+ * won, carrying the round number, the winner and the points the winner earned. Like every JFR event it is
+ * only recorded while a recording has it enabled and its duration is above the configured threshold.
+ * </p>
+ */
+@Name("com.duocardgame.Round")
+@Label("Round")
+@Category({ "Duo Card Game", "Engine" })
+@Description("A round from the deal to the turn that empties a hand")
+@StackTrace(false)
+@Threshold("0 ms")
+final class RoundEvent extends Event {
+    /** The number of the round. */
+    @Label("Round Number")
+    int roundNumber;
+
+    /** The number of players in the game. */
+    @Label("Players")
+    int players;
+
+    /** The seat of the player who won the round. */
+    @Label("Winner Seat")
+    int winnerSeat;
+
+    /** The name of the player who won the round. */
+    @Label("Winner")
+    String winner;
+
+    /** The points the winner earned for the round. */
+    @Label("Points")
+    int points;
+}
@@ -0,0 +1,450 @@
+package com.duocardgame;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Shuffles the decks of upcoming rounds on dedicated producer threads, ahead of the games that deal them.
+ * <p>
+ * Each round of a pipelined game is dealt from a permutation of the standard deck that depends only on the
+ * game's seed and the round number, so a pipelined game plays out the same way whether its permutations
+ * came from a producer or were computed inline because the producer fell behind. Pipelined games do not
+ * consume the game's random generator for the deal shuffle, so their outcomes differ from those of
+ * unpipelined games with the same seed.
+ * </p>
+ * <p>
+ * Every game thread consumes from its own {@link Lane}, a bounded single-producer single-consumer ring of
+ * permutations. The producer tags every permutation with its seed and round and publishes it with a
+ * release store of the ring's tail; the consumer takes the permutation it wants, drops stale ones left over
+ * from an earlier game and computes a permutation inline whenever the ring holds no match. Neither side
+ * ever blocks the other.
+ * </p>
+ * <p>
+ * A game thread that knows which game it plays next can {@link Lane#announce(long) announce} its seed. Once
+ * the ring is full, the producer then shuffles the first deal of that game into a separate slot, so a new
+ * game does not have to wait for its first round to be shuffled inline.
+ * </p>
+ */
+public class ShufflePipeline implements AutoCloseable {
+    /** The default number of permutations buffered per lane. */
+    public static final int DEFAULT_LOOKAHEAD = 16;
+
+    /** The time an idle producer sleeps before checking its lanes again, in nanoseconds. */
+    private static final long IDLE_PARK_NANOS = 50_000;
+
+    /** The increment of the SplitMix64 generator. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** The number of permutations buffered per lane. */
+    private final int lookahead;
+
+    /** The producer threads. */
+    private final Thread[] producers;
+
+    /** Every lane created so far; replaced as a whole when a lane is added. */
+    private volatile Lane[] lanes = new Lane[0];
+
+    /** The lane of each consumer thread. */
+    private final ThreadLocal<Lane> threadLanes = ThreadLocal.withInitial(this::newLane);
+
+    /** Whether the pipeline has been closed. */
+    private volatile boolean closed;
+
+    /**
+     * Starts a pipeline with the given number of producer threads.
+     *
+     * @param producers the number of producer threads, at least 1
+     * @param lookahead the number of permutations buffered per lane, at least 1
+     */
+    public ShufflePipeline(int producers, int lookahead) {
+        if (producers < 1 || lookahead < 1) {
+            throw new IllegalArgumentException("A pipeline needs at least one producer and one buffered permutation");
+        }
+        this.lookahead = lookahead;
+        this.producers = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            Thread thread = new Thread(this::produce, "shuffle-producer-" + i);
+            thread.setDaemon(true);
+            this.producers[i] = thread;
+        }
+        for (Thread thread : this.producers) {
+            thread.start();
+        }
+    }
+
+    /**
+     * Returns the lane of the calling thread, creating it on first use.
+     *
+     * @return the calling thread's lane
+     */
+    public Lane lane() {
+        return threadLanes.get();
+    }
+
+    /**
+     * Creates a lane for a new consumer and assigns it to a producer.
+     *
+     * @return the new lane
+     */
+    public synchronized Lane newLane() {
+        Lane[] current = lanes;
+        Lane lane = new Lane(lookahead, producers[current.length % producers.length]);
+        Lane[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = lane;
+        lanes = next;
+        LockSupport.unpark(lane.producer);
+        return lane;
+    }
+
+    /**
+     * Returns the number of permutations taken from producers by every lane.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        long hits = 0;
+        for (Lane lane : lanes) {
+            hits += lane.hits;
+        }
+        return hits;
+    }
+
+    /**
+     * Returns the number of permutations computed inline by every lane because no producer had them ready.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        long misses = 0;
+        for (Lane lane : lanes) {
+            misses += lane.misses;
+        }
+        return misses;
+    }
+
+    /**
+     * Stops the producer threads. Lanes keep working afterwards by computing every permutation inline.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Thread thread : producers) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Runs a producer: fills the lanes assigned to it until the pipeline is closed.
+     */
+    private void produce() {
+        Thread self = Thread.currentThread();
+        while (!closed) {
+            boolean produced = false;
+            for (Lane lane : lanes) {
+                if (lane.producer == self) {
+                    produced |= lane.fill();
+                }
+            }
+            if (!produced) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Compares simulations with and without a pipeline and checks that pipelined outcomes do not depend on
+     * the producers keeping up.
+     *
+     * @param args optional number of games, players and producer threads
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int producers = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        List<PlayerStrategy> seats = Collections.nCopies(players, RandomHeuristicStrategy.INSTANCE);
+
+        // Warm up both paths before timing them.
+        Simulation.run(seats, 1, games / 10);
+        try (ShufflePipeline pipeline = new ShufflePipeline(producers, DEFAULT_LOOKAHEAD)) {
+            Simulation.run(seats, 1, games / 10, pipeline);
+        }
+
+        long start = System.nanoTime();
+        Simulation.run(seats, 1, games);
+        double inlineSeconds = (System.nanoTime() - start) / 1e9;
+
+        SimulationResult pipelined;
+        double pipelinedSeconds;
+        long hits;
+        long misses;
+        try (ShufflePipeline pipeline = new ShufflePipeline(producers, DEFAULT_LOOKAHEAD)) {
+            start = System.nanoTime();
+            pipelined = Simulation.run(seats, 1, games, pipeline);
+            pipelinedSeconds = (System.nanoTime() - start) / 1e9;
+            hits = pipeline.getHits();
+            misses = pipeline.getMisses();
+        }
+
+        // A closed pipeline computes every permutation inline, which must give the same outcome.
+        ShufflePipeline closed = new ShufflePipeline(1, 1);
+        closed.close();
+        SimulationResult reference = Simulation.run(seats, 1, games, closed);
+        boolean same = reference.getGames() == pipelined.getGames() && reference.getRounds() == pipelined.getRounds();
+        for (int i = 0; i < players; i++) {
+            same &= reference.getWins(i) == pipelined.getWins(i);
+        }
+
+        System.out.printf("%d games, %d players: %.0f games/s shuffling inline, %.0f games/s with %d producers%n",
+                games, players, games / inlineSeconds, games / pipelinedSeconds, producers);
+        System.out.printf("producer hits %d, inline misses %d, outcome independent of producers: %s%n",
+                hits, misses, same);
+    }
+
+    /**
+     * Writes the deal permutation of a round: a shuffled order of the positions of the standard deck
+     * written by {@link CardCatalog#copyStandardDeck(int[], int)}, from the bottom of the draw pile to the top.
+     * <p>
+     * The shuffle is a Fisher-Yates shuffle driven by a SplitMix64 stream seeded from the game seed and the
+     * round, so it is the same on every thread and allocates nothing.
+     * </p>
+     *
+     * @param seed the seed of the game
+     * @param round the round number
+     * @param out the array receiving the permutation
+     * @param offset the index of the first position in {@code out}
+     */
+    static void permutation(long seed, int round, byte[] out, int offset) {
+        for (int i = 0; i < CardCatalog.DECK_SIZE; i++) {
+            out[offset + i] = (byte) i;
+        }
+        long state = mix(seed ^ mix(round * GOLDEN_GAMMA));
+        for (int i = CardCatalog.DECK_SIZE; i > 1; i--) {
+            state += GOLDEN_GAMMA;
+            // The high 32 bits scaled to [0, i); the bias for a bound this small is below 2^-25.
+            int j = (int) (((mix(state) >>> 32) * i) >>> 32);
+            byte tmp = out[offset + i - 1];
+            out[offset + i - 1] = out[offset + j];
+            out[offset + j] = tmp;
+        }
+    }
+
+    /**
+     * Applies the SplitMix64 finalizer to a value.
+     *
+     * @param z the value
+     * @return the mixed value
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * A bounded ring of permutations from one producer to one game thread.
+     * <p>
+     * {@link #start(long, int)} and {@link #take(int)} must only be called by the thread that owns the lane.
+     * </p>
+     */
+    public static final class Lane {
+        /** Access to {@link #head} with explicit memory ordering. */
+        private static final VarHandle HEAD;
+
+        /** Access to {@link #tail} with explicit memory ordering. */
+        private static final VarHandle TAIL;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                HEAD = lookup.findVarHandle(Lane.class, "head", long.class);
+                TAIL = lookup.findVarHandle(Lane.class, "tail", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        /** The producer thread filling this lane. */
+        private final Thread producer;
+
+        /** The permutations, {@link CardCatalog#DECK_SIZE} positions per slot. */
+        private final byte[] slots;
+
+        /** The game seed each slot was produced for. */
+        private final long[] slotSeeds;
+
+        /** The round each slot was produced for. */
+        private final int[] slotRounds;
+
+        /** The number of permutations taken by the consumer; written only by the consumer. */
+        @SuppressWarnings("unused")
+        private long head;
+
+        /** The number of permutations published by the producer; written only by the producer. */
+        @SuppressWarnings("unused")
+        private long tail;
+
+        /** The seed of the consumer's game. */
+        private volatile long seed;
+
+        /** The first round the consumer will take for its game. */
+        private volatile int firstRound;
+
+        /** Incremented by the consumer whenever it starts a game, after writing the seed and round. */
+        private volatile int epoch;
+
+        /** The seed of the consumer's next game, valid once {@link #announcedEpoch} is written. */
+        private volatile long nextSeed;
+
+        /** The epoch the next game will have, or an earlier epoch if no next game is announced. */
+        private volatile int announcedEpoch;
+
+        /** The first deal of the next game, shuffled by the producer. */
+        private final byte[] nextDeal = new byte[CardCatalog.DECK_SIZE];
+
+        /** The seed {@link #nextDeal} was shuffled for. */
+        private long nextDealSeed;
+
+        /** The epoch {@link #nextDeal} was shuffled for; written by the producer after the deal. */
+        private volatile int nextDealEpoch;
+
+        /** The epoch the producer is filling for; read and written only by the producer. */
+        private int producerEpoch = -1;
+
+        /** The seed the producer is filling for; read and written only by the producer. */
+        private long producerSeed;
+
+        /** The next round the producer will shuffle; read and written only by the producer. */
+        private int producerRound;
+
+        /** The permutation handed to the consumer by {@link #take(int)}. */
+        private final byte[] taken = new byte[CardCatalog.DECK_SIZE];
+
+        /** The number of permutations taken from the producer. */
+        private volatile long hits;
+
+        /** The number of permutations computed inline. */
+        private volatile long misses;
+
+        /**
+         * Constructs an empty lane.
+         *
+         * @param lookahead the number of permutations the ring can hold
+         * @param producer the producer thread filling the lane
+         */
+        private Lane(int lookahead, Thread producer) {
+            this.producer = producer;
+            slots = new byte[lookahead * CardCatalog.DECK_SIZE];
+            slotSeeds = new long[lookahead];
+            slotRounds = new int[lookahead];
+        }
+
+        /**
+         * Announces the game the consumer is about to play, so the producer starts shuffling its rounds.
+         *
+         * @param seed the seed of the game
+         * @param round the first round the game will deal
+         */
+        public void start(long seed, int round) {
+            this.seed = seed;
+            this.firstRound = round;
+            epoch++;
+            LockSupport.unpark(producer);
+        }
+
+        /**
+         * Announces the game the consumer will start after the current one, so the producer can shuffle its
+         * first deal ahead. Must be called after the current game has taken its first deal, as
+         * {@link DuoCardGame#setShuffleLane(Lane, long)} does. A game started with another seed simply shuffles
+         * its first deal inline.
+         *
+         * @param seed the seed of the next game
+         */
+        public void announce(long seed) {
+            nextSeed = seed;
+            announcedEpoch = epoch + 1;
+            LockSupport.unpark(producer);
+        }
+
+        /**
+         * Returns the deal permutation of a round of the current game, from the ring if the producer has it
+         * ready and computed inline otherwise.
+         * <p>
+         * The returned array is reused by the next call.
+         * </p>
+         *
+         * @param round the round number
+         * @return the permutation, as positions of the standard deck from the bottom of the draw pile up
+         */
+        public byte[] take(int round) {
+            long wanted = seed;
+            if (round == 0 && nextDealEpoch == epoch && nextDealSeed == wanted) {
+                System.arraycopy(nextDeal, 0, taken, 0, CardCatalog.DECK_SIZE);
+                hits++;
+                return taken;
+            }
+            long h = (long) HEAD.getOpaque(this);
+            long t = (long) TAIL.getAcquire(this);
+            while (h < t) {
+                int slot = (int) (h % slotRounds.length);
+                if (slotSeeds[slot] == wanted && slotRounds[slot] > round) {
+                    // The ring is already past the wanted round, as after restoring an earlier state.
+                    break;
+                }
+                h++;
+                if (slotSeeds[slot] == wanted && slotRounds[slot] == round) {
+                    System.arraycopy(slots, slot * CardCatalog.DECK_SIZE, taken, 0, CardCatalog.DECK_SIZE);
+                    HEAD.setRelease(this, h);
+                    hits++;
+                    return taken;
+                }
+            }
+            HEAD.setRelease(this, h);
+            permutation(wanted, round, taken, 0);
+            misses++;
+            return taken;
+        }
+
+        /**
+         * Shuffles permutations into the free slots of the ring and then the first deal of the announced next
+         * game. Called only by the producer.
+         *
+         * @return {@code true} if at least one permutation was produced
+         */
+        private boolean fill() {
+            int currentEpoch = epoch;
+            if (currentEpoch != producerEpoch) {
+                producerEpoch = currentEpoch;
+                producerSeed = seed;
+                producerRound = firstRound;
+                if (producerRound == 0 && nextDealEpoch == currentEpoch && nextDealSeed == producerSeed) {
+                    // The first deal is already waiting in its own slot.
+                    producerRound = 1;
+                }
+            }
+            long t = (long) TAIL.getOpaque(this);
+            long h = (long) HEAD.getAcquire(this);
+            boolean produced = false;
+            while (t - h < slotRounds.length && epoch == currentEpoch) {
+                int slot = (int) (t % slotRounds.length);
+                permutation(producerSeed, producerRound, slots, slot * CardCatalog.DECK_SIZE);
+                slotSeeds[slot] = producerSeed;
+                slotRounds[slot] = producerRound++;
+                TAIL.setRelease(this, ++t);
+                produced = true;
+            }
+            int next = announcedEpoch;
+            if (next == currentEpoch + 1 && epoch == currentEpoch && nextDealEpoch != next) {
+                // The consumer takes the deal only after the epoch is published, and announces no other game
+                // before taking it, so the slot is never read while it is written.
+                long nextGameSeed = nextSeed;
+                permutation(nextGameSeed, 0, nextDeal, 0);
+                nextDealSeed = nextGameSeed;
+                nextDealEpoch = next;
+                produced = true;
+            }
+            return produced;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.duocardgame;
+
+import java.util.*;
+
+/**
+ * Tests that {@link DuoCardGame#shuffleHands()} redistributes the cards uniformly at random.
+ * <p>
+ * Hands of distinct marked cards are shuffled many times with fixed seeds, and two chi-square tests are
+ * applied to the outcomes. The first counts, for small hands, how often every possible arrangement of all
+ * cards occurs; a uniform shuffle makes every arrangement equally likely. The second counts, for hands of
+ * dealt size, how often each card lands in each position; a uniform shuffle makes every card equally
+ * likely to land anywhere. A position is the index in the order the cards are dealt back, player by player
+ * and round by round. Each statistic is printed next to its critical value at the 0.1% level, and the
+ * process exits with status 1 if either test rejects uniformity, so the probe can run as a build step.
+ * </p>
+ * <p>
+ * Usage: {@code ShuffleProbe [shuffles]}
+ * </p>
+ */
+public class ShuffleProbe {
+    /** The z-value of a one-sided test at the 0.1% level. */
+    private static final double Z_999 = 3.0902;
+
+    /** The seed of the game whose random generator shuffles the hands. */
+    private static final long SEED = 2024;
+
+    /**
+     * Prevents instantiation of this class.
+     */
+    private ShuffleProbe() {
+    }
+
+    /**
+     * Shuffles hands of marked cards repeatedly and counts where every card lands.
+     *
+     * @param players the number of players
+     * @param cardsPerHand the number of cards dealt to each player before every shuffle
+     * @param shuffles the number of shuffles
+     * @param seed the seed of the game
+     * @return for every shuffle, the original index of the card at each position
+     */
+    private static int[][] shuffle(int players, int cardsPerHand, int shuffles, long seed) {
+        DuoCardGame game = new DuoCardGame(seed, Collections.nCopies(players, RandomHeuristicStrategy.INSTANCE));
+        game.setVerbose(false);
+        game.setLogger(null);
+        List<Player> seats = game.getPlayers();
+        int total = players * cardsPerHand;
+        Card[] cards = new Card[total];
+        Map<Card, Integer> index = new IdentityHashMap<>();
+        for (int i = 0; i < total; i++) {
+            cards[i] = new NumberCard(CardColor.values()[i % 4], i % 10);
+            index.put(cards[i], i);
+        }
+        int[][] outcomes = new int[shuffles][total];
+        for (int s = 0; s < shuffles; s++) {
+            for (Player player : seats) {
+                player.clearHand();
+            }
+            for (int i = 0; i < total; i++) {
+                seats.get(i % players).addCard(cards[i]);
+            }
+            game.shuffleHands();
+            for (int p = 0; p < players; p++) {
+                List<Card> hand = seats.get(p).getHandView();
+                for (int slot = 0; slot < hand.size(); slot++) {
+                    outcomes[s][slot * players + p] = index.get(hand.get(slot));
+                }
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Tests that every arrangement of the cards of small hands is equally likely.
+     *
+     * @param players the number of players
+     * @param cardsPerHand the number of cards per hand; the total must be small enough to enumerate
+     * @param shuffles the number of shuffles
+     * @return {@code true} if uniformity is not rejected; {@code false} otherwise
+     */
+    static boolean testArrangements(int players, int cardsPerHand, int shuffles) {
+        int[][] outcomes = shuffle(players, cardsPerHand, shuffles, SEED);
+        int total = players * cardsPerHand;
+        int arrangements = 1;
+        for (int i = 2; i <= total; i++) arrangements *= i;
+        long[] counts = new long[arrangements];
+        for (int[] outcome : outcomes) {
+            counts[rank(outcome)]++;
+        }
+        return report("arrangements of " + total + " cards", chiSquare(counts, (double) shuffles / arrangements),
+                arrangements - 1);
+    }
+
+    /**
+     * Tests that every card is equally likely to land in every position.
+     *
+     * @param players the number of players
+     * @param cardsPerHand the number of cards per hand
+     * @param shuffles the number of shuffles
+     * @return {@code true} if uniformity is not rejected; {@code false} otherwise
+     */
+    static boolean testPositions(int players, int cardsPerHand, int shuffles) {
+        int[][] outcomes = shuffle(players, cardsPerHand, shuffles, SEED + 1);
+        int total = players * cardsPerHand;
+        long[] counts = new long[total * total];
+        for (int[] outcome : outcomes) {
+            for (int position = 0; position < total; position++) {
+                counts[outcome[position] * total + position]++;
+            }
+        }
+        // Every row and column sums to the number of shuffles, which removes 2 * total - 1 degrees of freedom.
+        return report("positions of " + total + " cards", chiSquare(counts, (double) shuffles / total),
+                (total - 1) * (total - 1));
+    }
+
+    /**
+     * Returns the lexicographic rank of a permutation.
+     *
+     * @param permutation the permutation of {@code 0} to {@code n - 1}
+     * @return the rank, between 0 and {@code n! - 1}
+     */
+    private static int rank(int[] permutation) {
+        int rank = 0;
+        for (int i = 0; i < permutation.length; i++) {
+            int smaller = 0;
+            for (int j = i + 1; j < permutation.length; j++) {
+                if (permutation[j] < permutation[i]) smaller++;
+            }
+            rank = rank * (permutation.length - i) + smaller;
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the chi-square statistic of counts against a uniform expectation.
+     *
+     * @param counts the observed counts
+     * @param expected the expected count of every cell
+     * @return the statistic
+     */
+    private static double chiSquare(long[] counts, double expected) {
+        double chi = 0;
+        for (long count : counts) {
+            chi += (count - expected) * (count - expected) / expected;
+        }
+        return chi;
+    }
+
+    /**
+     * Returns the critical value of the chi-square distribution at the 0.1% level, by the Wilson-Hilferty
+     * approximation.
+     *
+     * @param degrees the degrees of freedom
+     * @return the critical value
+     */
+    static double criticalValue(int degrees) {
+        double v = 2.0 / (9 * degrees);
+        double cube = 1 - v + Z_999 * Math.sqrt(v);
+        return degrees * cube * cube * cube;
+    }
+
+    /**
+     * Prints one test and checks its statistic against the critical value.
+     *
+     * @param name the name of the test
+     * @param chi the chi-square statistic
+     * @param degrees the degrees of freedom
+     * @return {@code true} if the statistic is below the critical value; {@code false} otherwise
+     */
+    private static boolean report(String name, double chi, int degrees) {
+        double critical = criticalValue(degrees);
+        boolean ok = chi <= critical;
+        System.out.printf("%-26s chi2 %9.1f  df %4d  critical %7.1f  %s%n", name, chi, degrees, critical,
+                ok ? "uniform" : "NOT UNIFORM");
+        return ok;
+    }
+
+    /**
+     * Runs both tests and exits with status 1 if either rejects uniformity.
+     *
+     * @param args the optional number of shuffles per test
+     */
+    public static void main(String[] args) {
+        int shuffles = args.length > 0 ? Integer.parseInt(args[0]) : 240_000;
+        boolean ok = testArrangements(2, 2, shuffles);
+        ok &= testArrangements(3, 2, shuffles);
+        ok &= testPositions(4, 7, shuffles);
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.duocardgame;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Runs silent, seeded games for evaluating strategies.
+ * <p>
+ * Every game is created with {@link DuoCardGame#DuoCardGame(long, List)}, so the same seed and seating
+ * always produce the same outcome. Printing and CSV logging are turned off.
+ * </p>
+ */
+public final class Simulation {
+    /**
+     * The version of the game engine. Increase it whenever a change alters the outcome of seeded games,
+     * so that cached results of the old engine are no longer used.
+     */
+    public static final int ENGINE_VERSION = 3;
+
+    /** The number of runs of consecutive seeds per core that a pipelined simulation is split into. */
+    private static final int CHUNKS_PER_CORE = 8;
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private Simulation() {
+    }
+
+    /**
+     * Plays one game to completion and records its outcome.
+     *
+     * @param seats the strategy of each seat
+     * @param seed the seed of the game
+     * @param result the result to record the outcome into
+     */
+    public static void playGame(List<PlayerStrategy> seats, long seed, SimulationResult result) {
+        play(new DuoCardGame(seed, seats), result);
+    }
+
+    /**
+     * Plays one game to completion, dealing every round from a shuffle pipeline lane, and records its outcome.
+     *
+     * @param seats the strategy of each seat
+     * @param seed the seed of the game
+     * @param lane the lane of the calling thread
+     * @param result the result to record the outcome into
+     */
+    public static void playGame(List<PlayerStrategy> seats, long seed, ShufflePipeline.Lane lane,
+            SimulationResult result) {
+        DuoCardGame game = new DuoCardGame(seed, seats);
+        game.setShuffleLane(lane, seed);
+        play(game, result);
+    }
+
+    /**
+     * Plays a new game silently to completion and records its outcome.
+     *
+     * @param game the game to play
+     * @param result the result to record the outcome into
+     */
+    private static void play(DuoCardGame game, SimulationResult result) {
+        game.setVerbose(false);
+        game.setLogger(null);
+        try {
+            game.startGame();
+            while (!game.isGameOver()) {
+                game.playRound();
+            }
+        } catch (IndexOutOfBoundsException e) {
+            // Both piles ran out of cards; the game cannot continue.
+            result.recordAborted();
+            return;
+        }
+        result.record(game.getPlayers().indexOf(game.getWinner()), game.getRoundNumber() - 1);
+    }
+
+    /**
+     * Plays the games with seeds {@code firstSeed} to {@code firstSeed + games - 1} on all available cores.
+     *
+     * @param seats the strategy of each seat; the strategies must be safe to share between threads
+     * @param firstSeed the seed of the first game
+     * @param games the number of games to play
+     * @return the combined outcome of all games
+     */
+    public static SimulationResult run(List<PlayerStrategy> seats, long firstSeed, int games) {
+        return LongStream.range(firstSeed, firstSeed + games).parallel().collect(
+                () -> new SimulationResult(seats.size()),
+                (result, seed) -> playGame(seats, seed, result),
+                SimulationResult::merge);
+    }
+
+    /**
+     * Plays the games with seeds {@code firstSeed} to {@code firstSeed + games - 1} on all available cores,
+     * dealing every round from the given shuffle pipeline.
+     * <p>
+     * The outcome depends only on the seats and seeds, not on how far the producers got ahead, but it differs
+     * from {@link #run(List, long, int)}, so pipelined results must not be mixed with unpipelined ones.
+     * </p>
+     * <p>
+     * The seeds are split into runs of consecutive seeds, each played by one thread, so every thread knows
+     * its next game and can announce it to its lane.
+     * </p>
+     *
+     * @param seats the strategy of each seat; the strategies must be safe to share between threads
+     * @param firstSeed the seed of the first game
+     * @param games the number of games to play
+     * @param pipeline the pipeline shuffling the decks ahead of the games
+     * @return the combined outcome of all games
+     */
+    public static SimulationResult run(List<PlayerStrategy> seats, long firstSeed, int games, ShufflePipeline pipeline) {
+        int chunks = Math.min(games, Runtime.getRuntime().availableProcessors() * CHUNKS_PER_CORE);
+        return IntStream.range(0, chunks).parallel().collect(
+                () -> new SimulationResult(seats.size()),
+                (result, chunk) -> playChunk(seats, firstSeed + (long) games * chunk / chunks,
+                        firstSeed + (long) games * (chunk + 1) / chunks, pipeline.lane(), result),
+                SimulationResult::merge);
+    }
+
+    /**
+     * Plays a run of consecutive seeds on the calling thread, announcing every next seed to the lane so its
+     * producer shuffles the first deal of the next game while the current one is played.
+     *
+     * @param seats the strategy of each seat
+     * @param fromSeed the seed of the first game
+     * @param toSeed the seed after the last game
+     * @param lane the lane of the calling thread
+     * @param result the result to record the outcomes into
+     */
+    private static void playChunk(List<PlayerStrategy> seats, long fromSeed, long toSeed, ShufflePipeline.Lane lane,
+            SimulationResult result) {
+        for (long seed = fromSeed; seed < toSeed; seed++) {
+            DuoCardGame game = new DuoCardGame(seed, seats);
+            game.setShuffleLane(lane, seed);
+            if (seed + 1 < toSeed) {
+                lane.announce(seed + 1);
+            }
+            play(game, result);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.duocardgame;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * An on-disk cache of simulation results in front of {@link Simulation#run(List, long, int)}.
+ * <p>
+ * Seed ranges are split into chunks aligned to {@link #CHUNK_SIZE}. Each chunk is stored in a file named
+ * after the SHA-256 hash of the seating configuration, {@link Simulation#ENGINE_VERSION} and the chunk's
+ * seed range, so repeating a request only reads files and extending a range only simulates the new chunks.
+ * When the cache grows beyond its size limit, the least recently used files are deleted.
+ * </p>
+ */
+public class SimulationCache {
+    /** The number of seeds per cached chunk. */
+    public static final int CHUNK_SIZE = 1000;
+
+    /** The directory holding the cache files. */
+    private final Path directory;
+
+    /** The maximum total size of the cache files in bytes. */
+    private final long maxBytes;
+
+    /** The size of each cache file, in least recently used order. */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The total size of the cache files in bytes. */
+    private long totalBytes;
+
+    /**
+     * Opens a cache directory, creating it if needed, and indexes its files from oldest to newest.
+     *
+     * @param directory the cache directory
+     * @param maxBytes the maximum total size of the cache files in bytes
+     * @throws IOException if the directory cannot be created or listed
+     */
+    public SimulationCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.bin")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort(Comparator.comparing(file -> file.toFile().lastModified()));
+        for (Path file : files) {
+            long size = Files.size(file);
+            entries.put(file.getFileName().toString(), size);
+            totalBytes += size;
+        }
+    }
+
+    /**
+     * Returns the outcome of the games with seeds {@code firstSeed} to {@code firstSeed + games - 1},
+     * simulating only the chunks that are not cached yet.
+     *
+     * @param seats the strategy of each seat
+     * @param firstSeed the seed of the first game
+     * @param games the number of games
+     * @return the combined outcome of all games
+     * @throws IOException if a cache file cannot be read or written
+     */
+    public SimulationResult run(List<PlayerStrategy> seats, long firstSeed, int games) throws IOException {
+        StringBuilder config = new StringBuilder("v").append(Simulation.ENGINE_VERSION);
+        for (PlayerStrategy strategy : seats) {
+            config.append('|').append(strategy.getConfigKey());
+        }
+        SimulationResult total = new SimulationResult(seats.size());
+        long end = firstSeed + games;
+        for (long start = firstSeed; start < end; ) {
+            long chunkEnd = Math.min(end, Math.floorDiv(start, CHUNK_SIZE) * CHUNK_SIZE + CHUNK_SIZE);
+            String name = hash(config + "|" + start + "-" + chunkEnd) + ".bin";
+            SimulationResult chunk = read(name, seats.size());
+            if (chunk == null) {
+                chunk = Simulation.run(seats, start, (int) (chunkEnd - start));
+                write(name, chunk);
+            }
+            total.merge(chunk);
+            start = chunkEnd;
+        }
+        return total;
+    }
+
+    /**
+     * Reads a cached chunk and marks it as recently used.
+     *
+     * @param name the file name of the chunk
+     * @param seats the expected number of seats
+     * @return the cached result, or {@code null} if the chunk is not cached
+     * @throws IOException if the file exists but cannot be read
+     */
+    private SimulationResult read(String name, int seats) throws IOException {
+        synchronized (this) {
+            if (entries.get(name) == null) {
+                return null;
+            }
+        }
+        Path file = directory.resolve(name);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            long[] wins = new long[in.readInt()];
+            if (wins.length != seats) {
+                return null;
+            }
+            for (int i = 0; i < wins.length; i++) {
+                wins[i] = in.readLong();
+            }
+            SimulationResult result = new SimulationResult(wins, in.readLong(), in.readLong(), in.readLong());
+            file.toFile().setLastModified(System.currentTimeMillis());
+            return result;
+        } catch (NoSuchFileException e) {
+            forget(name);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a chunk atomically and evicts the least recently used chunks if the cache is too large.
+     *
+     * @param name the file name of the chunk
+     * @param result the result to store
+     * @throws IOException if the file cannot be written
+     */
+    private void write(String name, SimulationResult result) throws IOException {
+        Path temp = Files.createTempFile(directory, "chunk", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(result.getSeats());
+            for (int i = 0; i < result.getSeats(); i++) {
+                out.writeLong(result.getWins(i));
+            }
+            out.writeLong(result.getGames());
+            out.writeLong(result.getAborted());
+            out.writeLong(result.getRounds());
+        }
+        Path file = directory.resolve(name);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        long size = Files.size(file);
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = entries.put(name, size);
+            totalBytes += size - (previous == null ? 0 : previous);
+            Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, Long> oldest = it.next();
+                if (oldest.getKey().equals(name)) continue;
+                totalBytes -= oldest.getValue();
+                evicted.add(oldest.getKey());
+                it.remove();
+            }
+        }
+        for (String old : evicted) {
+            Files.deleteIfExists(directory.resolve(old));
+        }
+    }
+
+    /**
+     * Removes a chunk from the index after its file disappeared.
+     *
+     * @param name the file name of the chunk
+     */
+    private synchronized void forget(String name) {
+        Long size = entries.remove(name);
+        if (size != null) {
+            totalBytes -= size;
+        }
+    }
+
+    /**
+     * Returns the total size of the cache files in bytes.
+     *
+     * @return the cache size
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Returns the hexadecimal SHA-256 hash of a string.
+     *
+     * @param text the text to hash
+     * @return the hash as 64 hexadecimal digits
+     */
+    private static String hash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.duocardgame;
+
+/**
+ * Accumulates the outcomes of simulated games played with the same seating.
+ * <p>
+ * Results of disjoint seed ranges can be combined with {@link #merge(SimulationResult)}.
+ * Instances are not thread-safe; parallel simulations accumulate into one result per thread and merge them.
+ * </p>
+ */
+public class SimulationResult {
+    /** The number of games won by each seat. */
+    private final long[] wins;
+
+    /** The number of completed games. */
+    private long games;
+
+    /** The number of games aborted because the deck ran out of cards. */
+    private long aborted;
+
+    /** The total number of rounds played in completed games. */
+    private long rounds;
+
+    /**
+     * Constructs an empty result for the given number of seats.
+     *
+     * @param seats the number of players in each game
+     */
+    public SimulationResult(int seats) {
+        wins = new long[seats];
+    }
+
+    /**
+     * Constructs a result from previously recorded totals.
+     *
+     * @param wins the number of games won by each seat
+     * @param games the number of completed games
+     * @param aborted the number of aborted games
+     * @param rounds the total number of rounds played
+     */
+    SimulationResult(long[] wins, long games, long aborted, long rounds) {
+        this.wins = wins.clone();
+        this.games = games;
+        this.aborted = aborted;
+        this.rounds = rounds;
+    }
+
+    /**
+     * Records a completed game.
+     *
+     * @param winner the seat of the winner
+     * @param roundsPlayed the number of rounds the game lasted
+     */
+    public void record(int winner, int roundsPlayed) {
+        wins[winner]++;
+        games++;
+        rounds += roundsPlayed;
+    }
+
+    /**
+     * Records a game that could not be completed.
+     */
+    public void recordAborted() {
+        aborted++;
+    }
+
+    /**
+     * Adds the outcomes of another result with the same number of seats to this one.
+     *
+     * @param other the result to add
+     * @throws IllegalArgumentException if the number of seats differs
+     */
+    public void merge(SimulationResult other) {
+        if (other.wins.length != wins.length) {
+            throw new IllegalArgumentException("Cannot merge results with different seat counts");
+        }
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] += other.wins[i];
+        }
+        games += other.games;
+        aborted += other.aborted;
+        rounds += other.rounds;
+    }
+
+    /**
+     * Returns the number of seats.
+     *
+     * @return the number of players in each game
+     */
+    public int getSeats() {
+        return wins.length;
+    }
+
+    /**
+     * Returns the number of games won by a seat.
+     *
+     * @param seat the seat index
+     * @return the number of wins
+     */
+    public long getWins(int seat) {
+        return wins[seat];
+    }
+
+    /**
+     * Returns the fraction of completed games won by a seat.
+     *
+     * @param seat the seat index
+     * @return the win rate, or 0 if no game was completed
+     */
+    public double getWinRate(int seat) {
+        return games == 0 ? 0 : (double) wins[seat] / games;
+    }
+
+    /**
+     * Returns the number of completed games.
+     *
+     * @return the number of games
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the number of aborted games.
+     *
+     * @return the number of games that ran out of cards
+     */
+    public long getAborted() {
+        return aborted;
+    }
+
+    /**
+     * Returns the total number of rounds played in completed games.
+     *
+     * @return the number of rounds
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Returns a string representation of the result with the win rate of each seat.
+     *
+     * @return a string representing this result
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("games=").append(games).append(" aborted=").append(aborted);
+        for (int i = 0; i < wins.length; i++) {
+            sb.append(String.format(" seat%d=%.4f", i + 1, getWinRate(i)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.duocardgame;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+
+/**
+ * Publishes the state of a game from its writer thread to any number of reader threads using a seqlock.
+ * <p>
+ * The thread playing the game writes the packed game state into a shared buffer after every turn, bumping a
+ * version counter to an odd value before writing and to an even value afterwards. Readers copy the buffer
+ * and retry if the version was odd or changed during the copy. The writer never waits for readers and
+ * readers never block the writer, so spectators, metrics and APIs cannot slow the game down.
+ * </p>
+ */
+public class SnapshotPublisher {
+    /** Access to {@link #version} with explicit memory ordering. */
+    private static final VarHandle VERSION;
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(SnapshotPublisher.class, "version", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** Twice the number of publications, plus one while a publication is in progress. */
+    @SuppressWarnings("unused")
+    private long version;
+
+    /** The packed game state, written by {@link DuoCardGame#saveState(ByteBuffer)}. */
+    private final byte[] data = new byte[DuoCardGame.STATE_BYTES];
+
+    /** The writer's view of {@link #data}. */
+    private final ByteBuffer writer = ByteBuffer.wrap(data);
+
+    /**
+     * Publishes the current state of a game. Must only be called by the thread playing the game.
+     *
+     * @param game the game to publish
+     */
+    void publish(DuoCardGame game) {
+        long current = (long) VERSION.getOpaque(this);
+        VERSION.setOpaque(this, current + 1);
+        VarHandle.storeStoreFence();
+        writer.clear();
+        game.saveState(writer);
+        VERSION.setRelease(this, current + 2);
+    }
+
+    /**
+     * Returns the number of publications so far.
+     *
+     * @return the latest published version
+     */
+    public long getVersion() {
+        return (long) VERSION.getAcquire(this) >>> 1;
+    }
+
+    /**
+     * Takes a consistent snapshot of the latest published state. Safe to call from any thread.
+     *
+     * @return the snapshot, or {@code null} if nothing was published yet
+     */
+    public GameSnapshot read() {
+        byte[] copy = new byte[data.length];
+        while (true) {
+            long before = (long) VERSION.getAcquire(this);
+            if (before == 0) {
+                return null;
+            }
+            if ((before & 1) == 0) {
+                System.arraycopy(data, 0, copy, 0, data.length);
+                VarHandle.loadLoadFence();
+                if ((long) VERSION.getOpaque(this) == before) {
+                    return DuoCardGame.readSnapshot(ByteBuffer.wrap(copy), before >>> 1);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
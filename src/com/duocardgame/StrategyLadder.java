@@ -0,0 +1,287 @@
+package com.duocardgame;
+
+import java.util.*;
+import java.util.stream.LongStream;
+
+/**
+ * Ranks the available strategies by playing round-robin matchups and fitting Elo ratings.
+ * <p>
+ * For every pair of strategies and every player count from 2 to 4, each seat is taken in turn by one
+ * strategy while the other strategy fills the remaining seats, and then the roles are swapped. With two
+ * players, swapping the roles of seat 0 already gives both seatings, so only that seat is used. All
+ * arrangements of a matchup replay the same seeds (common random numbers), so differences in outcome come
+ * from the strategies rather than from the cards. The games of one seed are therefore not independent: the
+ * matchup is judged by the per-seed difference between the lone wins of the two strategies, and stops early
+ * once the 95% confidence interval of its mean, estimated from the spread of those paired differences,
+ * excludes zero. The seeds of each block are played on all cores, and their outcomes are merged before the
+ * stopping check.
+ * </p>
+ * <p>
+ * Usage: {@code StrategyLadder [maxGamesPerArrangement] [blockSize] [firstSeed]}
+ * </p>
+ */
+public class StrategyLadder {
+    /** The z-value of a two-sided 95% confidence interval. */
+    private static final double Z_95 = 1.96;
+
+    /** The strategies on the ladder, by name. */
+    private final Map<String, PlayerStrategy> strategies = new LinkedHashMap<>();
+
+    /** The maximum number of games per seat arrangement of a matchup. */
+    private final int maxGames;
+
+    /** The number of seeds played per arrangement between stopping checks. */
+    private final int blockSize;
+
+    /** The seed of the first game of every matchup. */
+    private final long firstSeed;
+
+    /** Pairwise wins: {@code pairWins[i][j]} counts games where strategy {@code i} finished ahead of {@code j}. */
+    private double[][] pairWins;
+
+    /**
+     * The outcome of a set of seeds of a matchup: the result of each seating and the sums of the paired
+     * differences. Filled by one thread and then merged.
+     */
+    private static final class Outcome {
+        /** The result of each seating with the first strategy alone, by its seat. */
+        final SimulationResult[] aAlone;
+
+        /** The result of each seating with the second strategy alone, by its seat. */
+        final SimulationResult[] bAlone;
+
+        /** The sum of the per-seed differences between the lone wins of the two strategies. */
+        double sum;
+
+        /** The sum of the squares of the per-seed differences. */
+        double sumSquares;
+
+        /**
+         * Constructs an empty outcome.
+         *
+         * @param seats the number of distinct seatings of each strategy
+         * @param players the number of players per game
+         */
+        Outcome(int seats, int players) {
+            aAlone = new SimulationResult[seats];
+            bAlone = new SimulationResult[seats];
+            for (int seat = 0; seat < seats; seat++) {
+                aAlone[seat] = new SimulationResult(players);
+                bAlone[seat] = new SimulationResult(players);
+            }
+        }
+
+        /**
+         * Adds another outcome of the same matchup to this one.
+         *
+         * @param other the outcome to add
+         */
+        void merge(Outcome other) {
+            for (int seat = 0; seat < aAlone.length; seat++) {
+                aAlone[seat].merge(other.aAlone[seat]);
+                bAlone[seat].merge(other.bAlone[seat]);
+            }
+            sum += other.sum;
+            sumSquares += other.sumSquares;
+        }
+    }
+
+    /**
+     * Constructs a ladder with the given budget.
+     *
+     * @param maxGames the maximum number of games per seat arrangement of a matchup
+     * @param blockSize the number of games per arrangement between stopping checks
+     * @param firstSeed the seed of the first game of every matchup
+     */
+    public StrategyLadder(int maxGames, int blockSize, long firstSeed) {
+        this.maxGames = maxGames;
+        this.blockSize = blockSize;
+        this.firstSeed = firstSeed;
+    }
+
+    /**
+     * Adds a strategy to the ladder.
+     *
+     * @param name the name shown in the rating table
+     * @param strategy the strategy
+     */
+    public void addStrategy(String name, PlayerStrategy strategy) {
+        strategies.put(name, strategy);
+    }
+
+    /**
+     * Plays every matchup and prints the resulting Elo table.
+     */
+    public void run() {
+        List<String> names = new ArrayList<>(strategies.keySet());
+        int count = names.size();
+        pairWins = new double[count][count];
+        for (int players = 2; players <= 4; players++) {
+            for (int i = 0; i < count; i++) {
+                for (int j = i + 1; j < count; j++) {
+                    playMatchup(names, i, j, players);
+                }
+            }
+        }
+        printTable(names, fitElo());
+    }
+
+    /**
+     * Plays one matchup between two strategies at the given player count.
+     *
+     * @param names the strategy names
+     * @param a the index of the first strategy
+     * @param b the index of the second strategy
+     * @param players the number of players per game
+     */
+    private void playMatchup(List<String> names, int a, int b, int players) {
+        PlayerStrategy strategyA = strategies.get(names.get(a));
+        PlayerStrategy strategyB = strategies.get(names.get(b));
+        // With two players, A alone in seat 1 is B alone in seat 0, so seat 0 covers every distinct seating.
+        int seats = players == 2 ? 1 : players;
+        List<List<PlayerStrategy>> aSeatings = new ArrayList<>(seats);
+        List<List<PlayerStrategy>> bSeatings = new ArrayList<>(seats);
+        for (int seat = 0; seat < seats; seat++) {
+            aSeatings.add(seating(strategyA, strategyB, seat, players));
+            bSeatings.add(seating(strategyB, strategyA, seat, players));
+        }
+        Outcome total = new Outcome(seats, players);
+        int played = 0;
+        boolean separated = false;
+        while (played < maxGames && !separated) {
+            int block = Math.min(blockSize, maxGames - played);
+            long from = firstSeed + played;
+            total.merge(LongStream.range(from, from + block).parallel().collect(
+                    () -> new Outcome(seats, players),
+                    (outcome, seed) -> {
+                        int difference = 0;
+                        for (int seat = 0; seat < seats; seat++) {
+                            difference += playLone(aSeatings.get(seat), seed, seat, outcome.aAlone[seat]);
+                            difference -= playLone(bSeatings.get(seat), seed, seat, outcome.bAlone[seat]);
+                        }
+                        outcome.sum += difference;
+                        outcome.sumSquares += difference * difference;
+                    },
+                    Outcome::merge));
+            played += block;
+            double mean = total.sum / played;
+            double variance = played > 1 ? (total.sumSquares - played * mean * mean) / (played - 1) : 0;
+            separated = Math.abs(mean) > Z_95 * Math.sqrt(variance / played);
+        }
+        SimulationResult[] aAlone = total.aAlone;
+        SimulationResult[] bAlone = total.bAlone;
+        long gamesA = 0, winsA = 0, gamesB = 0, winsB = 0;
+        for (int seat = 0; seat < seats; seat++) {
+            gamesA += aAlone[seat].getGames();
+            winsA += aAlone[seat].getWins(seat);
+            gamesB += bAlone[seat].getGames();
+            winsB += bAlone[seat].getWins(seat);
+            // A lone winner finishes ahead of every opponent; any other winner finishes ahead of the lone player.
+            pairWins[a][b] += aAlone[seat].getWins(seat) * (players - 1) + bAlone[seat].getGames() - bAlone[seat].getWins(seat);
+            pairWins[b][a] += bAlone[seat].getWins(seat) * (players - 1) + aAlone[seat].getGames() - aAlone[seat].getWins(seat);
+        }
+        System.out.printf("%d players: %s %.4f vs %s %.4f as lone seat after %d games per arrangement%s%n",
+                players, names.get(a), (double) winsA / gamesA, names.get(b), (double) winsB / gamesB,
+                played, separated ? " (separated)" : "");
+    }
+
+    /**
+     * Plays one seeded game and reports whether the lone seat won it.
+     *
+     * @param seating the strategy of each seat
+     * @param seed the seed of the game
+     * @param seat the seat of the lone strategy
+     * @param result the result of the arrangement, which records the game
+     * @return 1 if the lone seat won; 0 otherwise, including when the game was aborted
+     */
+    private static int playLone(List<PlayerStrategy> seating, long seed, int seat, SimulationResult result) {
+        long before = result.getWins(seat);
+        Simulation.playGame(seating, seed, result);
+        return (int) (result.getWins(seat) - before);
+    }
+
+    /**
+     * Builds a seating where one strategy takes a single seat and the other fills the rest.
+     *
+     * @param lone the strategy taking a single seat
+     * @param others the strategy filling the other seats
+     * @param seat the seat of the lone strategy
+     * @param players the number of players
+     * @return the strategy of each seat
+     */
+    private static List<PlayerStrategy> seating(PlayerStrategy lone, PlayerStrategy others, int seat, int players) {
+        List<PlayerStrategy> seats = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            seats.add(i == seat ? lone : others);
+        }
+        return seats;
+    }
+
+    /**
+     * Fits Elo ratings to the pairwise results by gradient ascent on the Bradley-Terry likelihood.
+     *
+     * @return the rating of each strategy, centered on 1500
+     */
+    private double[] fitElo() {
+        int count = pairWins.length;
+        double[] ratings = new double[count];
+        for (int iteration = 0; iteration < 10000; iteration++) {
+            double[] gradient = new double[count];
+            for (int i = 0; i < count; i++) {
+                for (int j = 0; j < count; j++) {
+                    double total = pairWins[i][j] + pairWins[j][i];
+                    if (i == j || total == 0) continue;
+                    double expected = 1 / (1 + Math.pow(10, (ratings[j] - ratings[i]) / 400));
+                    gradient[i] += (pairWins[i][j] / total - expected);
+                }
+            }
+            double mean = 0;
+            for (int i = 0; i < count; i++) {
+                ratings[i] += 10 * gradient[i];
+                mean += ratings[i] / count;
+            }
+            for (int i = 0; i < count; i++) {
+                ratings[i] += 1500 - mean;
+            }
+        }
+        return ratings;
+    }
+
+    /**
+     * Prints the strategies ordered by rating together with their overall pairwise score.
+     *
+     * @param names the strategy names
+     * @param ratings the Elo rating of each strategy
+     */
+    private void printTable(List<String> names, double[] ratings) {
+        Integer[] order = new Integer[names.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (x, y) -> Double.compare(ratings[y], ratings[x]));
+        System.out.println();
+        System.out.printf("%-24s %8s %8s%n", "Strategy", "Elo", "Score");
+        for (int i : order) {
+            double won = 0, total = 0;
+            for (int j = 0; j < names.size(); j++) {
+                won += pairWins[i][j];
+                total += pairWins[i][j] + pairWins[j][i];
+            }
+            System.out.printf("%-24s %8.0f %8.4f%n", names.get(i), ratings[i], total == 0 ? 0 : won / total);
+        }
+    }
+
+    /**
+     * Runs the ladder with the built-in strategies.
+     *
+     * @param args optional maximum games per arrangement, block size and first seed
+     */
+    public static void main(String[] args) {
+        int maxGames = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int blockSize = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        long firstSeed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        StrategyLadder ladder = new StrategyLadder(maxGames, blockSize, firstSeed);
+        ladder.addStrategy("RandomHeuristic", RandomHeuristicStrategy.INSTANCE);
+        ladder.addStrategy("GreedyScore", GreedyScoreStrategy.INSTANCE);
+        ladder.addStrategy("RandomPlay", RandomPlayStrategy.INSTANCE);
+        ladder.run();
+    }
+}
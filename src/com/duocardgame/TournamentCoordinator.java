@@ -0,0 +1,228 @@
+package com.duocardgame;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Splits a large tournament into seed ranges and hands them out to {@link TournamentWorker} processes.
+ * <p>
+ * The coordinator listens on a local TCP port. Each connected worker is sent the seating, then repeatedly
+ * asks for a shard, plays it with {@link Simulation#run(List, long, int)} and reports the partial
+ * {@link SimulationResult}, which the coordinator merges into the total. If a worker disconnects, fails or
+ * does not answer within the shard timeout, its shard is put back in the queue for another worker. Since
+ * every game is seeded, the total does not depend on which worker played which shard.
+ * </p>
+ * <p>
+ * The protocol is line based: the coordinator sends {@code SEATS <name>...}; the worker sends {@code NEXT};
+ * the coordinator answers {@code SHARD <firstSeed> <games>} or {@code DONE}; the worker answers
+ * {@code RESULT <firstSeed> <games> <aborted> <rounds> <wins>...} and asks again. Any other message, such
+ * as a second {@code NEXT} before the held shard is reported, drops the worker and requeues its shard.
+ * </p>
+ * <p>
+ * Usage: {@code TournamentCoordinator <port> <games> <shardSize> <firstSeed> <strategy>...}, with strategies
+ * named as in {@link TournamentWorker#strategy(String)}. Start any number of workers with
+ * {@code TournamentWorker localhost <port>}, on this machine or others.
+ * </p>
+ */
+public class TournamentCoordinator {
+    /** The time a worker may spend on one shard before it is considered lost, in milliseconds. */
+    private static final int SHARD_TIMEOUT_MILLIS = 10 * 60 * 1000;
+
+    /** The time idle workers are given to receive {@code DONE} once the tournament is complete, in milliseconds. */
+    private static final long SHUTDOWN_GRACE_MILLIS = 5000;
+
+    /** The strategy names of the seats, as sent to the workers. */
+    private final List<String> seatNames;
+
+    /** The shards waiting for a worker, each as {first seed, number of games}. */
+    private final ArrayDeque<long[]> pending = new ArrayDeque<>();
+
+    /** The number of shards not completed yet, including those being played. */
+    private int remaining;
+
+    /** The number of workers currently connected. */
+    private int connected;
+
+    /** The merged result of all completed shards. */
+    private final SimulationResult total;
+
+    /**
+     * Constructs a coordinator for a tournament.
+     *
+     * @param seatNames the strategy name of each seat
+     * @param firstSeed the seed of the first game
+     * @param games the total number of games
+     * @param shardSize the number of games per shard
+     * @throws IllegalArgumentException if a strategy name is unknown
+     */
+    public TournamentCoordinator(List<String> seatNames, long firstSeed, long games, int shardSize) {
+        for (String name : seatNames) {
+            TournamentWorker.strategy(name);
+        }
+        this.seatNames = new ArrayList<>(seatNames);
+        this.total = new SimulationResult(seatNames.size());
+        for (long start = firstSeed; start < firstSeed + games; start += shardSize) {
+            pending.add(new long[] { start, Math.min(shardSize, firstSeed + games - start) });
+        }
+        remaining = pending.size();
+    }
+
+    /**
+     * Accepts workers on the given socket until every shard is completed, then closes the socket.
+     *
+     * @param server the socket to accept workers on
+     * @return the merged result of the tournament
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public SimulationResult run(ServerSocket server) throws InterruptedException {
+        Thread acceptor = new Thread(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    Thread handler = new Thread(() -> serve(socket), "tournament-worker-" + socket.getPort());
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException e) {
+                    // The socket was closed because the tournament is complete.
+                }
+            }
+        }, "tournament-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        synchronized (this) {
+            while (remaining > 0) {
+                wait();
+            }
+            long deadline = System.currentTimeMillis() + SHUTDOWN_GRACE_MILLIS;
+            for (long left = SHUTDOWN_GRACE_MILLIS; connected > 0 && left > 0; left = deadline - System.currentTimeMillis()) {
+                wait(left);
+            }
+        }
+        try {
+            server.close();
+        } catch (IOException e) {
+            // Nothing is left to accept.
+        }
+        return total;
+    }
+
+    /**
+     * Serves one worker connection, putting its current shard back in the queue if the connection fails.
+     *
+     * @param socket the worker connection
+     */
+    private void serve(Socket socket) {
+        synchronized (this) {
+            connected++;
+        }
+        long[] shard = null;
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.US_ASCII), true)) {
+            s.setSoTimeout(SHARD_TIMEOUT_MILLIS);
+            out.println("SEATS " + String.join(" ", seatNames));
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.split(" ");
+                // A worker holds at most one shard; asking again before reporting it is a protocol error,
+                // which drops the connection and puts the held shard back in the queue.
+                if (parts[0].equals("NEXT") && shard == null) {
+                    shard = take();
+                    if (shard == null) {
+                        out.println("DONE");
+                        return;
+                    }
+                    out.println("SHARD " + shard[0] + " " + shard[1]);
+                } else if (parts[0].equals("RESULT") && shard != null && Long.parseLong(parts[1]) == shard[0]) {
+                    complete(parseResult(parts));
+                    shard = null;
+                } else {
+                    throw new IOException("Unexpected message from worker: " + line);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Worker " + socket.getRemoteSocketAddress() + " failed: " + e.getMessage());
+        } finally {
+            synchronized (this) {
+                if (shard != null) {
+                    pending.addFirst(shard);
+                }
+                connected--;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Takes the next shard, waiting while other workers still hold shards that might be requeued.
+     *
+     * @return the shard, or {@code null} if every shard is completed
+     * @throws InterruptedIOException if interrupted while waiting
+     */
+    private synchronized long[] take() throws InterruptedIOException {
+        while (pending.isEmpty() && remaining > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+        }
+        return pending.poll();
+    }
+
+    /**
+     * Merges the result of a completed shard.
+     *
+     * @param result the result of the shard
+     */
+    private synchronized void complete(SimulationResult result) {
+        total.merge(result);
+        remaining--;
+        if (remaining % 100 == 0) {
+            System.out.println(remaining + " shards remaining, " + total);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Parses a {@code RESULT} message.
+     *
+     * @param parts the words of the message
+     * @return the reported result
+     */
+    private SimulationResult parseResult(String[] parts) {
+        long[] wins = new long[seatNames.size()];
+        if (parts.length != 5 + wins.length) {
+            throw new IllegalArgumentException("Malformed result with " + parts.length + " fields");
+        }
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] = Long.parseLong(parts[5 + i]);
+        }
+        return new SimulationResult(wins, Long.parseLong(parts[2]), Long.parseLong(parts[3]), Long.parseLong(parts[4]));
+    }
+
+    /**
+     * Runs a tournament and prints its result.
+     *
+     * @param args the port, total games, shard size, first seed and the strategy name of each seat
+     * @throws IOException if the port cannot be opened
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 6) {
+            System.err.println("Usage: TournamentCoordinator <port> <games> <shardSize> <firstSeed> <strategy>...");
+            System.exit(2);
+        }
+        int port = Integer.parseInt(args[0]);
+        long games = Long.parseLong(args[1]);
+        int shardSize = Integer.parseInt(args[2]);
+        long firstSeed = Long.parseLong(args[3]);
+        List<String> seats = Arrays.asList(args).subList(4, args.length);
+        TournamentCoordinator coordinator = new TournamentCoordinator(seats, firstSeed, games, shardSize);
+        long start = System.nanoTime();
+        SimulationResult result = coordinator.run(new ServerSocket(port, 50, InetAddress.getLoopbackAddress()));
+        System.out.printf("%s in %.1f s%n", result, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,104 @@
+package com.duocardgame;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Plays the shards of a tournament handed out by a {@link TournamentCoordinator}.
+ * <p>
+ * Usage: {@code TournamentWorker <host> <port>}. The worker exits when the coordinator has no shards left.
+ * </p>
+ */
+public class TournamentWorker {
+    /**
+     * Prevents instantiation of this class.
+     */
+    private TournamentWorker() {
+    }
+
+    /**
+     * Returns the built-in strategy with the given name.
+     *
+     * @param name {@code RandomHeuristic}, {@code GreedyScore} or {@code RandomPlay}
+     * @return the strategy
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    static PlayerStrategy strategy(String name) {
+        switch (name) {
+            case "RandomHeuristic":
+                return RandomHeuristicStrategy.INSTANCE;
+            case "GreedyScore":
+                return GreedyScoreStrategy.INSTANCE;
+            case "RandomPlay":
+                return RandomPlayStrategy.INSTANCE;
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+
+    /**
+     * Connects to a coordinator and plays shards until it has none left.
+     *
+     * @param host the host of the coordinator
+     * @param port the port of the coordinator
+     * @return the number of shards played
+     * @throws IOException if the connection fails
+     */
+    public static int work(String host, int port) throws IOException {
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), true)) {
+            String[] header = readLine(in).split(" ");
+            List<PlayerStrategy> seats = new ArrayList<>();
+            for (int i = 1; i < header.length; i++) {
+                seats.add(strategy(header[i]));
+            }
+            int shards = 0;
+            while (true) {
+                out.println("NEXT");
+                String[] parts = readLine(in).split(" ");
+                if (parts[0].equals("DONE")) {
+                    return shards;
+                }
+                long firstSeed = Long.parseLong(parts[1]);
+                SimulationResult result = Simulation.run(seats, firstSeed, Integer.parseInt(parts[2]));
+                StringBuilder sb = new StringBuilder("RESULT ").append(firstSeed).append(' ').append(result.getGames())
+                        .append(' ').append(result.getAborted()).append(' ').append(result.getRounds());
+                for (int i = 0; i < result.getSeats(); i++) {
+                    sb.append(' ').append(result.getWins(i));
+                }
+                out.println(sb);
+                shards++;
+            }
+        }
+    }
+
+    /**
+     * Reads a line from the coordinator.
+     *
+     * @param in the coordinator's input
+     * @return the line
+     * @throws EOFException if the coordinator closed the connection
+     */
+    private static String readLine(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        if (line == null) {
+            throw new EOFException("Coordinator closed the connection");
+        }
+        return line;
+    }
+
+    /**
+     * Runs a worker.
+     *
+     * @param args the host and port of the coordinator
+     * @throws IOException if the connection fails
+     */
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7350;
+        System.out.println("Played " + work(host, port) + " shards");
+    }
+}
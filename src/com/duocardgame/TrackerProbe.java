@@ -0,0 +1,130 @@
+package com.duocardgame;
+
+import java.util.*;
+
+/**
+ * Checks that every {@link CardTracker} of a game counts exactly what its player has not seen.
+ * <p>
+ * Silent seeded games of 2 to 4 players are played with a tracker on every seat. After every turn the
+ * probe counts the true unseen cards of each seat, the draw pile and the other players' hands, and compares
+ * them face by face with the tracker's counts, together with its total and every hand size. The first
+ * mismatch is printed and the process exits with status 1, so the probe can run as a build step.
+ * </p>
+ * <p>
+ * Usage: {@code TrackerProbe [games]}
+ * </p>
+ */
+public class TrackerProbe {
+    /** The true number of cards of each uncolored face in the draw pile and all hands. */
+    private final int[] outside = new int[CardCatalog.FACE_COUNT];
+
+    /** The true number of unseen cards of each uncolored face for the seat being checked. */
+    private final int[] truth = new int[CardCatalog.FACE_COUNT];
+
+    /** The number of turns checked. */
+    private long turns;
+
+    /**
+     * Plays one seeded game and checks every tracker after every turn.
+     *
+     * @param seed the seed of the game
+     * @return a description of the first mismatch, or {@code null} if the trackers stayed exact
+     */
+    String checkGame(long seed) {
+        int count = 2 + (int) Math.floorMod(seed, 3L);
+        List<PlayerStrategy> seats = Collections.nCopies(count, RandomHeuristicStrategy.INSTANCE);
+        DuoCardGame game = new DuoCardGame(seed, seats);
+        game.setVerbose(false);
+        game.setLogger(null);
+        CardTracker[] trackers = new CardTracker[count];
+        for (int i = 0; i < count; i++) {
+            trackers[i] = new CardTracker(i, count);
+            game.addCardListener(trackers[i]);
+        }
+        try {
+            game.startGame();
+            while (!game.isGameOver()) {
+                String mismatch = check(game, trackers);
+                if (mismatch != null) {
+                    return "seed " + seed + ", round " + game.getRoundNumber() + ": " + mismatch;
+                }
+                game.playTurn();
+                turns++;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            // Both piles ran out of cards; the turns up to here were checked.
+        }
+        return null;
+    }
+
+    /**
+     * Compares every tracker with the true piles and hands of the game.
+     *
+     * @param game the game
+     * @param trackers the tracker of each seat
+     * @return a description of the first mismatch, or {@code null} if there is none
+     */
+    private String check(DuoCardGame game, CardTracker[] trackers) {
+        List<Player> players = game.getPlayers();
+        Arrays.fill(outside, 0);
+        game.countDrawPile(outside);
+        for (Player player : players) {
+            addHand(player, 1, outside);
+        }
+        for (int seat = 0; seat < trackers.length; seat++) {
+            CardTracker tracker = trackers[seat];
+            System.arraycopy(outside, 0, truth, 0, truth.length);
+            addHand(players.get(seat), -1, truth);
+            int total = 0;
+            for (int face = 0; face < truth.length; face++) {
+                total += truth[face];
+                if (tracker.getUnseenCount(face) != truth[face]) {
+                    return "seat " + seat + " face " + face + " unseen " + tracker.getUnseenCount(face)
+                            + ", expected " + truth[face];
+                }
+            }
+            if (tracker.getUnseenTotal() != total) {
+                return "seat " + seat + " unseen total " + tracker.getUnseenTotal() + ", expected " + total;
+            }
+            for (int other = 0; other < players.size(); other++) {
+                if (tracker.getHandSize(other) != players.get(other).getHandSize()) {
+                    return "seat " + seat + " hand size of seat " + other + " " + tracker.getHandSize(other)
+                            + ", expected " + players.get(other).getHandSize();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the cards of a hand to per-face counts.
+     *
+     * @param player the player holding the hand
+     * @param sign 1 to add the cards, -1 to remove them
+     * @param counts the counts, indexed by uncolored face
+     */
+    private static void addHand(Player player, int sign, int[] counts) {
+        List<Card> hand = player.getHandView();
+        for (int i = 0; i < hand.size(); i++) {
+            counts[CardCatalog.uncolored(CardCatalog.faceOf(hand.get(i)))] += sign;
+        }
+    }
+
+    /**
+     * Runs the probe and exits with status 1 at the first mismatch.
+     *
+     * @param args the optional number of games
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        TrackerProbe probe = new TrackerProbe();
+        for (int seed = 1; seed <= games; seed++) {
+            String mismatch = probe.checkGame(seed);
+            if (mismatch != null) {
+                System.out.println("MISMATCH " + mismatch);
+                System.exit(1);
+            }
+        }
+        System.out.printf("%d games, %d turns, trackers exact%n", games, probe.turns);
+    }
+}
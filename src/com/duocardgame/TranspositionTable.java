@@ -0,0 +1,127 @@
+package com.duocardgame;
+
+/**
+ * A fixed-size hash table of searched positions that many solver threads can share without locks.
+ * <p>
+ * Each slot holds a 64-bit Zobrist key and a 64-bit entry packing the value, the search depth, the bound
+ * type and the generation of the search that stored it. The slot stores {@code key ^ entry} next to
+ * {@code entry}, so a slot torn by two threads writing at once no longer matches its key and is simply
+ * treated as a miss. Within one generation a slot is overwritten only by the same position or by a search
+ * at least as deep, which keeps the expensive results. Every search starts a new generation with
+ * {@link #newSearch()}, and entries of earlier generations are replaced regardless of their depth, so a
+ * table shared across games does not fill up with deep results of positions that will not come back.
+ * </p>
+ */
+public class TranspositionTable {
+    /** The bound type of an exact value. */
+    static final int EXACT = 0;
+
+    /** The bound type of a value the true value is at least. */
+    static final int LOWER = 1;
+
+    /** The bound type of a value the true value is at most. */
+    static final int UPPER = 2;
+
+    /** The keys of the slots, each XORed with its entry. */
+    private final long[] keys;
+
+    /** The entries of the slots. */
+    private final long[] entries;
+
+    /** The index mask; the number of slots is a power of two. */
+    private final int mask;
+
+    /** The generation of the current search, between 0 and 0xFFFF. */
+    private volatile int generation;
+
+    /**
+     * Constructs an empty table.
+     *
+     * @param slotsLog2 the base-2 logarithm of the number of slots; each slot takes 16 bytes
+     */
+    public TranspositionTable(int slotsLog2) {
+        keys = new long[1 << slotsLog2];
+        entries = new long[1 << slotsLog2];
+        mask = (1 << slotsLog2) - 1;
+    }
+
+    /**
+     * Starts a new generation, which lets the entries of earlier searches be replaced by any search.
+     * Concurrent calls may skip a generation, which does no harm.
+     */
+    void newSearch() {
+        generation = (generation + 1) & 0xFFFF;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key the Zobrist key of the position
+     * @return the packed entry, or 0 if the position is not stored
+     */
+    long probe(long key) {
+        int slot = (int) key & mask;
+        long entry = entries[slot];
+        return entry != 0 && (keys[slot] ^ entry) == key ? entry : 0;
+    }
+
+    /**
+     * Stores a position unless its slot holds a deeper search of another position from the current generation.
+     *
+     * @param key the Zobrist key of the position
+     * @param value the value of the position for the side to move
+     * @param depth the remaining search depth, at most 127
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     */
+    void store(long key, float value, int depth, int bound) {
+        int slot = (int) key & mask;
+        long old = entries[slot];
+        int current = generation;
+        if (old != 0 && (keys[slot] ^ old) != key && generation(old) == current && depth(old) > depth) {
+            return;
+        }
+        long entry = (long) Float.floatToRawIntBits(value) << 32 | (long) current << 16 | (depth + 1) << 8 | bound;
+        entries[slot] = entry;
+        keys[slot] = key ^ entry;
+    }
+
+    /**
+     * Returns the value of a packed entry.
+     *
+     * @param entry the entry
+     * @return the stored value
+     */
+    static float value(long entry) {
+        return Float.intBitsToFloat((int) (entry >>> 32));
+    }
+
+    /**
+     * Returns the search depth of a packed entry.
+     *
+     * @param entry the entry
+     * @return the stored depth
+     */
+    static int depth(long entry) {
+        return (int) (entry >>> 8 & 0xFF) - 1;
+    }
+
+    /**
+     * Returns the generation of the search that stored a packed entry.
+     *
+     * @param entry the entry
+     * @return the generation
+     */
+    static int generation(long entry) {
+        return (int) (entry >>> 16 & 0xFFFF);
+    }
+
+    /**
+     * Returns the bound type of a packed entry.
+     *
+     * @param entry the entry
+     * @return {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     */
+    static int bound(long entry) {
+        return (int) entry & 0xFF;
+    }
+}
@@ -0,0 +1,34 @@
+package com.duocardgame;
+
+/**
+ * Receives every decision of a game before the game applies it.
+ * <p>
+ * Together with a snapshot of the game state, the recorded decisions are enough to reconstruct the game:
+ * shuffles come from the game's random generator, and everything else follows from the rules.
+ * </p>
+ */
+public interface TurnJournal {
+    /**
+     * Records that a player is about to play a card from their hand.
+     *
+     * @param seat the index of the player
+     * @param position the position of the card in the player's hand
+     * @param card the card to be played
+     */
+    void cardPlayed(int seat, int position, Card card);
+
+    /**
+     * Records that a player has no card to play and is about to draw.
+     *
+     * @param seat the index of the player
+     */
+    void drawChosen(int seat);
+
+    /**
+     * Records the color a player chose for a wild card.
+     *
+     * @param seat the index of the player
+     * @param color the chosen color
+     */
+    void colorChosen(int seat, CardColor color);
+}
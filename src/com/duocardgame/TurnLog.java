@@ -0,0 +1,697 @@
+package com.duocardgame;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * A write-ahead log of game decisions shared by many concurrent games, with group commit.
+ * <p>
+ * {@link #begin(long, DuoCardGame)} writes a snapshot of a game and returns a {@link TurnJournal} that the
+ * game calls before applying each decision. Every call blocks until its record is on disk, but records from
+ * all games waiting at the same moment are written and forced with a single {@code fsync} by a background
+ * flusher thread, so durability does not cap throughput. {@link #replay(Path, long, List)} rebuilds a game
+ * from its latest snapshot and the decisions logged after it, and checks every replayed decision against
+ * the logged one.
+ * </p>
+ * <p>
+ * The log is split into segment files named after the log file with a segment index appended, such as
+ * {@code games.log.0}, {@code games.log.1}, and so on. The flusher starts a new segment once the current one
+ * reaches the segment size, so opening the log only validates the last segment, and a replay reads the
+ * segments from the newest back to the one holding the game's latest snapshot. Segments are read in
+ * fixed-size chunks, so neither depends on the total size of the log. Old segments can be dropped with
+ * {@link #deleteSegmentsBefore(Path, int)} once the games logged in them are no longer needed.
+ * </p>
+ * <p>
+ * Each record is a length, a body holding the game id, the record kind and its payload, and a CRC32 of
+ * the body. A record torn by a crash fails its checksum; it and everything after it are ignored.
+ * </p>
+ */
+public class TurnLog implements Closeable {
+    /** Record kind of a game state snapshot. */
+    private static final byte SNAPSHOT = 0;
+
+    /** Record kind of a played card: seat, hand position and face. */
+    private static final byte PLAY = 1;
+
+    /** Record kind of a draw decision: seat. */
+    private static final byte DRAW = 2;
+
+    /** Record kind of a chosen color: seat and color ordinal. */
+    private static final byte COLOR = 3;
+
+    /** The size of the record body header: game id and kind. */
+    private static final int BODY_HEADER_BYTES = 9;
+
+    /** The largest possible record body. */
+    private static final int MAX_BODY_BYTES = BODY_HEADER_BYTES + DuoCardGame.STATE_BYTES;
+
+    /** The card colors, cached to avoid copying {@code CardColor.values()}. */
+    private static final CardColor[] COLORS = CardColor.values();
+
+    /** The default size after which a new segment is started, in bytes. */
+    public static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    /** The size of the chunks segments are read in, in bytes. */
+    private static final int READ_CHUNK_BYTES = 64 * 1024;
+
+    /** The log file, whose name prefixes the segment files. */
+    private final Path file;
+
+    /** The size after which a new segment is started, in bytes. */
+    private final long segmentBytes;
+
+    /** The index of the segment being appended to. Only changed by the flusher. */
+    private int segment;
+
+    /** The channel of the current segment, positioned at its end. Only changed by the flusher. */
+    private FileChannel channel;
+
+    /** The background thread writing and forcing batches of records. */
+    private final Thread flusher;
+
+    /** Guards the pending buffer and the sequence numbers. */
+    private final Object lock = new Object();
+
+    /** Records appended but not yet handed to the flusher. */
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+
+    /** The batch being written by the flusher; swapped with {@link #pending}. */
+    private ByteBuffer writing = ByteBuffer.allocate(64 * 1024);
+
+    /** The sequence number of the last appended record. */
+    private long appendedSeq;
+
+    /** The sequence number of the last record known to be on disk. */
+    private long durableSeq;
+
+    /** The number of times the file was forced to disk. */
+    private long syncCount;
+
+    /** The error that stopped the flusher, if any. */
+    private IOException failure;
+
+    /** Whether the log is being closed. */
+    private boolean closed;
+
+    /**
+     * Opens a log for appending with segments of {@link #DEFAULT_SEGMENT_BYTES}, and starts the flusher thread.
+     *
+     * @param file the log file, whose name prefixes the segment files
+     * @throws IOException if the last segment cannot be opened
+     */
+    public TurnLog(Path file) throws IOException {
+        this(file, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Opens a log for appending, creating its first segment if needed, and starts the flusher thread.
+     * <p>
+     * A torn record left at the end of the last segment by a crash is cut off, so new records follow the
+     * last complete one.
+     * </p>
+     *
+     * @param file the log file, whose name prefixes the segment files
+     * @param segmentBytes the size after which a new segment is started
+     * @throws IOException if the last segment cannot be opened
+     */
+    public TurnLog(Path file, long segmentBytes) throws IOException {
+        this.file = file;
+        this.segmentBytes = segmentBytes;
+        segment = Math.max(0, lastSegment(file));
+        Path path = segmentPath(file, segment);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long end;
+        try (RecordReader reader = new RecordReader(path)) {
+            while (reader.next()) {
+                // Skip to the end of the valid records.
+            }
+            end = reader.getValidLength();
+        }
+        channel.truncate(end);
+        channel.position(end);
+        flusher = new Thread(this::flushLoop, "turn-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Logs a snapshot of a game and returns the journal to attach to it with
+     * {@link DuoCardGame#setJournal(TurnJournal)}.
+     * <p>
+     * The snapshot should be taken after {@link DuoCardGame#startGame()} so the replayed game is already dealt.
+     * A journal must only be used by the thread playing its game.
+     * </p>
+     *
+     * @param gameId the id identifying the game in the log
+     * @param game the game to journal
+     * @return the journal of the game
+     * @throws IOException if the snapshot cannot be made durable
+     */
+    public TurnJournal begin(long gameId, DuoCardGame game) throws IOException {
+        GameJournal journal = new GameJournal(gameId);
+        ByteBuffer body = journal.start(SNAPSHOT);
+        game.saveState(body);
+        journal.commit();
+        return journal;
+    }
+
+    /**
+     * Returns the path of a segment of a log.
+     *
+     * @param file the log file
+     * @param segment the index of the segment
+     * @return the path of the segment file
+     */
+    public static Path segmentPath(Path file, int segment) {
+        return file.resolveSibling(file.getFileName() + "." + segment);
+    }
+
+    /**
+     * Returns the index of the last segment of a log.
+     *
+     * @param file the log file
+     * @return the index of the last segment, or -1 if the log has no segments
+     */
+    public static int lastSegment(Path file) {
+        int last = -1;
+        while (Files.exists(segmentPath(file, last + 1))) {
+            last++;
+        }
+        return last;
+    }
+
+    /**
+     * Deletes the segments of a log before the given one. Games whose latest snapshot was in a deleted
+     * segment can no longer be replayed; the segment being appended to must not be deleted.
+     *
+     * @param file the log file
+     * @param segment the index of the first segment to keep
+     * @throws IOException if a segment cannot be deleted
+     */
+    public static void deleteSegmentsBefore(Path file, int segment) throws IOException {
+        for (int i = 0; i < segment; i++) {
+            Files.deleteIfExists(segmentPath(file, i));
+        }
+    }
+
+    /**
+     * Returns the index of the segment records are appended to.
+     *
+     * @return the current segment
+     */
+    public int getSegment() {
+        synchronized (lock) {
+            return segment;
+        }
+    }
+
+    /**
+     * Returns the number of times the file was forced to disk; lower than the number of records when
+     * concurrent games share a group commit.
+     *
+     * @return the number of syncs
+     */
+    public long getSyncCount() {
+        synchronized (lock) {
+            return syncCount;
+        }
+    }
+
+    /**
+     * Appends a record and waits until it is on disk.
+     *
+     * @param body the record body, from position 0 to its limit
+     * @param checksum the CRC32 of the body
+     * @throws IOException if the log failed or was closed
+     */
+    private void append(ByteBuffer body, int checksum) throws IOException {
+        synchronized (lock) {
+            if (closed || failure != null) {
+                throw new IOException("Turn log is closed", failure);
+            }
+            int needed = 8 + body.remaining();
+            if (pending.remaining() < needed) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + needed));
+                pending.flip();
+                larger.put(pending);
+                pending = larger;
+            }
+            pending.putInt(body.remaining()).put(body).putInt(checksum);
+            long seq = ++appendedSeq;
+            lock.notifyAll();
+            try {
+                while (durableSeq < seq) {
+                    if (failure != null) {
+                        throw new IOException("Turn log write failed", failure);
+                    }
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the turn log");
+            }
+        }
+    }
+
+    /**
+     * Writes and forces every batch of pending records until the log is closed.
+     */
+    private void flushLoop() {
+        while (true) {
+            long target;
+            synchronized (lock) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.position() == 0) {
+                    return;
+                }
+                ByteBuffer batch = pending;
+                pending = writing;
+                writing = batch;
+                target = appendedSeq;
+            }
+            try {
+                writing.flip();
+                while (writing.hasRemaining()) {
+                    channel.write(writing);
+                }
+                writing.clear();
+                channel.force(false);
+                if (channel.position() >= segmentBytes) {
+                    rotate();
+                }
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+            synchronized (lock) {
+                durableSeq = target;
+                syncCount++;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Closes the full segment and continues in a new one. Called by the flusher between batches, so no
+     * record is split across segments.
+     *
+     * @throws IOException if the new segment cannot be created
+     */
+    private void rotate() throws IOException {
+        FileChannel next = FileChannel.open(segmentPath(file, segment + 1), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel full = channel;
+        synchronized (lock) {
+            channel = next;
+            segment++;
+        }
+        full.close();
+    }
+
+    /**
+     * Flushes the pending records, stops the flusher and closes the file.
+     *
+     * @throws IOException if the file cannot be closed or the flusher was interrupted
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the turn log");
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Rebuilds a game from its latest logged snapshot and the decisions logged after it.
+     * <p>
+     * Each logged decision is applied in place of the strategy's choice. The original strategies are still
+     * consulted, so they consume the game's random generator exactly as during the original game and the
+     * reconstructed state, generator included, is identical. A turn whose later decisions were not logged
+     * is completed with the original strategies, as it would have been played.
+     * </p>
+     * <p>
+     * Every replayed decision must be made by the logged seat, and a replayed card must be the logged card;
+     * otherwise the engine no longer plays the logged game the way it was played, and the replay fails.
+     * </p>
+     *
+     * @param file the log file, whose name prefixes the segment files
+     * @param gameId the id of the game
+     * @param strategies the strategy of each seat in the original game, or {@code null} for the default strategy
+     * @return the reconstructed game, or {@code null} if the log holds no snapshot of the game
+     * @throws IOException if a segment cannot be read
+     * @throws IllegalStateException if the replayed game diverges from the logged decisions
+     */
+    public static DuoCardGame replay(Path file, long gameId, List<PlayerStrategy> strategies) throws IOException {
+        ByteBuffer snapshot = null;
+        // The decisions of each segment read so far, oldest segment first.
+        Deque<List<int[]>> later = new ArrayDeque<>();
+        for (int segment = lastSegment(file); segment >= 0 && snapshot == null; segment--) {
+            List<int[]> decisions = new ArrayList<>();
+            try (RecordReader reader = new RecordReader(segmentPath(file, segment))) {
+                while (reader.next()) {
+                    ByteBuffer data = reader.getBuffer();
+                    int body = reader.getBody();
+                    if (data.getLong(body) != gameId) continue;
+                    byte kind = data.get(body + 8);
+                    int payload = body + BODY_HEADER_BYTES;
+                    if (kind == SNAPSHOT) {
+                        snapshot = ByteBuffer.allocate(reader.getLength() - BODY_HEADER_BYTES);
+                        snapshot.put(0, data, payload, snapshot.capacity());
+                        decisions.clear();
+                    } else if (kind == PLAY) {
+                        decisions.add(new int[] { kind, data.get(payload), data.get(payload + 1), data.get(payload + 2) });
+                    } else {
+                        int value = kind == DRAW ? -1 : data.get(payload + 1);
+                        decisions.add(new int[] { kind, data.get(payload), value, -1 });
+                    }
+                }
+            }
+            later.addFirst(decisions);
+        }
+        if (snapshot == null) {
+            return null;
+        }
+        Deque<int[]> decisions = new ArrayDeque<>();
+        for (List<int[]> segmentDecisions : later) {
+            decisions.addAll(segmentDecisions);
+        }
+
+        DuoCardGame game = DuoCardGame.loadState(snapshot);
+        game.setVerbose(false);
+        game.setLogger(null);
+        List<Player> players = game.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            Player p = players.get(i);
+            PlayerStrategy original = strategies == null ? p.getStrategy() : strategies.get(i);
+            p.setStrategy(new ReplayStrategy(gameId, decisions, original));
+        }
+        try {
+            while (!decisions.isEmpty() && !game.isGameOver()) {
+                game.playTurn();
+            }
+        } finally {
+            for (int i = 0; i < players.size(); i++) {
+                players.get(i).setStrategy(((ReplayStrategy) players.get(i).getStrategy()).original);
+            }
+        }
+        return game;
+    }
+
+    /**
+     * Reads the records of a segment in fixed-size chunks, stopping at the first incomplete or corrupt one.
+     */
+    private static final class RecordReader implements Closeable {
+        /** The channel of the segment. */
+        private final FileChannel channel;
+
+        /** The chunk being read; its position is the start of the next record. */
+        private final ByteBuffer buffer = ByteBuffer.allocate(READ_CHUNK_BYTES);
+
+        /** Reusable checksum calculator. */
+        private final CRC32 crc = new CRC32();
+
+        /** The number of bytes of valid records read so far. */
+        private long validLength;
+
+        /** The offset of the current record's body in the chunk. */
+        private int body;
+
+        /** The length of the current record's body. */
+        private int length;
+
+        /**
+         * Opens a segment for reading.
+         *
+         * @param segment the segment file
+         * @throws IOException if the segment cannot be opened
+         */
+        RecordReader(Path segment) throws IOException {
+            channel = FileChannel.open(segment, StandardOpenOption.READ);
+            buffer.limit(0);
+        }
+
+        /**
+         * Reads the next record.
+         *
+         * @return {@code true} if a complete record with a valid checksum was read; {@code false} at the end
+         *         of the valid records
+         * @throws IOException if the segment cannot be read
+         */
+        boolean next() throws IOException {
+            if (!fill(4)) {
+                return false;
+            }
+            int size = buffer.getInt(buffer.position());
+            if (size < BODY_HEADER_BYTES || size > MAX_BODY_BYTES || !fill(8 + size)) {
+                return false;
+            }
+            int start = buffer.position();
+            crc.reset();
+            crc.update(buffer.array(), start + 4, size);
+            if ((int) crc.getValue() != buffer.getInt(start + 4 + size)) {
+                return false;
+            }
+            body = start + 4;
+            length = size;
+            buffer.position(start + 8 + size);
+            validLength += 8 + size;
+            return true;
+        }
+
+        /**
+         * Makes sure the chunk holds at least the given number of bytes after its position.
+         *
+         * @param needed the number of bytes needed
+         * @return {@code true} if they are available; {@code false} if the segment ends first
+         * @throws IOException if the segment cannot be read
+         */
+        private boolean fill(int needed) throws IOException {
+            if (buffer.remaining() >= needed) {
+                return true;
+            }
+            buffer.compact();
+            while (buffer.position() < needed && channel.read(buffer) >= 0) {
+                // Keep reading until enough bytes arrived or the segment ended.
+            }
+            buffer.flip();
+            return buffer.remaining() >= needed;
+        }
+
+        /**
+         * Returns the chunk holding the current record; valid until the next call to {@link #next()}.
+         *
+         * @return the chunk
+         */
+        ByteBuffer getBuffer() {
+            return buffer;
+        }
+
+        /**
+         * Returns the offset of the current record's body in the chunk.
+         *
+         * @return the body offset
+         */
+        int getBody() {
+            return body;
+        }
+
+        /**
+         * Returns the length of the current record's body.
+         *
+         * @return the body length
+         */
+        int getLength() {
+            return length;
+        }
+
+        /**
+         * Returns the number of bytes of valid records read so far.
+         *
+         * @return the valid length
+         */
+        long getValidLength() {
+            return validLength;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * The journal of one game, encoding its decisions into records of the shared log.
+     */
+    private class GameJournal implements TurnJournal {
+        /** The id of the game in the log. */
+        private final long gameId;
+
+        /** Reusable buffer holding the body of the record being written. */
+        private final ByteBuffer body = ByteBuffer.allocate(MAX_BODY_BYTES);
+
+        /** Reusable checksum calculator. */
+        private final CRC32 crc = new CRC32();
+
+        /**
+         * Constructs the journal of a game.
+         *
+         * @param gameId the id of the game in the log
+         */
+        GameJournal(long gameId) {
+            this.gameId = gameId;
+        }
+
+        /**
+         * Starts a new record body.
+         *
+         * @param kind the record kind
+         * @return the body buffer, positioned after the header
+         */
+        ByteBuffer start(byte kind) {
+            body.clear();
+            body.putLong(gameId).put(kind);
+            return body;
+        }
+
+        /**
+         * Appends the current record body to the log and waits until it is durable.
+         *
+         * @throws IOException if the record cannot be made durable
+         */
+        void commit() throws IOException {
+            body.flip();
+            crc.reset();
+            crc.update(body.array(), 0, body.limit());
+            append(body, (int) crc.getValue());
+        }
+
+        /**
+         * Commits a decision record, reporting failures as unchecked exceptions since the game cannot continue.
+         */
+        private void commitDecision() {
+            try {
+                commit();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not log decision of game " + gameId, e);
+            }
+        }
+
+        @Override
+        public void cardPlayed(int seat, int position, Card card) {
+            start(PLAY).put((byte) seat).put((byte) position).put((byte) CardCatalog.faceOf(card));
+            commitDecision();
+        }
+
+        @Override
+        public void drawChosen(int seat) {
+            start(DRAW).put((byte) seat);
+            commitDecision();
+        }
+
+        @Override
+        public void colorChosen(int seat, CardColor color) {
+            start(COLOR).put((byte) seat).put((byte) color.ordinal());
+            commitDecision();
+        }
+    }
+
+    /**
+     * A strategy that returns logged decisions while still consulting the original strategy, and checks that
+     * each one is made by the logged seat.
+     */
+    private static class ReplayStrategy implements PlayerStrategy {
+        /** The id of the replayed game. */
+        private final long gameId;
+
+        /** The logged decisions not applied yet, shared by all seats in log order. */
+        private final Deque<int[]> decisions;
+
+        /** The strategy the seat used in the original game. */
+        private final PlayerStrategy original;
+
+        /**
+         * Constructs a replay strategy.
+         *
+         * @param gameId the id of the replayed game
+         * @param decisions the logged decisions, as {kind, seat, value, face}
+         * @param original the strategy the seat used in the original game
+         */
+        ReplayStrategy(long gameId, Deque<int[]> decisions, PlayerStrategy original) {
+            this.gameId = gameId;
+            this.decisions = decisions;
+            this.original = original;
+        }
+
+        @Override
+        public Card choosePlayableCard(Player player, Card topCard, Random random) {
+            Card chosen = original.choosePlayableCard(player, topCard, random);
+            int[] next = decisions.peek();
+            if (next == null || next[0] == COLOR) {
+                return chosen;
+            }
+            decisions.poll();
+            checkSeat(next, player);
+            if (next[0] == DRAW) {
+                return null;
+            }
+            List<Card> hand = player.getHandView();
+            if (next[2] >= hand.size() || CardCatalog.faceOf(hand.get(next[2])) != next[3]) {
+                throw new IllegalStateException("Replay of game " + gameId + " diverged: seat " + next[1]
+                        + " holds no card of face " + next[3] + " at hand position " + next[2]);
+            }
+            return hand.get(next[2]);
+        }
+
+        @Override
+        public CardColor chooseColor(Player player, Random random) {
+            CardColor chosen = original.chooseColor(player, random);
+            int[] next = decisions.peek();
+            if (next == null || next[0] != COLOR) {
+                return chosen;
+            }
+            decisions.poll();
+            checkSeat(next, player);
+            return COLORS[next[2]];
+        }
+
+        /**
+         * Checks that a logged decision belongs to the player being asked.
+         *
+         * @param decision the logged decision
+         * @param player the player making the replayed decision
+         * @throws IllegalStateException if the decision was logged for another seat
+         */
+        private void checkSeat(int[] decision, Player player) {
+            if (decision[1] != player.getSeat()) {
+                throw new IllegalStateException("Replay of game " + gameId + " diverged: seat " + player.getSeat()
+                        + " is deciding, but the log holds a decision of seat " + decision[1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.duocardgame;
+
+import java.util.Random;
+
+/**
+ * A version of the original heuristic whose choices are controlled by {@link HeuristicWeights}.
+ * <p>
+ * Playable cards are split into same-color, different-colored and wild cards. Within a category the card
+ * maximizing {@code weight * score} is chosen, with ties broken at random. The categories are tried in an
+ * order decided by the same-color bias and the wild-first probability.
+ * </p>
+ */
+public class WeightedHeuristicStrategy implements PlayerStrategy {
+    /** The weights of this strategy. */
+    private final HeuristicWeights weights;
+
+    /**
+     * Constructs a strategy with the given weights.
+     *
+     * @param weights the weights controlling the choices
+     */
+    public WeightedHeuristicStrategy(HeuristicWeights weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Returns the weights of this strategy.
+     *
+     * @return the weights
+     */
+    public HeuristicWeights getWeights() {
+        return weights;
+    }
+
+    /**
+     * Returns the class name followed by the weights.
+     *
+     * @return the configuration key of this strategy
+     */
+    @Override
+    public String getConfigKey() {
+        return getClass().getName() + "(" + weights.toKey() + ")";
+    }
+
+    /**
+     * Chooses a playable card according to the weights.
+     *
+     * @param player the player whose turn it is
+     * @param topCard the card on the top of the discard pile
+     * @param random the game's random number generator
+     * @return a playable card if one exists; otherwise, {@code null}
+     */
+    @Override
+    public Card choosePlayableCard(Player player, Card topCard, Random random) {
+        Card wild = pick(player, topCard, random, Category.WILD, 0);
+        if (wild != null && random.nextDouble() < weights.getWildFirstProbability()) {
+            return wild;
+        }
+        Card same = pick(player, topCard, random, Category.SAME_COLOR, weights.getSameColorScoreWeight());
+        if (same != null && random.nextDouble() < weights.getSameColorBias()) {
+            return same;
+        }
+        Card other = pick(player, topCard, random, Category.OTHER_COLOR, weights.getOtherColorScoreWeight());
+        if (other != null) {
+            return other;
+        }
+        return same != null ? same : wild;
+    }
+
+    /**
+     * Picks the playable card of a category maximizing {@code weight * score}, breaking ties at random.
+     *
+     * @param player the player whose hand is searched
+     * @param topCard the card on the top of the discard pile
+     * @param random the random generator used for tie-breaking
+     * @param category the category of cards to consider
+     * @param weight the score weight
+     * @return the chosen card, or {@code null} if the category has no playable card
+     */
+    private static Card pick(Player player, Card topCard, Random random, Category category, double weight) {
+        Card best = null;
+        double bestValue = 0;
+        int ties = 0;
+        for (Card c : player.getHandView()) {
+            if (!c.isPlayable(topCard) || Category.of(c, topCard) != category) continue;
+            double value = weight * c.getScore();
+            if (best == null || value > bestValue) {
+                best = c;
+                bestValue = value;
+                ties = 1;
+            } else if (value == bestValue && random.nextInt(++ties) == 0) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The categories a playable card falls into.
+     */
+    private enum Category {
+        /** A card of the same color as the top card. */
+        SAME_COLOR,
+        /** A colored card of another color, playable by number or action type. */
+        OTHER_COLOR,
+        /** A wild card without an assigned color. */
+        WILD;
+
+        /**
+         * Returns the category of a playable card.
+         *
+         * @param card the card
+         * @param topCard the card on the top of the discard pile
+         * @return the category of the card
+         */
+        static Category of(Card card, Card topCard) {
+            if (card.getColor() == CardColor.WILD) return WILD;
+            return card.getColor() == topCard.getColor() ? SAME_COLOR : OTHER_COLOR;
+        }
+    }
+}